@@ -0,0 +1,206 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Anytime Repairing A* (ARA*) with a time or expansion budget.
+// Runs weighted A* with f = g + epsilon * h, publishes the path as soon as one is
+// found, then lowers epsilon and repairs the search, reusing the g-costs already
+// computed. Each published path is at most `bound` times the optimal cost. When
+// the budget runs out the best path so far is returned; calling run again with
+// more budget continues where the last call stopped.
+// Moves, costs and heuristic are the ones AstarAlgorithm uses.
+public class AnytimeSearch {
+
+    public static class Result {
+        public final GridPath path;    // best path so far, null if none found yet
+        public final double bound;     // path cost <= bound * optimal cost
+        public final boolean complete; // bound is 1, no further refinement possible
+        public final int expansions;   // total expansions so far
+
+        Result(GridPath path, double bound, boolean complete, int expansions) {
+            this.path = path;
+            this.bound = bound;
+            this.complete = complete;
+            this.expansions = expansions;
+        }
+    }
+
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private final JpsGrid grid;
+    private final SearchContext ctx;
+    private final int startCell, goalCell, goalX, goalY;
+    private final double epsilonStep;
+    private double epsilon;
+
+    // INCONS list: cells improved while closed, re-queued on the next iteration
+    private int[] incons = new int[64];
+    private int inconsSize;
+    private final boolean[] inIncons;
+
+    private GridPath bestPath;
+    private double bestBound = Double.POSITIVE_INFINITY;
+    private boolean complete;
+    private boolean improving; // an ImprovePath pass is in progress
+    private int expansions;
+
+    public AnytimeSearch(JpsGrid grid, int startX, int startY, int goalX, int goalY) {
+        this(grid, startX, startY, goalX, goalY, 3.0, 0.5);
+    }
+
+    public AnytimeSearch(JpsGrid grid, int startX, int startY, int goalX, int goalY,
+                         double initialEpsilon, double epsilonStep) {
+        if (initialEpsilon < 1 || epsilonStep <= 0) {
+            throw new IllegalArgumentException("epsilon must be >= 1 and step > 0");
+        }
+        this.grid = grid;
+        this.ctx = new SearchContext(grid.width * grid.height);
+        this.inIncons = new boolean[grid.width * grid.height];
+        this.startCell = startY * grid.width + startX;
+        this.goalCell = goalY * grid.width + goalX;
+        this.goalX = goalX;
+        this.goalY = goalY;
+        this.epsilon = initialEpsilon;
+        this.epsilonStep = epsilonStep;
+
+        ctx.reset();
+        if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+            complete = true;
+            return;
+        }
+        ctx.set(startCell, 0, startCell);
+        ctx.open.push(startCell, fValue(startCell));
+        improving = true;
+    }
+
+    // Searches until the deadline (System.nanoTime) passes or the bound reaches 1
+    public Result runUntil(long deadlineNanos) {
+        return run(deadlineNanos, Integer.MAX_VALUE);
+    }
+
+    // Searches for at most maxExpansions more expansions
+    public Result runExpansions(int maxExpansions) {
+        return run(Long.MAX_VALUE, maxExpansions);
+    }
+
+    public Result result() {
+        return new Result(bestPath, bestBound, complete, expansions);
+    }
+
+    private Result run(long deadlineNanos, int maxExpansions) {
+        int budget = maxExpansions;
+        while (!complete) {
+            if (!improving) {
+                startNextIteration();
+            }
+            int used = improvePath(deadlineNanos, budget);
+            if (used < 0) {
+                break; // out of budget mid-pass
+            }
+            budget -= used;
+            improving = false;
+            publish();
+        }
+        return result();
+    }
+
+    // Expands until the goal's f is no larger than the best open f.
+    // Returns the number of expansions, or -1 if the budget ran out first.
+    private int improvePath(long deadlineNanos, int budget) {
+        int used = 0;
+        IndexedMinHeap open = ctx.open;
+        int width = grid.width;
+        while (!open.isEmpty() && fValue(goalCell) > open.peekKey()) {
+            if (used >= budget) {
+                return -1;
+            }
+            if ((used & (CLOCK_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() >= deadlineNanos) {
+                return -1;
+            }
+            int current = open.pop();
+            ctx.close(current);
+            used++;
+            expansions++;
+
+            int x = current % width;
+            int y = current / width;
+            for (int d = 0; d < 8; d++) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) {
+                    continue;
+                }
+                int neighbor = (y + AstarAlgorithm.DY[d]) * width + x + AstarAlgorithm.DX[d];
+                double g = ctx.g[current] + AstarAlgorithm.STEP_COST[d];
+                if (g < ctx.gOf(neighbor)) {
+                    ctx.set(neighbor, g, current);
+                    if (!ctx.isClosed(neighbor)) {
+                        open.push(neighbor, fValue(neighbor));
+                    } else if (!inIncons[neighbor]) {
+                        addIncons(neighbor);
+                    }
+                }
+            }
+        }
+        return used;
+    }
+
+    // Records the current path and its suboptimality bound
+    private void publish() {
+        double goalG = ctx.gOf(goalCell);
+        if (goalG == Double.POSITIVE_INFINITY) {
+            complete = true; // open list exhausted, goal unreachable
+            return;
+        }
+        bestPath = AstarAlgorithm.reconstructPath(ctx, startCell, goalCell, grid.width);
+
+        // Lower bound on the optimal cost: min g + h over OPEN and INCONS
+        double minF = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < ctx.open.size(); i++) {
+            minF = Math.min(minF, ctx.g[ctx.open.cellAt(i)] + heuristic(ctx.open.cellAt(i)));
+        }
+        for (int i = 0; i < inconsSize; i++) {
+            minF = Math.min(minF, ctx.g[incons[i]] + heuristic(incons[i]));
+        }
+        bestBound = minF >= goalG ? 1.0 : Math.max(1.0, Math.min(epsilon, goalG / minF));
+        if (bestBound <= 1.0) {
+            complete = true;
+        }
+    }
+
+    // Lowers epsilon, moves INCONS into OPEN, re-keys OPEN and clears CLOSED
+    private void startNextIteration() {
+        epsilon = Math.max(1.0, epsilon - epsilonStep);
+        IndexedMinHeap open = ctx.open;
+        for (int i = 0; i < inconsSize; i++) {
+            inIncons[incons[i]] = false;
+            open.push(incons[i], 0);
+        }
+        inconsSize = 0;
+
+        int[] cells = new int[open.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = open.cellAt(i);
+        }
+        open.clear();
+        for (int cell : cells) {
+            open.push(cell, fValue(cell));
+        }
+        ctx.clearClosed();
+        improving = true;
+    }
+
+    private void addIncons(int cell) {
+        if (inconsSize == incons.length) {
+            incons = Arrays.copyOf(incons, inconsSize * 2);
+        }
+        incons[inconsSize++] = cell;
+        inIncons[cell] = true;
+    }
+
+    private double fValue(int cell) {
+        return ctx.gOf(cell) + epsilon * heuristic(cell);
+    }
+
+    private double heuristic(int cell) {
+        return AstarAlgorithm.calculateHCost(cell % grid.width, cell / grid.width, goalX, goalY);
+    }
+}
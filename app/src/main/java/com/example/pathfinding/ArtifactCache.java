@@ -0,0 +1,187 @@
+package com.example.pathfinding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+// On-disk cache of artifacts derived from a map (jump points and the like), keyed
+// by a hash of the grid content so reloading an identical map skips preprocessing.
+// Each entry is one file "<grid key>.<kind>" holding a header (magic, cache format,
+// kind, artifact version, length), the payload and a CRC32. An entry whose
+// format or version does not match what the caller asks for is treated as a miss
+// and deleted, so old formats never get parsed. When the directory grows past
+// maxBytes, the least recently used entries are removed.
+public class ArtifactCache {
+    private static final int MAGIC = 0x50415243; // "PARC"
+    private static final int FORMAT = 1;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File dir;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true); // name -> size, LRU order
+    private long totalBytes;
+
+    public ArtifactCache(File dir, long maxBytes) {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        dir.mkdirs();
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        // Oldest first, so the access order starts out as the file modification order
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_SUFFIX)) {
+                file.delete(); // left over from an interrupted write
+            } else if (file.isFile()) {
+                entries.put(file.getName(), file.length());
+                totalBytes += file.length();
+            }
+        }
+    }
+
+    // Hex SHA-256 of the grid's size and walkability bits
+    public static String keyOf(JpsGrid grid) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[8 * grid.wordsPerRow];
+        digest.update(intBytes(grid.width));
+        digest.update(intBytes(grid.height));
+        for (int y = 0; y < grid.height; y++) {
+            for (int w = 0; w < grid.wordsPerRow; w++) {
+                long word = grid.word(y, w);
+                for (int b = 0; b < 8; b++) {
+                    buffer[w * 8 + b] = (byte) (word >>> (b * 8));
+                }
+            }
+            digest.update(buffer);
+        }
+        StringBuilder key = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            key.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return key.toString();
+    }
+
+    // The payload stored for (key, kind) at exactly this version, or null
+    public synchronized byte[] get(String key, String kind, int version) {
+        String name = fileName(key, kind);
+        if (entries.get(name) == null) { // get() also marks the entry as recently used
+            return null;
+        }
+        File file = new File(dir, name);
+        byte[] payload = null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() == MAGIC && in.readInt() == FORMAT && in.readUTF().equals(kind)
+                    && in.readInt() == version) {
+                int length = in.readInt();
+                if (length >= 0 && length <= file.length()) {
+                    byte[] data = new byte[length];
+                    in.readFully(data);
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    if (in.readLong() == crc.getValue()) {
+                        payload = data;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            payload = null; // truncated or unreadable: same as stale
+        }
+        if (payload == null) {
+            remove(name);
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+        return payload;
+    }
+
+    // Stores the payload, replacing any other version of the same artifact
+    public synchronized void put(String key, String kind, int version, byte[] payload) throws IOException {
+        String name = fileName(key, kind);
+        File temp = new File(dir, name + TEMP_SUFFIX);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeUTF(kind);
+            out.writeInt(version);
+            out.writeInt(payload.length);
+            out.write(payload);
+            out.writeLong(crc.getValue());
+        }
+        remove(name);
+        File file = new File(dir, name);
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not write " + file);
+        }
+        entries.put(name, file.length());
+        totalBytes += file.length();
+        evict();
+    }
+
+    public synchronized long sizeBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int entryCount() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        List<String> names = new ArrayList<>(entries.keySet());
+        for (String name : names) {
+            remove(name);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            new File(dir, eldest.getKey()).delete();
+            totalBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private void remove(String name) {
+        Long size = entries.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        new File(dir, name).delete();
+    }
+
+    private static String fileName(String key, String kind) {
+        if (!kind.matches("[a-z0-9-]+")) {
+            throw new IllegalArgumentException("Artifact kind must be lowercase letters, digits or '-': " + kind);
+        }
+        return key + "." + kind;
+    }
+
+    private static byte[] intBytes(int v) {
+        return new byte[] {(byte) v, (byte) (v >>> 8), (byte) (v >>> 16), (byte) (v >>> 24)};
+    }
+}
@@ -1,90 +1,155 @@
 package com.example.pathfinding;
 
-import java.util.*;
-
 public class AstarAlgorithm {
 
-    public static List<Node> findPath(Node start, Node goal, int[][] grid) {
+    // Moves: cardinal directions first, then diagonals; costs are 10 straight / 14 diagonal
+    static final int[] DX = {0, 0, -1, 1, -1, -1, 1, 1};
+    static final int[] DY = {-1, 1, 0, 0, -1, 1, -1, 1};
+    static final int[] STEP_COST = {10, 10, 10, 10, 14, 14, 14, 14};
 
-        int rows = grid.length;    // Rows correspond to Y-axis
-        int cols = grid[0].length; // Columns correspond to X-axis
+    public static GridPath findPath(Node start, Node goal, int[][] grid) {
+        JpsGrid jpsGrid = new JpsGrid(grid);
+        return findPath(jpsGrid, start.x, start.y, goal.x, goal.y,
+                new SearchContext(jpsGrid.width * jpsGrid.height));
+    }
 
-        PriorityQueue<Node> openSet = new PriorityQueue<>();
-        Map<String, Node> allNodes = new HashMap<>(); // Key: "x,y", Value: Node
+    // A* over primitive cell arrays; ctx can be reused between queries on the same grid
+    public static GridPath findPath(JpsGrid grid, int startX, int startY, int goalX, int goalY,
+                                    SearchContext ctx) {
+        return findPath(grid, startX, startY, goalX, goalY, ctx, null);
+    }
 
-        start.gCost = 0;
-        openSet.add(start);
-        allNodes.put(nodeKey(start.x, start.y), start);
+    // With goal bounds (built for this grid), moves that cannot start a shortest
+    // path to the goal are never generated
+    public static GridPath findPath(JpsGrid grid, int startX, int startY, int goalX, int goalY,
+                                    SearchContext ctx, GoalBounds bounds) {
+        SearchHandle search = begin(grid, startX, startY, goalX, goalY, ctx, bounds);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
 
-        while (!openSet.isEmpty()) {
-            Node current = openSet.poll();
+    // The same search, run a slice at a time by the caller; ctx belongs to the
+    // handle until it is done
+    public static SearchHandle begin(JpsGrid grid, int startX, int startY, int goalX, int goalY,
+                                     SearchContext ctx, GoalBounds bounds) {
+        return begin(grid, startX, startY, goalX, goalY, ctx, bounds, null);
+    }
 
-            // Check if goal is reached
-            if (current.equals(goal)) {
-                return reconstructPath(current);
+    // With move masks built for this grid, neighbours come from one byte per cell
+    static SearchHandle begin(JpsGrid grid, int startX, int startY, int goalX, int goalY,
+                              SearchContext ctx, GoalBounds bounds, MoveMasks moves) {
+        return new Search(grid, startX, startY, goalX, goalY, ctx, bounds, moves);
+    }
+
+    private static final class Search extends SearchHandle {
+        private final JpsGrid grid;
+        private final SearchContext ctx;
+        private final GoalBounds bounds;
+        private final MoveMasks moves;
+        private final int width, startCell, goalCell, goalX, goalY;
+
+        Search(JpsGrid grid, int startX, int startY, int goalX, int goalY,
+               SearchContext ctx, GoalBounds bounds, MoveMasks moves) {
+            this.grid = grid;
+            this.ctx = ctx;
+            this.bounds = bounds;
+            this.moves = moves;
+            this.width = grid.width;
+            this.startCell = startY * width + startX;
+            this.goalCell = goalY * width + goalX;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+                finish(null);
+                return;
             }
+            ctx.reset();
+            ctx.set(startCell, 0, startCell);
+            ctx.open.push(startCell, calculateHCost(startX, startY, goalX, goalY));
+        }
 
-            current.visited = true;
+        @Override
+        void expand() {
+            // Return null if no path is found
+            if (ctx.open.isEmpty() || ctx.isCancelled()) {
+                finish(null);
+                return;
+            }
+            int current = ctx.open.pop();
 
-            for (int[] direction : new int[][]{
-                    {0, -1}, {0, 1}, {-1, 0}, {1, 0},  // Cardinal directions
-                    {-1, -1}, {-1, 1}, {1, -1}, {1, 1} // Diagonal directions
-            }){ // Up, Down, Left, Right
-                int neighborX = current.x + direction[0]; // Columns (x-axis)
-                int neighborY = current.y + direction[1]; // Rows (y-axis)
+            // Check if goal is reached
+            if (current == goalCell) {
+                finish(reconstructPath(ctx, startCell, goalCell, width));
+                return;
+            }
 
-                // Adjust checks to map grid correctly
-                if (!isValidPosition(neighborY, neighborX, rows, cols) || grid[neighborY][neighborX] == 1) {
-                    continue; // Skip invalid or non-walkable nodes
+            ctx.close(current);
+            countExpansion();
+            int x = current % width;
+            int y = current / width;
+
+            // Only the legal moves, in DX/DY order
+            int legal = moves != null ? moves.of(current) : MoveMasks.at(grid, x, y);
+            for (; legal != 0; legal &= legal - 1) {
+                int d = Integer.numberOfTrailingZeros(legal);
+                if (bounds != null && !bounds.allows(current, d, goalX, goalY)) {
+                    continue; // Goal lies outside this move's bounding box
                 }
-
-                Node neighbor = allNodes.computeIfAbsent(nodeKey(neighborX, neighborY), k -> new Node(neighborX, neighborY));
-                if (neighbor.visited) {
+                int neighborX = x + DX[d];
+                int neighborY = y + DY[d];
+                int neighbor = neighborY * width + neighborX;
+                if (ctx.isClosed(neighbor)) {
                     continue; // Skip already visited nodes
                 }
 
-//                int tentativeGCost = current.gCost + 1;
-                int stepCost = (Math.abs(direction[0]) + Math.abs(direction[1])) == 2 ? 14 : 10; // 14 for diagonal, 10 for horizontal/vertical
-                int tentativeGCost = current.gCost + stepCost;
-                if (tentativeGCost < neighbor.gCost) {
-                    neighbor.gCost = tentativeGCost;
-                    neighbor.hCost = calculateHCost(neighbor, goal);
-                    neighbor.parent = current;
-
-                    if (!openSet.contains(neighbor)) {
-                        openSet.add(neighbor);
-                    }
+                double tentativeGCost = ctx.g[current] + STEP_COST[d];
+                if (tentativeGCost < ctx.gOf(neighbor)) {
+                    ctx.set(neighbor, tentativeGCost, current);
+                    ctx.open.push(neighbor, tentativeGCost
+                            + calculateHCost(neighborX, neighborY, goalX, goalY));
                 }
             }
-
         }
+    }
 
-
-        // Return empty list if no path is found
-
-        return new ArrayList<>();
-
+    static boolean canMove(JpsGrid grid, int x, int y, int d) {
+        return grid.isWalkable(x + DX[d], y + DY[d]);
     }
 
-    private static String nodeKey(int x, int y) {
-        return x + "," + y;
+    // Octile distance in the same 10/14 units as STEP_COST, so it never overestimates
+    static int calculateHCost(int x, int y, int goalX, int goalY) {
+        int dx = Math.abs(x - goalX);
+        int dy = Math.abs(y - goalY);
+        return 10 * Math.max(dx, dy) + 4 * Math.min(dx, dy);
     }
 
-    private static List<Node> reconstructPath(Node current) {
-        List<Node> path = new ArrayList<>();
-        while (current != null) {
-            path.add(current);
-            current = current.parent;
-        }
-        Collections.reverse(path);
-        return path;
+    // Keep only the cells where the path turns; GridPath expands the straight runs
+    static GridPath reconstructPath(SearchContext ctx, int startCell, int goalCell, int width) {
+        return reconstructPath(ctx.parent, startCell, goalCell, width, ctx.g[goalCell] / 10.0);
     }
 
-    private static boolean isValidPosition(int y, int x, int rows, int cols) {
-        return x >= 0 && y >= 0 && x < cols && y < rows; // Corrected check
+    static GridPath reconstructPath(int[] parents, int startCell, int goalCell, int width, double cost) {
+        int[] turns = new int[16];
+        int count = 0;
+        turns[count++] = goalCell;
+        for (int cell = goalCell; cell != startCell; cell = parents[cell]) {
+            int parent = parents[cell];
+            if (parent == startCell || !isStraight(cell, parent, parents[parent], width)) {
+                if (count == turns.length) {
+                    turns = java.util.Arrays.copyOf(turns, count * 2);
+                }
+                turns[count++] = parent;
+            }
+        }
+        int[] waypoints = new int[count];
+        for (int i = 0; i < count; i++) {
+            waypoints[i] = turns[count - 1 - i];
+        }
+        return new GridPath(width, waypoints, cost);
     }
 
-    private static int calculateHCost(Node from, Node to) {
-        return Math.abs(from.x - to.x) + Math.abs(from.y - to.y); // Manhattan distance
+    private static boolean isStraight(int a, int b, int c, int width) {
+        return a % width - b % width == b % width - c % width
+                && a / width - b / width == b / width - c / width;
     }
 }
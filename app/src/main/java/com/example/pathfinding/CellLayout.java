@@ -0,0 +1,89 @@
+package com.example.pathfinding;
+
+// Cell numbering in 8x8 tiles instead of rows.
+// Tiles are numbered row by row and each holds 64 consecutive indices in Morton
+// order (PathDatabase.morton), so the 8 neighbours of a cell are almost always
+// in the same or an adjacent tile: a few cache lines of any per-cell array
+// instead of three rows width apart. A ring of empty tiles around the map means
+// a neighbour index never falls outside the arrays, and since tiles are a fixed
+// stride apart the index difference to each neighbour depends only on the
+// cell's place in its tile, so it is precomputed once (neighborOffset).
+// Walkability in this layout is one long per tile, bit = index & 63.
+final class CellLayout {
+    private static final int[] LOCAL = new int[64];   // (y & 7) * 8 + (x & 7) -> index & 63
+    private static final int[] LOCAL_X = new int[64]; // index & 63 -> x & 7
+    private static final int[] LOCAL_Y = new int[64];
+
+    static {
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                int local = PathDatabase.morton(x, y);
+                LOCAL[y * 8 + x] = local;
+                LOCAL_X[local] = x;
+                LOCAL_Y[local] = y;
+            }
+        }
+    }
+
+    final int width, height;
+    final int tilesX, tilesY; // including the empty border
+    // [(index & 63) * 8 + d] -> neighbour index - index, d as in AstarAlgorithm.DX/DY
+    final int[] neighborOffset = new int[64 * 8];
+
+    CellLayout(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.tilesX = ((width + 7) >>> 3) + 2;
+        this.tilesY = ((height + 7) >>> 3) + 2;
+        // Measured from a tile away from the border; the same in every tile
+        for (int local = 0; local < 64; local++) {
+            int x = 8 + LOCAL_X[local];
+            int y = 8 + LOCAL_Y[local];
+            for (int d = 0; d < 8; d++) {
+                neighborOffset[local * 8 + d] = rawIndex(x + AstarAlgorithm.DX[d], y + AstarAlgorithm.DY[d])
+                        - rawIndex(x, y);
+            }
+        }
+    }
+
+    // Length of per-cell arrays in this layout
+    int size() {
+        return tilesX * tilesY * 64;
+    }
+
+    int index(int x, int y) {
+        return rawIndex(x + 8, y + 8);
+    }
+
+    int x(int index) {
+        return ((index >>> 6) % tilesX - 1) * 8 + LOCAL_X[index & 63];
+    }
+
+    int y(int index) {
+        return ((index >>> 6) / tilesX - 1) * 8 + LOCAL_Y[index & 63];
+    }
+
+    // Row-major cell index (y * width + x)
+    int rowMajor(int index) {
+        return y(index) * width + x(index);
+    }
+
+    // One long per tile, bit (index & 63) set when the cell is walkable
+    long[] walkable(JpsGrid grid) {
+        long[] tiles = new long[tilesX * tilesY];
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                if (grid.isWalkable(x, y)) {
+                    int i = index(x, y);
+                    tiles[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        return tiles;
+    }
+
+    // Coordinates shifted by the border tile
+    private int rawIndex(int x, int y) {
+        return (((y >>> 3) * tilesX + (x >>> 3)) << 6) | LOCAL[(y & 7) * 8 + (x & 7)];
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.pathfinding;
+
+import java.util.stream.IntStream;
+
+// Per-cell clearance: the chessboard distance from a cell to the nearest blocked
+// cell or map edge, capped at 255 (0 for blocked cells). An agent that covers a
+// (2k - 1) x (2k - 1) square centred on its cell fits wherever clearance >= k, so
+// k = 1 is ordinary walkability, k = 2 a 3x3 agent, and so on.
+//
+// Computed once per grid with Meijster's two-pass distance transform under the
+// chessboard metric: a column pass (vertical distance to the nearest obstacle)
+// that runs in parallel over column stripes, then a row pass (lower envelope of
+// the column distances) that runs in parallel over rows.
+// view(k) exposes the cells with clearance >= k as a read-only JpsGrid, so every
+// engine that searches a JpsGrid handles any agent size from the same map.
+public class ClearanceMap {
+    public static final int MAX_CLEARANCE = 255;
+    private static final int COLUMN_STRIPE = 64;
+
+    final int width, height;
+    final byte[] clearance;
+    private final View[] views = new View[MAX_CLEARANCE + 1];
+
+    private ClearanceMap(int width, int height, byte[] clearance) {
+        this.width = width;
+        this.height = height;
+        this.clearance = clearance;
+    }
+
+    public static ClearanceMap compute(final JpsGrid grid) {
+        final int width = grid.width;
+        final int height = grid.height;
+        final int[] column = new int[width * height];
+
+        // Pass 1: distance along the column to the nearest blocked cell, edges count as blocked
+        int stripes = (width + COLUMN_STRIPE - 1) / COLUMN_STRIPE;
+        IntStream.range(0, stripes).parallel().forEach(stripe -> {
+            int x0 = stripe * COLUMN_STRIPE;
+            int x1 = Math.min(width, x0 + COLUMN_STRIPE);
+            for (int y = 0; y < height; y++) {
+                int row = y * width;
+                for (int x = x0; x < x1; x++) {
+                    column[row + x] = !grid.isWalkable(x, y) ? 0 : y == 0 ? 1 : column[row - width + x] + 1;
+                }
+            }
+            int bottom = (height - 1) * width;
+            for (int x = x0; x < x1; x++) {
+                column[bottom + x] = Math.min(column[bottom + x], 1);
+            }
+            for (int y = height - 2; y >= 0; y--) {
+                int row = y * width;
+                for (int x = x0; x < x1; x++) {
+                    int below = column[row + width + x] + 1;
+                    if (below < column[row + x]) {
+                        column[row + x] = below;
+                    }
+                }
+            }
+        });
+
+        // Pass 2: D(x) = min over i of max(|x - i|, column(i)), one row at a time
+        final byte[] clearance = new byte[width * height];
+        IntStream.range(0, height).parallel().forEach(y -> {
+            int[] s = new int[width];
+            int[] t = new int[width];
+            rowPass(column, y * width, width, s, t, clearance);
+        });
+        return new ClearanceMap(width, height, clearance);
+    }
+
+    private static void rowPass(int[] column, int row, int width, int[] s, int[] t, byte[] out) {
+        int q = 0;
+        s[0] = 0;
+        t[0] = 0;
+        for (int u = 1; u < width; u++) {
+            while (q >= 0 && f(column, row, t[q], s[q]) > f(column, row, t[q], u)) {
+                q--;
+            }
+            if (q < 0) {
+                q = 0;
+                s[0] = u;
+            } else {
+                int w = 1 + sep(column, row, s[q], u);
+                if (w < width) {
+                    q++;
+                    s[q] = u;
+                    t[q] = w;
+                }
+            }
+        }
+        for (int u = width - 1; u >= 0; u--) {
+            int d = Math.min(f(column, row, u, s[q]), Math.min(u + 1, width - u)); // side edges
+            out[row + u] = (byte) Math.min(d, MAX_CLEARANCE);
+            if (u == t[q]) {
+                q--;
+            }
+        }
+    }
+
+    private static int f(int[] column, int row, int x, int i) {
+        return Math.max(Math.abs(x - i), column[row + i]);
+    }
+
+    // First x at which the envelope of u beats that of i, minus one (chessboard metric)
+    private static int sep(int[] column, int row, int i, int u) {
+        int gi = column[row + i];
+        int gu = column[row + u];
+        if (gi <= gu) {
+            return Math.max(i + gu, (i + u) / 2);
+        }
+        return Math.min(u - gi, (i + u) / 2);
+    }
+
+    public int clearance(int x, int y) {
+        return clearance[y * width + x] & 0xFF;
+    }
+
+    public boolean fits(int x, int y, int required) {
+        return x >= 0 && x < width && y >= 0 && y < height
+                && (clearance[y * width + x] & 0xFF) >= required;
+    }
+
+    // The cells where an agent needing `required` clearance fits, as a read-only grid.
+    // Views are cached; each packs its cells into a bitset (one bit per cell) when
+    // first asked for, so searches read words straight from it.
+    public synchronized JpsGrid view(int required) {
+        if (required < 1 || required > MAX_CLEARANCE) {
+            throw new IllegalArgumentException("required clearance must be in 1.." + MAX_CLEARANCE);
+        }
+        View view = views[required];
+        if (view == null) {
+            view = new View(this, required);
+            views[required] = view;
+        }
+        return view;
+    }
+
+    static final class View extends JpsGrid {
+        View(ClearanceMap map, int required) {
+            super(map.width, map.height);
+            IntStream.range(0, height).parallel().forEach(y -> {
+                int row = y * width;
+                int words = y * wordsPerRow;
+                for (int x = 0; x < width; x++) {
+                    if ((map.clearance[row + x] & 0xFF) >= required) {
+                        bits[words + (x >>> 6)] |= 1L << (x & 63);
+                    }
+                }
+            });
+        }
+
+        @Override
+        void setWord(int y, int w, long value) {
+            throw new UnsupportedOperationException("Clearance views are read-only");
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Windowed Hierarchical Cooperative A* (WHCA*) for many agents on one JpsGrid.
+// Each plan() call plans every agent in priority order over the next `window`
+// time steps with a space-time A*, avoiding the (cell, time) slots reserved by
+// the agents planned before it. Beyond the window the remaining cost is the
+// agent's true distance to its goal from a ReverseDistance search, which is kept
+// between plan() calls so the abstract distances are reused every tick.
+// Moves and costs are AstarAlgorithm's; waiting costs a straight step except at the goal.
+public class CooperativePlanner {
+    private static final int WAIT_COST = 10;
+
+    private final JpsGrid grid;
+    private final int window;
+    private final ReservationTable reservations;
+
+    private int agentCount;
+    private int[] position = new int[16];
+    private int[] goal = new int[16];
+    private int[] priority = new int[16];
+    private ReverseDistance[] distances = new ReverseDistance[16];
+    private int[][] plans = new int[16][]; // cell per time step, 0..window
+
+    // Space-time A* scratch, reused across agents and ticks
+    private int[] nodeCell = new int[1024];
+    private int[] nodeTime = new int[1024];
+    private int[] nodeG = new int[1024];
+    private int[] nodeParent = new int[1024];
+    private boolean[] nodeClosed = new boolean[1024];
+    private int nodeCount;
+    private long[] stateKeys = new long[2048]; // (time << 32 | cell) -> node index
+    private int[] stateNodes = new int[2048];
+    private final LongMinHeap open = new LongMinHeap(1024); // (f << 32 | node index)
+
+    public CooperativePlanner(JpsGrid grid, int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+        this.grid = grid;
+        this.window = window;
+        this.reservations = new ReservationTable(64 * (window + 1));
+    }
+
+    // Lower priority values are planned first. Returns the agent id.
+    public int addAgent(int startX, int startY, int goalX, int goalY, int agentPriority) {
+        if (agentCount == position.length) {
+            int n = agentCount * 2;
+            position = Arrays.copyOf(position, n);
+            goal = Arrays.copyOf(goal, n);
+            priority = Arrays.copyOf(priority, n);
+            distances = Arrays.copyOf(distances, n);
+            plans = Arrays.copyOf(plans, n);
+        }
+        int id = agentCount++;
+        position[id] = startY * grid.width + startX;
+        goal[id] = goalY * grid.width + goalX;
+        priority[id] = agentPriority;
+        distances[id] = new ReverseDistance(grid, goalX, goalY, startX, startY);
+        plans[id] = new int[] {position[id]};
+        return id;
+    }
+
+    public int agentCount() {
+        return agentCount;
+    }
+
+    public int window() {
+        return window;
+    }
+
+    public int positionX(int agent) {
+        return position[agent] % grid.width;
+    }
+
+    public int positionY(int agent) {
+        return position[agent] / grid.width;
+    }
+
+    public boolean hasArrived(int agent) {
+        return position[agent] == goal[agent];
+    }
+
+    public boolean allArrived() {
+        for (int i = 0; i < agentCount; i++) {
+            if (position[i] != goal[i]) return false;
+        }
+        return true;
+    }
+
+    // Cells the agent will occupy at time steps 0..window of the last plan
+    public int[] plannedCells(int agent) {
+        return plans[agent].clone();
+    }
+
+    // Replans all agents for the next window, highest priority first. Returns
+    // the number of agents that found no conflict-free plan; they wait where
+    // they are and are planned first on the next call.
+    public int plan() {
+        reservations.clear();
+        // Until it is planned, an agent holds its cell for the whole window, so
+        // nobody planned before it can route through where it stands
+        for (int i = 0; i < agentCount; i++) {
+            for (int t = 0; t <= window; t++) {
+                reservations.reserve(position[i], t, i);
+            }
+        }
+        int conflicts = 0;
+        int first = Integer.MAX_VALUE;
+        for (int i = 0; i < agentCount; i++) {
+            first = Math.min(first, priority[i]);
+        }
+        for (int agent : planningOrder()) {
+            int[] path = planAgent(agent);
+            if (path == null) {
+                path = new int[window + 1];
+                Arrays.fill(path, position[agent]);
+                conflicts++;
+                priority[agent] = first - 1;
+            }
+            for (int t = 0; t < path.length; t++) {
+                reservations.reserve(path[t], t, agent);
+                if (path[t] != position[agent]) {
+                    reservations.release(position[agent], t, agent);
+                }
+            }
+            plans[agent] = path;
+        }
+        return conflicts;
+    }
+
+    // Moves every agent `steps` time steps along its plan (steps <= window)
+    public void advance(int steps) {
+        for (int i = 0; i < agentCount; i++) {
+            int[] path = plans[i];
+            position[i] = path[Math.min(steps, path.length - 1)];
+        }
+    }
+
+    private int[] planningOrder() {
+        long[] keyed = new long[agentCount];
+        for (int i = 0; i < agentCount; i++) {
+            keyed[i] = ((long) priority[i] << 32) | i;
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[agentCount];
+        for (int i = 0; i < agentCount; i++) {
+            order[i] = (int) keyed[i];
+        }
+        return order;
+    }
+
+    // Space-time A* over (cell, t), t <= window. Stops at the first state that
+    // reaches the window edge, or the goal with the goal free for the rest of the
+    // window. Null if no plan within the window respects the reservations.
+    private int[] planAgent(int agent) {
+        ReverseDistance h = distances[agent];
+        int start = position[agent];
+        int goalCell = goal[agent];
+        int width = grid.width;
+
+        resetStates();
+        int root = addState(start, 0, 0, -1);
+        open.push(LongMinHeap.pack(h.distance(start), root));
+
+        int found = -1;
+        while (!open.isEmpty()) {
+            int node = (int) open.pop();
+            if (nodeClosed[node]) {
+                continue;
+            }
+            nodeClosed[node] = true;
+            int cell = nodeCell[node];
+            int t = nodeTime[node];
+
+            if (t == window || (cell == goalCell && goalFreeUntilWindow(cell, t, agent))) {
+                found = node;
+                break;
+            }
+
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = -1; d < 8; d++) {
+                int next;
+                int cost;
+                if (d < 0) {
+                    next = cell; // wait
+                    cost = cell == goalCell ? 0 : WAIT_COST;
+                } else {
+                    if (!AstarAlgorithm.canMove(grid, x, y, d)) {
+                        continue;
+                    }
+                    next = (y + AstarAlgorithm.DY[d]) * width + x + AstarAlgorithm.DX[d];
+                    cost = AstarAlgorithm.STEP_COST[d];
+                }
+                if (!reservations.canMove(cell, next, t, agent)) {
+                    continue;
+                }
+                int remaining = h.distance(next);
+                if (remaining == ReverseDistance.UNREACHABLE && d >= 0) {
+                    continue;
+                }
+                int g = nodeG[node] + cost;
+                int existing = findState(next, t + 1);
+                if (existing >= 0) {
+                    if (nodeClosed[existing] || nodeG[existing] <= g) {
+                        continue;
+                    }
+                    nodeG[existing] = g;
+                    nodeParent[existing] = node;
+                } else {
+                    existing = addState(next, t + 1, g, node);
+                }
+                int hValue = remaining == ReverseDistance.UNREACHABLE ? 0 : remaining;
+                open.push(LongMinHeap.pack(g + hValue, existing));
+            }
+        }
+
+        if (found < 0) {
+            return null; // boxed in
+        }
+        int steps = nodeTime[found];
+        int[] path = new int[window + 1];
+        for (int n = found; n >= 0; n = nodeParent[n]) {
+            path[nodeTime[n]] = nodeCell[n];
+        }
+        // Reached the goal early: hold it for the rest of the window
+        for (int t = steps + 1; t <= window; t++) {
+            path[t] = path[steps];
+        }
+        return path;
+    }
+
+    private boolean goalFreeUntilWindow(int cell, int t, int agent) {
+        for (int k = t + 1; k <= window; k++) {
+            if (!reservations.isFree(cell, k, agent)) return false;
+        }
+        return true;
+    }
+
+    private void resetStates() {
+        nodeCount = 0;
+        open.clear();
+        Arrays.fill(stateKeys, -1L);
+    }
+
+    private int addState(int cell, int time, int g, int parent) {
+        if (nodeCount == nodeCell.length) {
+            int n = nodeCount * 2;
+            nodeCell = Arrays.copyOf(nodeCell, n);
+            nodeTime = Arrays.copyOf(nodeTime, n);
+            nodeG = Arrays.copyOf(nodeG, n);
+            nodeParent = Arrays.copyOf(nodeParent, n);
+            nodeClosed = Arrays.copyOf(nodeClosed, n);
+        }
+        if ((nodeCount + 1) * 2 > stateKeys.length) {
+            growStateTable();
+        }
+        int node = nodeCount++;
+        nodeCell[node] = cell;
+        nodeTime[node] = time;
+        nodeG[node] = g;
+        nodeParent[node] = parent;
+        nodeClosed[node] = false;
+        insertState(ReservationTable.key(cell, time), node);
+        return node;
+    }
+
+    private int findState(int cell, int time) {
+        long key = ReservationTable.key(cell, time);
+        int mask = stateKeys.length - 1;
+        for (int i = stateSlot(key, mask); ; i = (i + 1) & mask) {
+            if (stateKeys[i] == -1L) return -1;
+            if (stateKeys[i] == key) return stateNodes[i];
+        }
+    }
+
+    private void insertState(long key, int node) {
+        int mask = stateKeys.length - 1;
+        int i = stateSlot(key, mask);
+        while (stateKeys[i] != -1L) {
+            i = (i + 1) & mask;
+        }
+        stateKeys[i] = key;
+        stateNodes[i] = node;
+    }
+
+    private void growStateTable() {
+        stateKeys = new long[stateKeys.length * 2];
+        stateNodes = new int[stateKeys.length];
+        Arrays.fill(stateKeys, -1L);
+        for (int n = 0; n < nodeCount; n++) {
+            insertState(ReservationTable.key(nodeCell[n], nodeTime[n]), n);
+        }
+    }
+
+    private static int stateSlot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.pathfinding;
+
+// Per-cell traversal cost, one byte per cell, row-major (y * width + x).
+// 0 means blocked; 1..255 is the cost multiplier for stepping into the cell, so
+// a plain walkable cell costs 1 and slow zones cost more.
+class CostGrid {
+    static final int BLOCKED = 0;
+    static final int DEFAULT_MAX_COST = 8;
+
+    final int width, height;
+    final byte[] costs;
+    private int minCost = 1;
+
+    public CostGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.costs = new byte[width * height];
+    }
+
+    // Builds costs from ARGB pixels (as Bitmap.getPixels returns them).
+    // Pixels with R, G and B all below 50 are blocked, the same rule as
+    // MainActivity.getGridFromBitmap; lighter pixels get cost 1 for white rising
+    // linearly to maxCost for the darkest walkable grey.
+    public static CostGrid fromPixels(int[] argb, int width, int height, int maxCost) {
+        if (maxCost < 1 || maxCost > 255) {
+            throw new IllegalArgumentException("maxCost must be in 1..255");
+        }
+        CostGrid grid = new CostGrid(width, height);
+        for (int i = 0; i < width * height; i++) {
+            int pixel = argb[i];
+            int red = (pixel >> 16) & 0xFF;
+            int green = (pixel >> 8) & 0xFF;
+            int blue = pixel & 0xFF;
+            if (red < 50 && green < 50 && blue < 50) {
+                grid.costs[i] = BLOCKED;
+                continue;
+            }
+            int luminance = (red * 299 + green * 587 + blue * 114) / 1000;
+            int darkness = Math.max(0, Math.min(205, 255 - luminance)); // 0 (white) .. 205
+            grid.costs[i] = (byte) (1 + darkness * (maxCost - 1) / 205);
+        }
+        grid.updateMinCost();
+        return grid;
+    }
+
+    public int cost(int x, int y) {
+        return costs[y * width + x] & 0xFF;
+    }
+
+    public int cost(int cell) {
+        return costs[cell] & 0xFF;
+    }
+
+    public boolean isWalkable(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height && costs[y * width + x] != BLOCKED;
+    }
+
+    public void setCost(int x, int y, int cost) {
+        costs[y * width + x] = (byte) cost;
+        if (cost != BLOCKED && cost < minCost) {
+            minCost = cost;
+        }
+    }
+
+    // Smallest cost of any walkable cell; scales the heuristic so it stays admissible
+    public int minCost() {
+        return minCost;
+    }
+
+    public void updateMinCost() {
+        int min = 255;
+        for (byte c : costs) {
+            int v = c & 0xFF;
+            if (v != BLOCKED && v < min) min = v;
+        }
+        minCost = min;
+    }
+
+    // Walkable / blocked view for the unweighted engines
+    public JpsGrid toJpsGrid() {
+        JpsGrid grid = new JpsGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (costs[y * width + x] != BLOCKED) {
+                    grid.setWalkable(x, y, true);
+                }
+            }
+        }
+        return grid;
+    }
+}
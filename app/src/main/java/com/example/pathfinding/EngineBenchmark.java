@@ -0,0 +1,105 @@
+package com.example.pathfinding;
+
+import java.util.Random;
+
+// Head-to-head timing of search engines on one map.
+// Every engine answers the same random walkable start/goal pairs; latencies go
+// into a LatencyHistogram per engine and path costs are checked against the
+// first engine, so a faster engine that returns worse paths shows up at once.
+// Expansions are SearchHandle.nodesExpanded, not step calls, so Fringe's passes
+// over deferred nodes and A*'s final goal pop are not counted as work.
+// The report is plain text, meant for logcat or a debug screen.
+final class EngineBenchmark {
+    private static final int WARMUP_QUERIES = 20;
+
+    interface Engine {
+        SearchHandle begin(int startX, int startY, int goalX, int goalY);
+    }
+
+    private EngineBenchmark() {
+    }
+
+    // A* (binary heap) against Fringe Search (threshold passes over a linked list)
+    static String fringeVersusAstar(final JpsGrid grid, int queries, long seed) {
+        final SearchContext ctx = new SearchContext(grid.width * grid.height);
+        final FringeSearch fringe = new FringeSearch(grid);
+        return compare(grid, queries, seed, new String[]{"A*", "Fringe"}, new Engine[]{
+                (sx, sy, gx, gy) -> AstarAlgorithm.begin(grid, sx, sy, gx, gy, ctx, null),
+                fringe::begin,
+        });
+    }
+
+    // The same A* with row-major cell arrays against CellLayout's 8x8 Morton tiles
+    static String tiledVersusRowMajor(final JpsGrid grid, int queries, long seed) {
+        final SearchContext ctx = new SearchContext(grid.width * grid.height);
+        final TiledAstar tiled = new TiledAstar(grid);
+        return compare(grid, queries, seed, new String[]{"A* row-major", "A* tiled"}, new Engine[]{
+                (sx, sy, gx, gy) -> AstarAlgorithm.begin(grid, sx, sy, gx, gy, ctx, null),
+                tiled::begin,
+        });
+    }
+
+    static String compare(JpsGrid grid, int queries, long seed, String[] names, Engine[] engines) {
+        int[] pairs = randomPairs(grid, queries, seed);
+        int count = pairs.length / 4;
+        double[] reference = new double[count];
+        StringBuilder report = new StringBuilder();
+        report.append(grid.width).append('x').append(grid.height).append(", ")
+                .append(count).append(" queries\n");
+        for (int e = 0; e < engines.length; e++) {
+            // Untimed warm-up so the JIT has compiled the loop
+            for (int q = 0; q < Math.min(count, WARMUP_QUERIES); q++) {
+                run(engines[e], pairs, q);
+            }
+            LatencyHistogram latency = new LatencyHistogram();
+            long expansions = 0;
+            int found = 0, mismatches = 0;
+            for (int q = 0; q < count; q++) {
+                long started = System.nanoTime();
+                SearchHandle search = run(engines[e], pairs, q);
+                latency.record(System.nanoTime() - started);
+                expansions += search.nodesExpanded();
+                GridPath path = search.result();
+                double cost = path == null ? -1 : path.cost();
+                if (path != null) {
+                    found++;
+                }
+                if (e == 0) {
+                    reference[q] = cost;
+                } else if (Math.abs(cost - reference[q]) > 1e-9) {
+                    mismatches++;
+                }
+            }
+            report.append(names[e]).append(": ").append(latency.snapshot())
+                    .append(", expansions ").append(expansions)
+                    .append(", found ").append(found);
+            if (e > 0) {
+                report.append(", cost mismatches ").append(mismatches);
+            }
+            report.append('\n');
+        }
+        return report.toString();
+    }
+
+    private static SearchHandle run(Engine engine, int[] pairs, int q) {
+        SearchHandle search = engine.begin(pairs[4 * q], pairs[4 * q + 1], pairs[4 * q + 2], pairs[4 * q + 3]);
+        search.step(Integer.MAX_VALUE);
+        return search;
+    }
+
+    // Start and goal coordinates, four ints per query, all on walkable cells
+    private static int[] randomPairs(JpsGrid grid, int queries, long seed) {
+        Random random = new Random(seed);
+        int[] pairs = new int[queries * 4];
+        int n = 0;
+        for (int attempts = 0; n < pairs.length && attempts < queries * 1000; attempts++) {
+            int x = random.nextInt(grid.width);
+            int y = random.nextInt(grid.height);
+            if (grid.isWalkable(x, y)) {
+                pairs[n++] = x;
+                pairs[n++] = y;
+            }
+        }
+        return java.util.Arrays.copyOf(pairs, n & ~3);
+    }
+}
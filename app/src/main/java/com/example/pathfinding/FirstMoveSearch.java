@@ -0,0 +1,79 @@
+package com.example.pathfinding;
+
+// Dijkstra from one source over AstarAlgorithm's move set that labels every
+// reached cell with the move the search left the source by, so firstMove(t) is
+// the first step of a shortest path from the source to t. Shared by the
+// preprocessing passes (GoalBounds, PathDatabase); one instance per thread.
+final class FirstMoveSearch {
+    static final int NONE = -1;
+
+    private final JpsGrid grid;
+    private final int[] g;
+    private final int[] stamp;
+    private final byte[] firstMove;
+    private final LongMinHeap open = new LongMinHeap(256);
+    private int generation;
+    private int source = NONE;
+
+    FirstMoveSearch(JpsGrid grid) {
+        this.grid = grid;
+        int cells = grid.width * grid.height;
+        g = new int[cells];
+        stamp = new int[cells];
+        firstMove = new byte[cells];
+    }
+
+    void run(int source) {
+        int width = grid.width;
+        this.source = source;
+        generation++;
+        open.clear();
+        g[source] = 0;
+        stamp[source] = generation;
+        int sx = source % width;
+        int sy = source / width;
+        for (int d = 0; d < 8; d++) {
+            if (!AstarAlgorithm.canMove(grid, sx, sy, d)) {
+                continue;
+            }
+            int n = (sy + AstarAlgorithm.DY[d]) * width + sx + AstarAlgorithm.DX[d];
+            g[n] = AstarAlgorithm.STEP_COST[d];
+            stamp[n] = generation;
+            firstMove[n] = (byte) d;
+            open.push(LongMinHeap.pack(g[n], n));
+        }
+        while (!open.isEmpty()) {
+            long top = open.pop();
+            int current = (int) top;
+            if ((int) (top >>> 32) != g[current]) {
+                continue; // stale entry
+            }
+            int x = current % width;
+            int y = current / width;
+            for (int d = 0; d < 8; d++) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) {
+                    continue;
+                }
+                int n = (y + AstarAlgorithm.DY[d]) * width + x + AstarAlgorithm.DX[d];
+                int ng = g[current] + AstarAlgorithm.STEP_COST[d];
+                if (stamp[n] != generation || ng < g[n]) {
+                    g[n] = ng;
+                    stamp[n] = generation;
+                    firstMove[n] = firstMove[current];
+                    open.push(LongMinHeap.pack(ng, n));
+                }
+            }
+        }
+    }
+
+    // First move from the last source towards the cell, or NONE if the cell is
+    // the source itself or unreachable
+    int firstMove(int cell) {
+        return stamp[cell] == generation && cell != source ? firstMove[cell] : NONE;
+    }
+
+    // Distance in 10/14 units from the last source, valid when firstMove(cell) != NONE
+    int distance(int cell) {
+        return g[cell];
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.pathfinding;
+
+import java.util.stream.IntStream;
+
+// JpsGrid.hasForcedNeighbor for every cell and direction at once, as one bitset
+// per Direction in the grid's packed row layout.
+// Each row is derived from the packed words of that row and the rows above and
+// below, shifted one cell left or right with the carry from the neighbouring
+// word, so 64 cells are decided per word operation. Rows are independent and
+// computed in parallel. A lookup is then a single bit test, and a horizontal
+// jump can scan to the next set bit instead of testing cell after cell.
+final class ForcedNeighbors {
+    private static final int ROWS_PER_TASK = 64;
+
+    private final int width, height, wordsPerRow;
+    private final long[][] masks; // [Direction.ordinal()][y * wordsPerRow + w]
+
+    private ForcedNeighbors(int width, int height, int wordsPerRow) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = wordsPerRow;
+        this.masks = new long[Direction.values().length][wordsPerRow * height];
+    }
+
+    static ForcedNeighbors compute(final JpsGrid grid) {
+        final ForcedNeighbors result = new ForcedNeighbors(grid.width, grid.height, grid.wordsPerRow);
+        int tasks = (grid.height + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int end = Math.min(grid.height, (task + 1) * ROWS_PER_TASK);
+            for (int y = task * ROWS_PER_TASK; y < end; y++) {
+                result.computeRow(grid, y);
+            }
+        });
+        return result;
+    }
+
+    // Same answer as grid.hasForcedNeighbor(x, y, dir)
+    boolean isForced(int x, int y, Direction dir) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        return (masks[dir.ordinal()][y * wordsPerRow + (x >>> 6)] & (1L << x)) != 0;
+    }
+
+    // First x' >= x in row y with a forced neighbour for dir, or -1
+    int nextForced(int y, int x, Direction dir) {
+        if (x < 0) x = 0;
+        if (x >= width || y < 0 || y >= height) {
+            return -1;
+        }
+        long[] mask = masks[dir.ordinal()];
+        int row = y * wordsPerRow;
+        int w = x >>> 6;
+        long word = mask[row + w] & (-1L << x);
+        while (word == 0) {
+            if (++w == wordsPerRow) {
+                return -1;
+            }
+            word = mask[row + w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    // Last x' <= x in row y with a forced neighbour for dir, or -1
+    int previousForced(int y, int x, Direction dir) {
+        if (x >= width) x = width - 1;
+        if (x < 0 || y < 0 || y >= height) {
+            return -1;
+        }
+        long[] mask = masks[dir.ordinal()];
+        int row = y * wordsPerRow;
+        int w = x >>> 6;
+        long word = mask[row + w] & (-1L >>> (63 - (x & 63)));
+        while (word == 0) {
+            if (--w < 0) {
+                return -1;
+            }
+            word = mask[row + w];
+        }
+        return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
+
+    private void computeRow(JpsGrid grid, int y) {
+        int row = y * wordsPerRow;
+        for (int w = 0; w < wordsPerRow; w++) {
+            long c = grid.word(y, w);
+            long u = y > 0 ? grid.word(y - 1, w) : 0;
+            long d = y + 1 < height ? grid.word(y + 1, w) : 0;
+            // Cells outside the grid read as blocked, like isWalkable
+            long cL = shiftedLeft(grid, y, w, c), cR = shiftedRight(grid, y, w, c);
+            long uL = y > 0 ? shiftedLeft(grid, y - 1, w, u) : 0;
+            long uR = y > 0 ? shiftedRight(grid, y - 1, w, u) : 0;
+            long dL = y + 1 < height ? shiftedLeft(grid, y + 1, w, d) : 0;
+            long dR = y + 1 < height ? shiftedRight(grid, y + 1, w, d) : 0;
+            // xL holds the cell to the left (x - 1), xR the one to the right (x + 1)
+            masks[Direction.N.ordinal()][row + w] = c & ((~cL & uL) | (~cR & uR));
+            masks[Direction.S.ordinal()][row + w] = c & ((~cL & dL) | (~cR & dR));
+            masks[Direction.E.ordinal()][row + w] = c & ((~u & uR) | (~d & dR));
+            masks[Direction.W.ordinal()][row + w] = c & ((~u & uL) | (~d & dL));
+            masks[Direction.NE.ordinal()][row + w] = c & ((~u & uR) | (~cR & uR));
+            masks[Direction.NW.ordinal()][row + w] = c & ((~u & uL) | (~cL & uL));
+            masks[Direction.SE.ordinal()][row + w] = c & ((~d & dR) | (~cR & dR));
+            masks[Direction.SW.ordinal()][row + w] = c & ((~d & dL) | (~cL & dL));
+        }
+    }
+
+    // Bit x holds cell x - 1 of row y
+    private static long shiftedLeft(JpsGrid grid, int y, int w, long word) {
+        long carry = w > 0 ? grid.word(y, w - 1) >>> 63 : 0;
+        return (word << 1) | carry;
+    }
+
+    // Bit x holds cell x + 1 of row y
+    private static long shiftedRight(JpsGrid grid, int y, int w, long word) {
+        long carry = w + 1 < grid.wordsPerRow ? grid.word(y, w + 1) << 63 : 0;
+        return (word >>> 1) | carry;
+    }
+}
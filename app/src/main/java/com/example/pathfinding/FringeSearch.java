@@ -0,0 +1,179 @@
+package com.example.pathfinding;
+
+// Fringe Search over a JpsGrid: no priority queue at all.
+// The fringe is one doubly-linked list threaded through per-cell int arrays.
+// Each pass walks it front to back against an f threshold: cells within the
+// threshold are expanded and their successors inserted right behind them (the
+// "now" part, still visited this pass), cells above it stay for a later pass
+// and only lower the next threshold. On open maps, where huge numbers of cells
+// share the same f, this replaces a heap operation per cell with list splicing.
+// Moves, 10/14 costs and the octile heuristic are AstarAlgorithm's, so path
+// costs match it. All state is allocated once per instance; not thread-safe.
+public class FringeSearch {
+    private static final int NONE = -1;
+
+    private final JpsGrid grid;
+    private final int[] g;
+    private final int[] parent;
+    private final int[] stamp;  // generation when g/parent were set
+    private final int[] listed; // generation while in the fringe
+    private final int[] next, prev;
+    private int generation;
+    private int expansions;
+
+    public FringeSearch(JpsGrid grid) {
+        this.grid = grid;
+        int n = grid.width * grid.height;
+        g = new int[n];
+        parent = new int[n];
+        stamp = new int[n];
+        listed = new int[n];
+        next = new int[n];
+        prev = new int[n];
+    }
+
+    // Number of cells expanded by the last query
+    public int expansions() {
+        return expansions;
+    }
+
+    public GridPath findPath(int startX, int startY, int goalX, int goalY) {
+        SearchHandle search = begin(startX, startY, goalX, goalY);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
+
+    // The same search, run a slice at a time by the caller. The handle works in
+    // this instance's arrays: starting another query abandons it.
+    public SearchHandle begin(int startX, int startY, int goalX, int goalY) {
+        return new Search(grid, startX, startY, goalX, goalY);
+    }
+
+    // Searches a view of the same size instead (clearance or pruning), reusing
+    // this instance's arrays
+    SearchHandle begin(JpsGrid view, int startX, int startY, int goalX, int goalY) {
+        if (view.width != grid.width || view.height != grid.height) {
+            throw new IllegalArgumentException("View size differs from the grid");
+        }
+        return new Search(view, startX, startY, goalX, goalY);
+    }
+
+    private final class Search extends SearchHandle {
+        private final JpsGrid grid;
+        private final int startCell, goalCell, goalX, goalY;
+        private final int query;
+        private int head = NONE;
+        private int cursor = NONE;  // next cell to visit in this pass
+        private int threshold;
+        private int nextThreshold = Integer.MAX_VALUE;
+
+        Search(JpsGrid grid, int startX, int startY, int goalX, int goalY) {
+            this.grid = grid;
+            int width = grid.width;
+            this.startCell = startY * width + startX;
+            this.goalCell = goalY * width + goalX;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+                this.query = 0;
+                finish(null);
+                return;
+            }
+            expansions = 0;
+            if (++generation == Integer.MAX_VALUE) {
+                java.util.Arrays.fill(stamp, 0);
+                java.util.Arrays.fill(listed, 0);
+                generation = 1;
+            }
+            this.query = generation;
+            g[startCell] = 0;
+            parent[startCell] = startCell;
+            stamp[startCell] = generation;
+            insertAfter(NONE, startCell);
+            threshold = AstarAlgorithm.calculateHCost(startX, startY, goalX, goalY);
+            cursor = head;
+        }
+
+        @Override
+        void expand() {
+            if (query != generation) {
+                finish(null); // another query took over the arrays
+                return;
+            }
+            if (cursor == NONE) {
+                // End of a pass: start over with the smallest f left above the threshold
+                if (head == NONE || nextThreshold == Integer.MAX_VALUE) {
+                    finish(null);
+                    return;
+                }
+                threshold = nextThreshold;
+                nextThreshold = Integer.MAX_VALUE;
+                cursor = head;
+            }
+            int current = cursor;
+            int width = grid.width;
+            int x = current % width;
+            int y = current / width;
+            int f = g[current] + AstarAlgorithm.calculateHCost(x, y, goalX, goalY);
+            if (f > threshold) {
+                nextThreshold = Math.min(nextThreshold, f); // later
+                cursor = next[current];
+                return;
+            }
+            if (current == goalCell) {
+                finish(AstarAlgorithm.reconstructPath(parent, startCell, goalCell, width, g[goalCell] / 10.0));
+                return;
+            }
+            expansions++;
+            countExpansion();
+            for (int d = 7; d >= 0; d--) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) {
+                    continue;
+                }
+                int nx = x + AstarAlgorithm.DX[d];
+                int ny = y + AstarAlgorithm.DY[d];
+                int neighbor = ny * width + nx;
+                int tentative = g[current] + AstarAlgorithm.STEP_COST[d];
+                if (stamp[neighbor] == generation && tentative >= g[neighbor]) {
+                    continue;
+                }
+                if (listed[neighbor] == generation) {
+                    unlink(neighbor);
+                }
+                g[neighbor] = tentative;
+                parent[neighbor] = current;
+                stamp[neighbor] = generation;
+                insertAfter(current, neighbor); // now: visited later in this pass
+            }
+            cursor = next[current];
+            unlink(current);
+        }
+
+        private void insertAfter(int at, int cell) {
+            int after = at == NONE ? head : next[at];
+            prev[cell] = at;
+            next[cell] = after;
+            if (after != NONE) {
+                prev[after] = cell;
+            }
+            if (at == NONE) {
+                head = cell;
+            } else {
+                next[at] = cell;
+            }
+            listed[cell] = generation;
+        }
+
+        private void unlink(int cell) {
+            if (prev[cell] != NONE) {
+                next[prev[cell]] = next[cell];
+            } else {
+                head = next[cell];
+            }
+            if (next[cell] != NONE) {
+                prev[next[cell]] = prev[cell];
+            }
+            listed[cell] = 0;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.pathfinding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.stream.IntStream;
+
+// Goal bounding tables for AstarAlgorithm's move set.
+// For every walkable cell and each of the 8 moves out of it, stores the bounding
+// box of all goals whose shortest path from the cell starts with that move. A
+// search at `cell` heading for `goal` can skip any move whose box does not
+// contain the goal: some shortest path always leaves through a move whose box
+// does, so the result stays optimal while most of the frontier is never opened.
+//
+// Building runs one FirstMoveSearch per walkable cell (parallel over sources),
+// so it is quadratic in the map size and meant to be done offline; the tables
+// can be exported into an ArtifactCache. Memory is 64 bytes per cell.
+public final class GoalBounds {
+    static final String ARTIFACT_KIND = "goal-bounds";
+    static final int ARTIFACT_VERSION = 1;
+
+    private static final int EMPTY = 0xFFFF0000; // lo 0xFFFF > hi 0: contains nothing
+    private static final int SOURCES_PER_TASK = 64;
+
+    final int width, height;
+    // Per (cell * 8 + move): (min << 16 | max) of the box's x range and y range
+    private final int[] boxX;
+    private final int[] boxY;
+
+    private GoalBounds(int width, int height, int[] boxX, int[] boxY) {
+        this.width = width;
+        this.height = height;
+        this.boxX = boxX;
+        this.boxY = boxY;
+    }
+
+    public static GoalBounds compute(final JpsGrid grid) {
+        if (grid.width > 0xFFFF || grid.height > 0xFFFF) {
+            throw new IllegalArgumentException("Goal bounds need width and height below 65536");
+        }
+        final int cells = grid.width * grid.height;
+        final int[] boxX = new int[cells * 8];
+        final int[] boxY = new int[cells * 8];
+        java.util.Arrays.fill(boxX, EMPTY);
+        java.util.Arrays.fill(boxY, EMPTY);
+        int tasks = (cells + SOURCES_PER_TASK - 1) / SOURCES_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            FirstMoveSearch search = new FirstMoveSearch(grid);
+            int end = Math.min(cells, (task + 1) * SOURCES_PER_TASK);
+            for (int source = task * SOURCES_PER_TASK; source < end; source++) {
+                if (!grid.isWalkable(source % grid.width, source / grid.width)) {
+                    continue;
+                }
+                search.run(source);
+                // Grow the box of each target's first move around the target
+                for (int target = 0; target < cells; target++) {
+                    int move = search.firstMove(target);
+                    if (move != FirstMoveSearch.NONE) {
+                        int i = source * 8 + move;
+                        boxX[i] = grow(boxX[i], target % grid.width);
+                        boxY[i] = grow(boxY[i], target / grid.width);
+                    }
+                }
+            }
+        });
+        return new GoalBounds(grid.width, grid.height, boxX, boxY);
+    }
+
+    // False when no shortest path from `cell` to the goal starts with move d
+    public boolean allows(int cell, int d, int goalX, int goalY) {
+        int i = cell * 8 + d;
+        int bx = boxX[i];
+        int by = boxY[i];
+        return goalX >= (bx >>> 16) && goalX <= (bx & 0xFFFF)
+                && goalY >= (by >>> 16) && goalY <= (by & 0xFFFF);
+    }
+
+    public byte[] export() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + boxX.length * 8);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(width);
+            out.writeInt(height);
+            for (int i = 0; i < boxX.length; i++) {
+                out.writeInt(boxX[i]);
+                out.writeInt(boxY[i]);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    // Reads tables written by export() for a grid of the given size
+    public static GoalBounds fromBytes(JpsGrid grid, byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != grid.width || in.readInt() != grid.height) {
+                throw new IOException("Goal bounds were built for a different grid size");
+            }
+            int entries = grid.width * grid.height * 8;
+            int[] boxX = new int[entries];
+            int[] boxY = new int[entries];
+            for (int i = 0; i < entries; i++) {
+                boxX[i] = in.readInt();
+                boxY[i] = in.readInt();
+            }
+            return new GoalBounds(grid.width, grid.height, boxX, boxY);
+        }
+    }
+
+    private static int grow(int range, int v) {
+        int lo = Math.min(range >>> 16, v);
+        int hi = range == EMPTY ? v : Math.max(range & 0xFFFF, v);
+        return (lo << 16) | hi;
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.pathfinding;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+// Compact path: only the waypoints (jump points / any-angle corners) are stored,
+// as cell indices y * width + x. The cells in between are produced on demand by
+// walking each segment with Bresenham steps, which for the straight and diagonal
+// segments of JPS gives exactly the cells the old interpolatePath allocated.
+public final class GridPath {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int width;
+    private final int[] waypoints;
+    private final double cost;
+
+    GridPath(int width, int[] waypoints, double cost) {
+        this.width = width;
+        this.waypoints = waypoints;
+        this.cost = cost;
+    }
+
+    // Walks a parent chain (cell -> parent cell, start is its own parent) back from goal
+    static GridPath fromParents(int width, int[] parent, int start, int goal, double cost) {
+        int count = 1;
+        for (int cell = goal; cell != start; cell = parent[cell]) {
+            count++;
+        }
+        int[] points = new int[count];
+        int cell = goal;
+        for (int i = count - 1; i >= 0; i--) {
+            points[i] = cell;
+            cell = parent[cell];
+        }
+        return new GridPath(width, points, cost);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public double cost() {
+        return cost;
+    }
+
+    public int waypointCount() {
+        return waypoints.length;
+    }
+
+    public int waypointX(int i) {
+        return waypoints[i] % width;
+    }
+
+    public int waypointY(int i) {
+        return waypoints[i] / width;
+    }
+
+    public int[] waypoints() {
+        return waypoints.clone();
+    }
+
+    // Number of cells on the route, start and goal included
+    public int cellCount() {
+        if (waypoints.length == 0) return 0;
+        int count = 1;
+        for (int i = 0; i + 1 < waypoints.length; i++) {
+            int dx = Math.abs(waypointX(i + 1) - waypointX(i));
+            int dy = Math.abs(waypointY(i + 1) - waypointY(i));
+            count += Math.max(dx, dy);
+        }
+        return count;
+    }
+
+    // Cell indices along the route, expanded lazily
+    public PrimitiveIterator.OfInt cellIterator() {
+        return new CellIterator();
+    }
+
+    public IntStream cells() {
+        Spliterator.OfInt split = Spliterators.spliterator(cellIterator(), cellCount(),
+                Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+        return StreamSupport.intStream(split, false);
+    }
+
+    // Per-cell nodes for callers that still want the old list form
+    public List<JpsNode> toNodes() {
+        List<JpsNode> nodes = new ArrayList<>(cellCount());
+        PrimitiveIterator.OfInt it = cellIterator();
+        while (it.hasNext()) {
+            int cell = it.nextInt();
+            nodes.add(new JpsNode(cell % width, cell / width));
+        }
+        return nodes;
+    }
+
+    // Run-length direction encoding of the cell walk:
+    // varint start x, varint start y, then (direction ordinal byte, varint run length) pairs
+    public byte[] encodeRuns() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (waypoints.length == 0) {
+            return out.toByteArray();
+        }
+        int prevX = waypointX(0);
+        int prevY = waypointY(0);
+        writeVarint(out, prevX);
+        writeVarint(out, prevY);
+
+        int runDir = -1;
+        int runLength = 0;
+        PrimitiveIterator.OfInt it = cellIterator();
+        it.nextInt(); // start cell
+        while (it.hasNext()) {
+            int cell = it.nextInt();
+            int x = cell % width;
+            int y = cell / width;
+            int dir = directionIndex(x - prevX, y - prevY);
+            if (dir == runDir) {
+                runLength++;
+            } else {
+                if (runLength > 0) {
+                    out.write(runDir);
+                    writeVarint(out, runLength);
+                }
+                runDir = dir;
+                runLength = 1;
+            }
+            prevX = x;
+            prevY = y;
+        }
+        if (runLength > 0) {
+            out.write(runDir);
+            writeVarint(out, runLength);
+        }
+        return out.toByteArray();
+    }
+
+    // Rebuilds a path from encodeRuns() output; every run end becomes a waypoint.
+    // The cost is in the grid engines' 10/14 step units, divided by 10 as they
+    // report it, so a decoded A* or JPS path keeps its cost exactly.
+    public static GridPath decodeRuns(int width, byte[] runs) {
+        if (runs.length == 0) {
+            return new GridPath(width, new int[0], 0);
+        }
+        int[] pos = {0};
+        int x = readVarint(runs, pos);
+        int y = readVarint(runs, pos);
+        int[] points = new int[8];
+        int count = 0;
+        points[count++] = y * width + x;
+        int cost = 0;
+        while (pos[0] < runs.length) {
+            Direction dir = DIRECTIONS[runs[pos[0]++]];
+            int length = readVarint(runs, pos);
+            x += dir.dx * length;
+            y += dir.dy * length;
+            cost += length * (dir.isDiagonal() ? 14 : 10);
+            if (count == points.length) {
+                points = Arrays.copyOf(points, count * 2);
+            }
+            points[count++] = y * width + x;
+        }
+        return new GridPath(width, Arrays.copyOf(points, count), cost / 10.0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < waypoints.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('(').append(waypointX(i)).append(", ").append(waypointY(i)).append(')');
+        }
+        return sb.append(']').toString();
+    }
+
+    private static int directionIndex(int dx, int dy) {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if (DIRECTIONS[i].dx == dx && DIRECTIONS[i].dy == dy) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Not a unit step: " + dx + ", " + dy);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] in, int[] pos) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in[pos[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+
+    private final class CellIterator implements PrimitiveIterator.OfInt {
+        private int segment;  // index of the waypoint the current segment ends at
+        private int x, y, endX, endY;
+        private int dx, dy, sx, sy, err;
+        private boolean started;
+
+        @Override
+        public boolean hasNext() {
+            if (waypoints.length == 0) return false;
+            return !started || x != endX || y != endY || segment < waypoints.length - 1;
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (!started) {
+                started = true;
+                x = waypointX(0);
+                y = waypointY(0);
+                endX = x;
+                endY = y;
+                return waypoints[0];
+            }
+            if (x == endX && y == endY) {
+                beginSegment(++segment);
+            }
+            // Bresenham step, 8-connected
+            int e2 = 2 * err;
+            if (e2 > -dy) {
+                err -= dy;
+                x += sx;
+            }
+            if (e2 < dx) {
+                err += dx;
+                y += sy;
+            }
+            return y * width + x;
+        }
+
+        private void beginSegment(int end) {
+            endX = waypointX(end);
+            endY = waypointY(end);
+            dx = Math.abs(endX - x);
+            dy = Math.abs(endY - y);
+            sx = Integer.signum(endX - x);
+            sy = Integer.signum(endY - y);
+            err = dx - dy;
+        }
+    }
+}
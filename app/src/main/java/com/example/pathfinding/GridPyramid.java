@@ -0,0 +1,294 @@
+package com.example.pathfinding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+// Coarse-to-fine search over a pyramid of downsampled grids.
+// Level k + 1 halves level k in both directions; a coarse cell is walkable only
+// if every fine cell under it is. A query finds the coarsest level where start
+// and goal are connected, then at each finer level runs A* inside a corridor: the
+// coarser path's cells dilated by `corridorRadius` and mapped to their children.
+// Because a walkable coarse cell is a fully free block, a coarse path always has a
+// fine path inside its corridor, so refinement never fails. The result is not
+// optimal in general; it reports its gap against the octile lower bound, and on
+// request against a full-resolution A*.
+public class GridPyramid {
+
+    public static class Result {
+        public final GridPath path;        // full resolution, null if unreachable
+        public final int level;            // level the coarse path was found on
+        public final double lowerBound;    // octile distance, <= optimal cost
+        public final double optimalCost;   // full-resolution A* cost, NaN unless measured
+
+        Result(GridPath path, int level, double lowerBound, double optimalCost) {
+            this.path = path;
+            this.level = level;
+            this.lowerBound = lowerBound;
+            this.optimalCost = optimalCost;
+        }
+
+        // Relative gap to the optimum: measured if available, otherwise an upper bound
+        public double optimalityGap() {
+            if (path == null) return 0;
+            double reference = Double.isNaN(optimalCost) ? lowerBound : optimalCost;
+            return reference == 0 ? 0 : path.cost() / reference - 1;
+        }
+
+        public boolean isGapExact() {
+            return !Double.isNaN(optimalCost);
+        }
+    }
+
+    private static final int MIN_LEVEL_SIZE = 16;
+
+    private final List<JpsGrid> levels = new ArrayList<>();
+    private final JpsGrid[] corridors;        // scratch grids, one per level
+    private final SearchContext[] contexts;
+    private final int corridorRadius;
+
+    public GridPyramid(JpsGrid grid) {
+        this(grid, 1);
+    }
+
+    public GridPyramid(JpsGrid grid, int corridorRadius) {
+        this.corridorRadius = corridorRadius;
+        levels.add(grid);
+        JpsGrid level = grid;
+        while (Math.max(level.width, level.height) > MIN_LEVEL_SIZE) {
+            level = downsample(level);
+            levels.add(level);
+        }
+        corridors = new JpsGrid[levels.size()];
+        contexts = new SearchContext[levels.size()];
+    }
+
+    public int levelCount() {
+        return levels.size();
+    }
+
+    public JpsGrid level(int k) {
+        return levels.get(k);
+    }
+
+    public Result findPath(int startX, int startY, int goalX, int goalY) {
+        return findPath(startX, startY, goalX, goalY, false);
+    }
+
+    // measureGap also runs a full-resolution A* so the reported gap is exact
+    public Result findPath(int startX, int startY, int goalX, int goalY, boolean measureGap) {
+        Search search = new Search(startX, startY, goalX, goalY, measureGap);
+        search.step(Integer.MAX_VALUE);
+        return search.summary();
+    }
+
+    // The same query, run a slice at a time by the caller: the coarse searches and
+    // each refinement are A* handles stepped one expansion per step. result() is
+    // the full-resolution path. The handle uses this pyramid's corridors and
+    // contexts until it is done.
+    public SearchHandle begin(int startX, int startY, int goalX, int goalY) {
+        return new Search(startX, startY, goalX, goalY, false);
+    }
+
+    private final class Search extends SearchHandle {
+        private static final int COARSE = 0, REFINE = 1, FALLBACK = 2, MEASURE = 3;
+
+        private final int startX, startY, goalX, goalY;
+        private final boolean measureGap;
+        private final double lowerBound;
+        private SearchHandle stage;
+        private int phase = COARSE;
+        private int level = levels.size(); // level the current stage runs on
+        private int foundLevel;
+        private GridPath path;
+        private double optimal = Double.NaN;
+
+        Search(int startX, int startY, int goalX, int goalY, boolean measureGap) {
+            this.startX = startX;
+            this.startY = startY;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.measureGap = measureGap;
+            this.lowerBound = AstarAlgorithm.calculateHCost(startX, startY, goalX, goalY) / 10.0;
+            JpsGrid fine = levels.get(0);
+            if (!fine.isWalkable(startX, startY) || !fine.isWalkable(goalX, goalY)) {
+                finish(null);
+            } else if (!beginCoarse()) {
+                unreachable();
+            }
+        }
+
+        Result summary() {
+            return new Result(result(), foundLevel, lowerBound, optimal);
+        }
+
+        @Override
+        void expand() {
+            int expanded = stage.nodesExpanded();
+            stage.step(1);
+            if (stage.nodesExpanded() > expanded) {
+                countExpansion();
+            }
+            if (!stage.isDone()) {
+                return;
+            }
+            GridPath found = stage.result();
+            switch (phase) {
+                case COARSE:
+                    // Coarsest level that connects start and goal
+                    if (found != null) {
+                        path = found;
+                        foundLevel = level;
+                        refineOrFinish();
+                    } else if (!beginCoarse()) {
+                        unreachable();
+                    }
+                    break;
+                case REFINE:
+                    if (found == null) {
+                        // Cannot happen for a valid pyramid, but fall back to the full level
+                        phase = FALLBACK;
+                        stage = AstarAlgorithm.begin(levels.get(level), startX >> level, startY >> level,
+                                goalX >> level, goalY >> level, context(level), null);
+                        break;
+                    }
+                    path = found;
+                    refineOrFinish();
+                    break;
+                case FALLBACK:
+                    path = found;
+                    refineOrFinish();
+                    break;
+                default: // MEASURE
+                    optimal = found.cost();
+                    finish(path);
+            }
+        }
+
+        // Starts A* on the next finer level where start and goal are walkable;
+        // false when there is none left
+        private boolean beginCoarse() {
+            for (level--; level >= 0; level--) {
+                JpsGrid grid = levels.get(level);
+                int sx = startX >> level, sy = startY >> level;
+                int gx = goalX >> level, gy = goalY >> level;
+                if (grid.isWalkable(sx, sy) && grid.isWalkable(gx, gy)) {
+                    stage = AstarAlgorithm.begin(grid, sx, sy, gx, gy, context(level), null);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Refines inside the dilated corridor, one level at a time, then measures
+        private void refineOrFinish() {
+            if (level > 0) {
+                level--;
+                phase = REFINE;
+                JpsGrid corridor = buildCorridor(level, path);
+                stage = AstarAlgorithm.begin(corridor, startX >> level, startY >> level,
+                        goalX >> level, goalY >> level, context(level), null);
+            } else if (measureGap && foundLevel > 0) {
+                phase = MEASURE;
+                stage = AstarAlgorithm.begin(levels.get(0), startX, startY, goalX, goalY, context(0), null);
+            } else {
+                if (measureGap) {
+                    optimal = path.cost();
+                }
+                finish(path);
+            }
+        }
+
+        private void unreachable() {
+            foundLevel = 0;
+            if (measureGap) {
+                optimal = Double.POSITIVE_INFINITY;
+            }
+            finish(null);
+        }
+    }
+
+    // Walkable cells of level k that lie under the dilated coarse path
+    private JpsGrid buildCorridor(int k, GridPath coarsePath) {
+        JpsGrid grid = levels.get(k);
+        JpsGrid coarse = levels.get(k + 1);
+        JpsGrid corridor = corridors[k];
+        if (corridor == null) {
+            corridor = new JpsGrid(grid.width, grid.height);
+            corridors[k] = corridor;
+        } else {
+            java.util.Arrays.fill(corridor.bits, 0L);
+        }
+        int r = corridorRadius;
+        PrimitiveIterator.OfInt cells = coarsePath.cellIterator();
+        while (cells.hasNext()) {
+            int cell = cells.nextInt();
+            int cx = cell % coarse.width;
+            int cy = cell / coarse.width;
+            int x0 = Math.max(0, (cx - r) * 2);
+            int x1 = Math.min(grid.width - 1, (cx + r) * 2 + 1);
+            int y0 = Math.max(0, (cy - r) * 2);
+            int y1 = Math.min(grid.height - 1, (cy + r) * 2 + 1);
+            for (int y = y0; y <= y1; y++) {
+                for (int x = x0; x <= x1; x++) {
+                    corridor.setWalkable(x, y, true);
+                }
+            }
+        }
+        for (int y = 0; y < grid.height; y++) {
+            int row = y * corridor.wordsPerRow;
+            for (int w = 0; w < corridor.wordsPerRow; w++) {
+                corridor.bits[row + w] &= grid.word(y, w);
+            }
+        }
+        return corridor;
+    }
+
+    private SearchContext context(int level) {
+        if (contexts[level] == null) {
+            JpsGrid grid = levels.get(level);
+            contexts[level] = new SearchContext(grid.width * grid.height);
+        }
+        return contexts[level];
+    }
+
+    // Halves the grid: each coarse cell is the AND of a 2x2 block, computed a word
+    // at a time. Blocks hanging over the right or bottom edge only use the cells
+    // that exist. The fine grid is read through word(), so it may be tiled.
+    static JpsGrid downsample(JpsGrid fine) {
+        JpsGrid coarse = new JpsGrid((fine.width + 1) / 2, (fine.height + 1) / 2);
+        int fw = fine.wordsPerRow;
+        int tailBits = fine.width & 63;
+        long tailPad = tailBits == 0 ? 0L : -1L << tailBits; // bits past the row end
+        for (int cy = 0; cy < coarse.height; cy++) {
+            int y0 = 2 * cy;
+            int y1 = 2 * cy + 1 < fine.height ? y0 + 1 : y0;
+            for (int w = 0; w < fw; w++) {
+                long both = fine.word(y0, w) & fine.word(y1, w);
+                if (w == fw - 1) {
+                    both |= tailPad;
+                }
+                long pairs = both & (both >>> 1) & 0x5555555555555555L;
+                long packed = compactEvenBits(pairs);
+                int target = cy * coarse.wordsPerRow + (w >>> 1);
+                coarse.bits[target] |= packed << ((w & 1) * 32);
+            }
+            int coarseTail = coarse.width & 63;
+            if (coarseTail != 0) {
+                coarse.bits[cy * coarse.wordsPerRow + coarse.wordsPerRow - 1] &= ~(-1L << coarseTail);
+            }
+        }
+        return coarse;
+    }
+
+    // Gathers bits 0, 2, 4, ... 62 into bits 0..31
+    static long compactEvenBits(long x) {
+        x &= 0x5555555555555555L;
+        x = (x | (x >>> 1)) & 0x3333333333333333L;
+        x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+        return x;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Binary min-heap over cell indices with decrease-key, backed by primitive arrays.
+// Replaces PriorityQueue<Node> + contains()/remove() for the array-based engines.
+class IndexedMinHeap {
+    private int[] heap;       // heap slot -> cell
+    private double[] keys;    // cell -> key
+    private final int[] pos;  // cell -> heap slot, -1 when not queued
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[Math.min(capacity, 1024)];
+        keys = new double[capacity];
+        pos = new int[capacity];
+        Arrays.fill(pos, -1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int cell) {
+        return pos[cell] >= 0;
+    }
+
+    public double key(int cell) {
+        return keys[cell];
+    }
+
+    // Cell in heap slot i, 0 <= i < size(), in no particular order
+    public int cellAt(int i) {
+        return heap[i];
+    }
+
+    public int peek() {
+        return heap[0];
+    }
+
+    public double peekKey() {
+        return keys[heap[0]];
+    }
+
+    // Inserts the cell, or moves it to the new key if it is already queued
+    public void push(int cell, double key) {
+        int i = pos[cell];
+        if (i < 0) {
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, Math.min(size * 2, pos.length));
+            }
+            keys[cell] = key;
+            i = size++;
+            heap[i] = cell;
+            pos[cell] = i;
+            siftUp(i);
+        } else {
+            double old = keys[cell];
+            keys[cell] = key;
+            if (key < old) siftUp(i); else siftDown(i);
+        }
+    }
+
+    public int pop() {
+        int top = heap[0];
+        pos[top] = -1;
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    public void remove(int cell) {
+        int i = pos[cell];
+        if (i < 0) return;
+        pos[cell] = -1;
+        size--;
+        if (i < size) {
+            heap[i] = heap[size];
+            pos[heap[i]] = i;
+            siftUp(i);
+            siftDown(pos[heap[i]]);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            pos[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        double k = keys[cell];
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            int pc = heap[p];
+            if (keys[pc] <= k) break;
+            heap[i] = pc;
+            pos[pc] = i;
+            i = p;
+        }
+        heap[i] = cell;
+        pos[cell] = i;
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        double k = keys[cell];
+        int half = size >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1;
+            int r = c + 1;
+            if (r < size && keys[heap[r]] < keys[heap[c]]) c = r;
+            if (keys[heap[c]] >= k) break;
+            heap[i] = heap[c];
+            pos[heap[i]] = i;
+            i = c;
+        }
+        heap[i] = cell;
+        pos[cell] = i;
+    }
+}
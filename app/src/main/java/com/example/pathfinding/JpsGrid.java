@@ -2,34 +2,109 @@ package com.example.pathfinding;
 
 class JpsGrid {
     int width, height;
-    boolean[][] walkable;
+    // Walkability packed 64 cells per word, row-major: bit (x & 63) of
+    // bits[y * wordsPerRow + (x >> 6)] is set when (x, y) is walkable.
+    // Subclasses with other storage (TiledJpsGrid) leave bits null and override
+    // word/setWord; code that may see such a grid reads through those.
+    final int wordsPerRow;
+    final long[] bits;
 
     public JpsGrid(int width, int height) {
+        this(width, height, true);
+    }
+
+    JpsGrid(int width, int height, boolean allocate) {
         this.width = width;
         this.height = height;
-        walkable = new boolean[width][height];
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = allocate ? new long[wordsPerRow * height] : null;
     }
     public JpsGrid(int[][] grid) {
         // Assuming input grid has rows as height and columns as width
-        this.height = grid.length; // Number of rows
-        this.width = grid[0].length; // Number of columns
-        walkable = new boolean[width][height]; // Transpose for proper orientation
+        this(grid[0].length, grid.length);
 
-        // Convert the int grid to the boolean walkable grid
+        // Convert the int grid to the packed walkable grid
         for (int y = 0; y < height; y++) { // Iterate rows
             for (int x = 0; x < width; x++) { // Iterate columns
-                walkable[x][y] = grid[y][x] == 0; // Transpose during assignment
+                if (grid[y][x] == 0) {
+                    bits[y * wordsPerRow + (x >>> 6)] |= 1L << x;
+                }
             }
         }
     }
 
     public boolean isWalkable(int x, int y) {
-        return x >= 0 && x < width && y >= 0 && y < height && walkable[x][y];
+        return x >= 0 && x < width && y >= 0 && y < height
+                && (word(y, x >>> 6) & (1L << x)) != 0;
+    }
+
+    // Word w (cells 64w..64w+63) of row y
+    long word(int y, int w) {
+        return bits[y * wordsPerRow + w];
+    }
+
+    void setWord(int y, int w, long value) {
+        bits[y * wordsPerRow + w] = value;
     }
     public boolean isInBounds(int x, int y) {
         return x >= 0 && x < width && y >= 0 && y < height;
     }
 
+    public void setWalkable(int x, int y, boolean walkable) {
+        int w = x >>> 6;
+        long word = word(y, w);
+        setWord(y, w, walkable ? word | (1L << x) : word & ~(1L << x));
+    }
+
+    // True when every cell x0..x1 (inclusive) of row y is walkable, checked a word at a time
+    public boolean isRowRangeWalkable(int y, int x0, int x1) {
+        if (x0 > x1) {
+            int t = x0; x0 = x1; x1 = t;
+        }
+        if (y < 0 || y >= height || x0 < 0 || x1 >= width) {
+            return false;
+        }
+        int w0 = x0 >>> 6;
+        int w1 = x1 >>> 6;
+        long first = -1L << x0;          // bits x0..63 of the first word
+        long last = -1L >>> (63 - (x1 & 63)); // bits 0..x1 of the last word
+        if (w0 == w1) {
+            long mask = first & last;
+            return (word(y, w0) & mask) == mask;
+        }
+        if ((word(y, w0) & first) != first) return false;
+        for (int w = w0 + 1; w < w1; w++) {
+            if (word(y, w) != -1L) return false;
+        }
+        return (word(y, w1) & last) == last;
+    }
+
+    // First x' >= x (0 <= x < width) in row y that is not walkable, or width
+    int nextBlocked(int y, int x) {
+        int w = x >>> 6;
+        long blocked = ~word(y, w) & (-1L << x);
+        while (blocked == 0) {
+            if (++w == wordsPerRow) {
+                return width;
+            }
+            blocked = ~word(y, w);
+        }
+        return Math.min(width, (w << 6) + Long.numberOfTrailingZeros(blocked));
+    }
+
+    // Last x' <= x (0 <= x < width) in row y that is not walkable, or -1
+    int previousBlocked(int y, int x) {
+        int w = x >>> 6;
+        long blocked = ~word(y, w) & (-1L >>> (63 - (x & 63)));
+        while (blocked == 0) {
+            if (--w < 0) {
+                return -1;
+            }
+            blocked = ~word(y, w);
+        }
+        return (w << 6) + 63 - Long.numberOfLeadingZeros(blocked);
+    }
+
     public boolean hasForcedNeighbor(int x, int y, Direction dir) {
         // Ensure the current position is within bounds and walkable
         if (!isInBounds(x, y) || !isWalkable(x, y)) {
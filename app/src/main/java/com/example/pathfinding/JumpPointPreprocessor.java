@@ -3,6 +3,10 @@ package com.example.pathfinding;
 import android.os.Build;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -10,6 +14,15 @@ import java.util.*;
 
 // JumpPointPreprocessor Class
 public class JumpPointPreprocessor {
+    // Artifact kind and version for ArtifactCache; bump the version when the
+    // jump point rules or the export format change
+    static final String ARTIFACT_KIND = "jump-points";
+    static final int ARTIFACT_VERSION = 1;
+
+    // Natural neighbours in the order they have always been queued (S, E, N, W,
+    // then SE, NE, SW, NW), as AstarAlgorithm move indices; ties depend on it
+    private static final int[] NATURAL_ORDER = {1, 3, 0, 2, 7, 6, 5, 4};
+
     private final JpsGrid grid;
     private Map<JpsNode, List<JpsNode>> jumpPointsMap; // Precomputed jump points
 
@@ -21,6 +34,8 @@ public class JumpPointPreprocessor {
     // Precompute all jump points for the grid
     public void precomputeJumpPoints() {
         jumpPointsMap.clear();
+        // Forced neighbours of every cell, 64 cells per word operation
+        ForcedNeighbors forced = ForcedNeighbors.compute(grid);
 
         // Only process nodes that could potentially be jump points
         for (int x = 0; x < grid.width; x++) {
@@ -42,7 +57,7 @@ public class JumpPointPreprocessor {
                     if (!dir.isDiagonal() && !hasAdjacentObstacle(x, y, dir)) {
                         continue;
                     }
-                    JpsNode jumpPoint = findJumpPoint(start, dir, grid);
+                    JpsNode jumpPoint = findJumpPoint(start, dir, forced);
                     if (jumpPoint != null) {
                         jumpPoints.add(jumpPoint);
                     }
@@ -83,10 +98,26 @@ public class JumpPointPreprocessor {
     }
 
     // Find the jump point in a given direction
-    private JpsNode findJumpPoint(JpsNode start, Direction dir, JpsGrid grid) {
+    private JpsNode findJumpPoint(JpsNode start, Direction dir, ForcedNeighbors forced) {
         int x = start.x;
         int y = start.y;
 
+        // Along a row: the first forced cell, if it comes before the first wall
+        if (dir == Direction.E) {
+            if (x + 1 >= grid.width) {
+                return null;
+            }
+            int jump = forced.nextForced(y, x + 1, dir);
+            return jump >= 0 && jump < grid.nextBlocked(y, x + 1) ? new JpsNode(jump, y) : null;
+        }
+        if (dir == Direction.W) {
+            if (x - 1 < 0) {
+                return null;
+            }
+            int jump = forced.previousForced(y, x - 1, dir);
+            return jump >= 0 && jump > grid.previousBlocked(y, x - 1) ? new JpsNode(jump, y) : null;
+        }
+
         while (grid.isWalkable(x, y)) {
             x += dir.dx;
             y += dir.dy;
@@ -97,7 +128,7 @@ public class JumpPointPreprocessor {
             }
 
             // Check for forced neighbors
-            if (grid.hasForcedNeighbor(x, y, dir)) {
+            if (forced.isForced(x, y, dir)) {
                 return new JpsNode(x, y);
             }
 
@@ -128,86 +159,126 @@ public class JumpPointPreprocessor {
         jumpPointsMap = new Gson().fromJson(content, new TypeToken<Map<JpsNode, List<JpsNode>>>(){}.getType());
     }
 
+    // Compact binary form of the jump point table: entry count, then per entry the
+    // source cell, the number of jump points and their cells
+    public byte[] exportJumpPoints() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(jumpPointsMap.size());
+            for (Map.Entry<JpsNode, List<JpsNode>> entry : jumpPointsMap.entrySet()) {
+                out.writeInt(entry.getKey().y * grid.width + entry.getKey().x);
+                out.writeInt(entry.getValue().size());
+                for (JpsNode jumpPoint : entry.getValue()) {
+                    out.writeInt(jumpPoint.y * grid.width + jumpPoint.x);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // cannot happen in memory
+        }
+        return bytes.toByteArray();
+    }
+
+    // Replaces the table with one produced by exportJumpPoints for the same grid
+    public void importJumpPoints(byte[] data) throws IOException {
+        Map<JpsNode, List<JpsNode>> imported = new HashMap<>();
+        int cells = grid.width * grid.height;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                int cell = in.readInt();
+                int count = in.readInt();
+                if (cell < 0 || cell >= cells || count < 0) {
+                    throw new IOException("Corrupt jump point table");
+                }
+                List<JpsNode> jumpPoints = new ArrayList<>(count);
+                for (int j = 0; j < count; j++) {
+                    int target = in.readInt();
+                    if (target < 0 || target >= cells) {
+                        throw new IOException("Corrupt jump point table");
+                    }
+                    jumpPoints.add(new JpsNode(target % grid.width, target / grid.width));
+                }
+                imported.put(new JpsNode(cell % grid.width, cell / grid.width), jumpPoints);
+            }
+        }
+        jumpPointsMap = imported;
+    }
+
     // Get the precomputed jump points for a node
     public List<JpsNode> getJumpPoints(JpsNode node) {
         return jumpPointsMap.getOrDefault(node, Collections.emptyList());
     }
 
     // Modify JPS algorithm to use precomputed jump points
-    public List<JpsNode> searchWithPrecomputedJPS(JpsNode start, JpsNode goal) {
-        Map<String, JpsNode> nodeMap = new HashMap<>();  // Keep track of actual nodes
-        Set<String> closedSet = new HashSet<>();
-        PriorityQueue<JpsNode> openList = new PriorityQueue<>((a, b) -> Double.compare(a.f, b.f));
+    public GridPath searchWithPrecomputedJPS(JpsNode start, JpsNode goal) {
+        SearchHandle search = begin(start, goal);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
 
-        start.g = 0;
-        start.f = heuristic(start, goal);
-        openList.add(start);
-        nodeMap.put(nodeKey(start), start);
+    // The same search, run a slice at a time by the caller
+    public SearchHandle begin(JpsNode start, JpsNode goal) {
+        return new Search(start, goal);
+    }
 
-        while (!openList.isEmpty()) {
+    private final class Search extends SearchHandle {
+        private final Map<String, JpsNode> nodeMap = new HashMap<>();  // Keep track of actual nodes
+        private final Set<String> closedSet = new HashSet<>();
+        private final PriorityQueue<JpsNode> openList = new PriorityQueue<>((a, b) -> Double.compare(a.f, b.f));
+        private final JpsNode goal;
+
+        Search(JpsNode start, JpsNode goal) {
+            this.goal = goal;
+            start.g = 0;
+            start.f = heuristic(start, goal);
+            openList.add(start);
+            nodeMap.put(nodeKey(start), start);
+        }
+
+        @Override
+        void expand() {
+            if (openList.isEmpty()) {
+                finish(null);
+                return;
+            }
             JpsNode current = openList.poll();
             String currentKey = nodeKey(current);
 
             if (current.equals(goal)) {
-                return reconstructPath(current);
+                finish(reconstructPath(current));
+                return;
             }
 
             if (closedSet.contains(currentKey)) {
-                continue;
+                return;
             }
             closedSet.add(currentKey);
+            countExpansion();
 
             // First, check precomputed jump points
             List<JpsNode> jumpPoints = jumpPointsMap.getOrDefault(current, Collections.emptyList());
             for (JpsNode jumpPoint : jumpPoints) {
-                processSuccessor(jumpPoint, current, goal, openList, closedSet, nodeMap);
+                // Search on a copy: the precomputed nodes are shared between queries
+                processSuccessor(new JpsNode(jumpPoint.x, jumpPoint.y), current, goal, openList, closedSet, nodeMap);
             }
 
             // Then process natural neighbors
             processNaturalNeighbors(current, goal, openList, closedSet, nodeMap);
         }
-
-        return null;
     }
 
     private void processNaturalNeighbors(JpsNode current, JpsNode goal,
                                          PriorityQueue<JpsNode> openList,
                                          Set<String> closedSet,
                                          Map<String, JpsNode> nodeMap) {
-        // Straight directions
-        int[][] straight = {{0,1}, {1,0}, {0,-1}, {-1,0}};
-        // Diagonal directions
-        int[][] diagonal = {{1,1}, {1,-1}, {-1,1}, {-1,-1}};
-
-        // Process straight neighbors
-        for (int[] dir : straight) {
-            int newX = current.x + dir[0];
-            int newY = current.y + dir[1];
-
-            if (!grid.isWalkable(newX, newY)) {
+        // Straight moves to walkable cells, diagonals only when both adjacent
+        // cells are walkable too
+        int legal = MoveMasks.withoutCornerCutting(MoveMasks.at(grid, current.x, current.y));
+        for (int d : NATURAL_ORDER) {
+            if ((legal & 1 << d) == 0) {
                 continue;
             }
-
-            JpsNode neighbor = new JpsNode(newX, newY);
-            processSuccessor(neighbor, current, goal, openList, closedSet, nodeMap);
-        }
-
-        // Process diagonal neighbors
-        for (int[] dir : diagonal) {
-            int newX = current.x + dir[0];
-            int newY = current.y + dir[1];
-
-            if (!grid.isWalkable(newX, newY)) {
-                continue;
-            }
-
-            // Check if we can move diagonally (both adjacent cells must be walkable)
-            if (!grid.isWalkable(current.x + dir[0], current.y)  ||
-                    !grid.isWalkable(current.x, current.y + dir[1])) {
-                continue;
-            }
-
-            JpsNode neighbor = new JpsNode(newX, newY);
+            JpsNode neighbor = new JpsNode(current.x + AstarAlgorithm.DX[d], current.y + AstarAlgorithm.DY[d]);
             processSuccessor(neighbor, current, goal, openList, closedSet, nodeMap);
         }
     }
@@ -264,55 +335,20 @@ public class JumpPointPreprocessor {
 
 
 
-    // Reconstruct the path from goal to start
-    private List<JpsNode> reconstructPath(JpsNode node) {
-        List<JpsNode> jumpPoints = new ArrayList<>();
-        while (node != null) {
-            jumpPoints.add(node);
-            node = node.parent;
+    // Reconstruct the jump-point waypoints from goal to start; cells in between
+    // are expanded lazily by GridPath
+    private GridPath reconstructPath(JpsNode node) {
+        double cost = node.g;
+        int count = 0;
+        for (JpsNode n = node; n != null; n = n.parent) {
+            count++;
         }
-        Collections.reverse(jumpPoints);
-
-        // Interpolate the full path
-        return interpolatePath(jumpPoints);
-    }
-
-
-    private List<JpsNode> interpolatePath(List<JpsNode> jumpPoints) {
-        List<JpsNode> fullPath = new ArrayList<>();
-
-        for (int i = 0; i < jumpPoints.size() - 1; i++) {
-            JpsNode start = jumpPoints.get(i);
-            JpsNode end = jumpPoints.get(i + 1);
-
-            // Add the start point
-            fullPath.add(start);
-
-            // Interpolate points between start and end
-            int dx = end.x - start.x;
-            int dy = end.y - start.y;
-
-            int stepX = Integer.signum(dx); // Direction of x movement
-            int stepY = Integer.signum(dy); // Direction of y movement
-
-            int x = start.x;
-            int y = start.y;
-
-            // Add all intermediate points except the end point
-            while (x != end.x || y != end.y) {
-                if (x != end.x) x += stepX;
-                if (y != end.y) y += stepY;
-
-                if (x != end.x || y != end.y) {
-                    fullPath.add(new JpsNode(x, y));
-                }
-            }
+        int[] waypoints = new int[count];
+        for (int i = count - 1; i >= 0; i--) {
+            waypoints[i] = node.y * grid.width + node.x;
+            node = node.parent;
         }
-
-        // Add the last point
-        fullPath.add(jumpPoints.get(jumpPoints.size() - 1));
-
-        return fullPath;
+        return new GridPath(grid.width, waypoints, cost);
     }
 
 
@@ -0,0 +1,113 @@
+package com.example.pathfinding;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-bucketed latency histogram in nanoseconds, in the style of HdrHistogram.
+// Values below 256 get a bucket each; above that every power of two is split
+// into 128 linear sub-buckets, so any recorded value is reported within 0.8%
+// over the whole range of a long. Recording is one atomic increment plus a
+// couple of uncontended updates, safe from any number of threads, and snapshots
+// can be taken while recording goes on.
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - SUB_BITS) * SUB_COUNT + 2 * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(indexOf(nanos));
+        total.increment();
+        sum.add(nanos);
+        long seen = max.get();
+        while (nanos > seen && !max.compareAndSet(seen, nanos)) {
+            seen = max.get();
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    // Counts copied bucket by bucket; recording that races with this call may
+    // land in either this snapshot or the next
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        long recorded = total.sum();
+        double mean = recorded == 0 ? 0 : (double) sum.sum() / recorded;
+        long largest = max.get();
+        // A bucket's highest value may lie above anything actually recorded
+        return new Snapshot(count, mean, largest,
+                Math.min(largest, valueAt(copy, count, 0.50)), Math.min(largest, valueAt(copy, count, 0.90)),
+                Math.min(largest, valueAt(copy, count, 0.99)), Math.min(largest, valueAt(copy, count, 0.999)));
+    }
+
+    public static final class Snapshot {
+        public final long count;
+        public final double mean;
+        public final long max;
+        public final long p50, p90, p99, p999; // nanoseconds
+
+        Snapshot(long count, double mean, long max, long p50, long p90, long p99, long p999) {
+            this.count = count;
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(java.util.Locale.US,
+                    "count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                    count, mean / 1e6, p50 / 1e6, p90 / 1e6, p99 / 1e6, p999 / 1e6, max / 1e6);
+        }
+    }
+
+    // Highest value of the bucket holding the q-quantile
+    private static long valueAt(long[] counts, long count, double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(counts.length - 1);
+    }
+
+    static int indexOf(long value) {
+        int exponent = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BITS);
+        return (exponent << SUB_BITS) + (int) (value >>> exponent);
+    }
+
+    static long highestValue(int index) {
+        int exponent = Math.max(0, (index >> SUB_BITS) - 1);
+        long mantissa = index - ((long) exponent << SUB_BITS);
+        return ((mantissa + 1) << exponent) - 1;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.pathfinding;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Latency histograms keyed by map, engine and what was timed.
+// Histograms are created on first use and live for the recorder's lifetime;
+// snapshots and dumps read them while queries keep recording. Hot callers look
+// their histograms up once and record into them directly (see PathService).
+public class LatencyRecorder {
+
+    public enum Kind { QUERY, QUEUE_WAIT, PREPROCESS }
+
+    private final ConcurrentHashMap<Key, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public void record(String map, String engine, Kind kind, long nanos) {
+        histogram(map, engine, kind).record(nanos);
+    }
+
+    public LatencyHistogram histogram(String map, String engine, Kind kind) {
+        Key key = new Key(map, engine, kind);
+        LatencyHistogram histogram = histograms.get(key);
+        if (histogram == null) {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = histograms.putIfAbsent(key, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
+    // "map/engine/kind" -> percentiles, sorted by key
+    public SortedMap<String, LatencyHistogram.Snapshot> snapshots() {
+        SortedMap<String, LatencyHistogram.Snapshot> result = new TreeMap<>();
+        for (Map.Entry<Key, LatencyHistogram> entry : histograms.entrySet()) {
+            result.put(entry.getKey().toString(), entry.getValue().snapshot());
+        }
+        return result;
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    // One line per histogram that has samples: key, then the snapshot's fields
+    public void writeTo(Writer out) throws IOException {
+        for (Map.Entry<String, LatencyHistogram.Snapshot> entry : snapshots().entrySet()) {
+            if (entry.getValue().count == 0) {
+                continue; // looked up in advance but never recorded into
+            }
+            out.write(entry.getKey());
+            out.write(' ');
+            out.write(entry.getValue().toString());
+            out.write('\n');
+        }
+        out.flush();
+    }
+
+    // Writes a temporary file and renames it, so readers never see half a dump
+    public void dump(File file) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(temp), StandardCharsets.UTF_8)) {
+            writeTo(out);
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    private static final class Key {
+        final String map, engine;
+        final Kind kind;
+
+        Key(String map, String engine, Kind kind) {
+            this.map = map;
+            this.engine = engine;
+            this.kind = kind;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return kind == other.kind && map.equals(other.map) && engine.equals(other.engine);
+        }
+
+        @Override
+        public int hashCode() {
+            return (map.hashCode() * 31 + engine.hashCode()) * 31 + kind.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return map + "/" + engine + "/" + kind;
+        }
+    }
+}
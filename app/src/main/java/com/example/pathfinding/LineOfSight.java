@@ -0,0 +1,100 @@
+package com.example.pathfinding;
+
+import java.util.stream.IntStream;
+
+// Line-of-sight tests between cell centres on a JpsGrid.
+// The segment is walked one row at a time: within a row it covers a contiguous
+// run of cells, which is checked a word at a time with JpsGrid.isRowRangeWalkable.
+// Cells the segment only grazes at an edge or corner count as covered, so a line
+// never squeezes between two diagonally touching obstacles. The corner-cutting
+// variant counts only cells whose inside the segment crosses, matching the
+// engines' moves, which need only the destination walkable: it passes exactly
+// where a run of diagonal steps may squeeze past a corner.
+// Batches of segments are split into chunks that run in parallel.
+final class LineOfSight {
+    private static final int CHUNK = 256; // segments per parallel task
+
+    private LineOfSight() {
+    }
+
+    public static boolean between(JpsGrid grid, int x0, int y0, int x1, int y1) {
+        return between(grid, x0, y0, x1, y1, false);
+    }
+
+    public static boolean betweenCuttingCorners(JpsGrid grid, int x0, int y0, int x1, int y1) {
+        return between(grid, x0, y0, x1, y1, true);
+    }
+
+    private static boolean between(JpsGrid grid, int x0, int y0, int x1, int y1, boolean cutCorners) {
+        if (!grid.isWalkable(x0, y0) || !grid.isWalkable(x1, y1)) {
+            return false;
+        }
+        if (y0 == y1) {
+            return grid.isRowRangeWalkable(y0, x0, x1);
+        }
+        if (y0 > y1) {
+            int t = x0; x0 = x1; x1 = t;
+            t = y0; y0 = y1; y1 = t;
+        }
+
+        // Work in half-cell units so cell centres land on odd integers:
+        // X(Y) = cx0 + (Y - cy0) * dx / dy
+        long cx0 = 2L * x0 + 1;
+        long cy0 = 2L * y0 + 1;
+        long dx = 2L * (x1 - x0);
+        long dy = 2L * (y1 - y0); // > 0
+        long cyEnd = 2L * y1 + 1;
+
+        for (int row = y0; row <= y1; row++) {
+            // Part of the segment inside this row's band [2*row, 2*row + 2]
+            long ya = Math.max(2L * row, cy0);
+            long yb = Math.min(2L * row + 2, cyEnd);
+
+            // X at ya and yb as fractions over dy
+            long na = cx0 * dy + (ya - cy0) * dx;
+            long nb = cx0 * dy + (yb - cy0) * dx;
+            long lo = Math.min(na, nb);
+            long hi = Math.max(na, nb);
+
+            int cLo, cHi;
+            if (cutCorners) {
+                // Cells (2c, 2c + 2) overlapping (lo, hi) / dy; the centres are odd,
+                // so a vertical segment still has its column
+                cLo = (int) Math.floorDiv(lo, 2 * dy);
+                cHi = (int) (ceilDiv(hi, 2 * dy) - 1);
+            } else {
+                // Cells [2c, 2c + 2] touching [lo, hi] / dy
+                cLo = (int) (ceilDiv(lo, 2 * dy) - 1);
+                cHi = (int) Math.floorDiv(hi, 2 * dy);
+            }
+            cLo = Math.max(cLo, Math.min(x0, x1));
+            cHi = Math.min(cHi, Math.max(x0, x1));
+            if (!grid.isRowRangeWalkable(row, cLo, cHi)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // visible[i] = between(from[i], to[i]) for the first `count` pairs of cell
+    // indices (y * width + x). Large batches are spread over the common pool.
+    public static void between(JpsGrid grid, int[] from, int[] to, int count, boolean[] visible) {
+        if (count <= CHUNK) {
+            betweenRange(grid, from, to, 0, count, visible);
+            return;
+        }
+        IntStream.range(0, (count + CHUNK - 1) / CHUNK).parallel().forEach(task ->
+                betweenRange(grid, from, to, task * CHUNK, Math.min(count, (task + 1) * CHUNK), visible));
+    }
+
+    private static void betweenRange(JpsGrid grid, int[] from, int[] to, int begin, int end, boolean[] visible) {
+        int width = grid.width;
+        for (int i = begin; i < end; i++) {
+            visible[i] = between(grid, from[i] % width, from[i] / width, to[i] % width, to[i] / width);
+        }
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+}
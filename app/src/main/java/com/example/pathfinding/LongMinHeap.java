@@ -0,0 +1,66 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Min-heap of packed longs, usually (priority << 32 | id). Duplicates are allowed,
+// so callers use it with lazy deletion instead of decrease-key.
+final class LongMinHeap {
+    private long[] heap;
+    private int size;
+
+    LongMinHeap(int initialCapacity) {
+        heap = new long[Math.max(initialCapacity, 16)];
+    }
+
+    static long pack(int priority, int id) {
+        return ((long) priority << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    long peek() {
+        return heap[0];
+    }
+
+    void push(long item) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int p = (i - 1) >>> 1;
+            if (heap[p] <= item) break;
+            heap[i] = heap[p];
+            i = p;
+        }
+        heap[i] = item;
+    }
+
+    long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int c = 2 * i + 1;
+            if (c + 1 < size && heap[c + 1] < heap[c]) c++;
+            if (heap[c] >= last) break;
+            heap[i] = heap[c];
+            i = c;
+        }
+        if (size > 0) {
+            heap[i] = last;
+        }
+        return top;
+    }
+}
@@ -6,13 +6,10 @@ import android.annotation.SuppressLint;
 import android.content.Intent;
 import android.graphics.Bitmap;
 import android.graphics.Color;
-import android.graphics.Canvas;
 import android.graphics.Matrix;
-import android.graphics.Paint;
 import android.graphics.PointF;
 import android.graphics.drawable.Drawable;
 import android.net.Uri;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.provider.MediaStore;
 import android.util.Log;
@@ -26,9 +23,11 @@ import android.widget.TextView;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -36,6 +35,7 @@ public class MainActivity extends AppCompatActivity {
     private Bitmap mapBitmap;  // Global Bitmap to store the user's uploaded map
 
     private ImageView mapImageView;
+    private PathOverlayView pathOverlay;  // Path layer on top of the map
     private static TextView tvStatus;
 
     Matrix matrix = new Matrix();
@@ -47,7 +47,17 @@ public class MainActivity extends AppCompatActivity {
     //JPS
     private boolean isFirstJpsRun = true;  // Track if it's the first JPS run
     private JumpPointPreprocessor jpp;    // JPS Preprocessor instance
-    private int[][] precomputedGrid;
+
+    // Path queries run on this executor; a new query supersedes the previous one
+    private static final String QUERY_CHANNEL = "map-view";
+    private final ExecutorService pathExecutor = PathService.defaultExecutor();
+    private JpsGrid jpsGrid;              // Grid of the loaded map
+    private CostGrid costGrid;            // Per-cell terrain cost of the loaded map
+    private PathService pathService;      // Queries against jpsGrid (and jpp once preprocessed)
+    private ArtifactCache artifactCache;  // Preprocessing results of maps seen before
+    private static final long ARTIFACT_CACHE_BYTES = 64L << 20;
+    private final LatencyRecorder latency = new LatencyRecorder(); // Dumped to latency.txt in onStop
+    private String mapName;               // Name latencies of the loaded map are recorded under
 
 
     @SuppressLint("ClickableViewAccessibility")
@@ -55,16 +65,22 @@ public class MainActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        artifactCache = new ArtifactCache(new File(getCacheDir(), "artifacts"), ARTIFACT_CACHE_BYTES);
 
         Button btnUploadMap = findViewById(R.id.btnUploadMap);
         Button btnSelectPoints = findViewById(R.id.btnSelectPoints);
         Button btnCalculatePath = findViewById(R.id.btnCalculatePath);
         Button btnRunJps = findViewById(R.id.btnRunJps);  // JPS Button
+        Button btnRunTheta = findViewById(R.id.btnRunTheta);  // Theta* Button
+        Button btnRunTerrain = findViewById(R.id.btnRunTerrain);  // Terrain cost Button
+        Button btnRunFringe = findViewById(R.id.btnRunFringe);  // Fringe search Button
 
 
         mapImageView = findViewById(R.id.mapImageView);
         scaleanddrag = new scaleanddrag();
         scaleanddrag.setImageView(mapImageView);  // Add this line to pass the ImageView reference
+        pathOverlay = findViewById(R.id.pathOverlay);
+        scaleanddrag.setPathOverlay(pathOverlay);
 
         tvStatus = findViewById(R.id.tvStatus);
         progressBar = findViewById(R.id.progressBar);
@@ -103,19 +119,64 @@ public class MainActivity extends AppCompatActivity {
                     return;
                 }
 
-                if (isFirstJpsRun) {
-                    // Preprocess jump points on the first run
-                    precomputedGrid = getGridFromBitmap(mapBitmap);
-                    JpsGrid jpsGrid = new JpsGrid(precomputedGrid);
-                    jpp = new JumpPointPreprocessor(jpsGrid);
+                if (isFirstJpsRun && jpp == null) {
+                    // Preprocess jump points in the background; until they are
+                    // ready, queries run online JPS with its lazy jump cache
+                    preprocessJumpPoints();
+                }
+                updateStatus(isFirstJpsRun ? "Running online JPS..." : "Running JPS...");
+                runPathQuery(PathService.Engine.JPS);
+            }
+        });
+        btnRunTheta.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (mapBitmap == null) {
+                    updateStatus("Please upload a map first.");
+                    return;
+                }
 
-                    updateStatus("Preprocessing jump points...");
-                    new PreprocessJumpPointsTask().execute();
-                } else {
-                    // Perform the JPS search on subsequent runs
-                    updateStatus("Running JPS...");
-                    new RunJpsTask().execute();
+                if (Constants.startPoint == null || Constants.endPoint == null) {
+                    updateStatus("Please select start and end points.");
+                    return;
+                }
+
+                updateStatus("Running Theta*...");
+                runPathQuery(PathService.Engine.THETA);
+            }
+        });
+        btnRunTerrain.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (mapBitmap == null) {
+                    updateStatus("Please upload a map first.");
+                    return;
+                }
+
+                if (Constants.startPoint == null || Constants.endPoint == null) {
+                    updateStatus("Please select start and end points.");
+                    return;
+                }
+
+                updateStatus("Running terrain-cost search...");
+                runPathQuery(PathService.Engine.TERRAIN);
+            }
+        });
+        btnRunFringe.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                if (mapBitmap == null) {
+                    updateStatus("Please upload a map first.");
+                    return;
+                }
+
+                if (Constants.startPoint == null || Constants.endPoint == null) {
+                    updateStatus("Please select start and end points.");
+                    return;
                 }
+
+                updateStatus("Running Fringe search...");
+                runPathQuery(PathService.Engine.FRINGE);
             }
         });
         // Enable touch interaction for point selection
@@ -161,39 +222,11 @@ public class MainActivity extends AppCompatActivity {
 //        });
 
         // Calculate Path functionality
-//        btnCalculatePath.setOnClickListener(new View.OnClickListener() {
-//            @Override
-//            public void onClick(View v) {
-//                if (Constants.startPoint != null && Constants.endPoint != null) {
-////                    new CalculatePathTask().execute();  // Use AsyncTask to calculate path
-//                    int[][] gridData = new int[][] {
-//                            {0, 0, 0, 0, 0},
-//                            {0, 0, 0, 0, 0},
-//                            {0, 1, 1, 0, 0},
-//                            {0, 0, 0, 1, 0},
-//                            {0, 0, 0, 0, 0}
-//                    };
-//
-//                    JpsGrid jpsGrid = new JpsGrid(gridData);  // Using the constructor that takes a grid
-//
-//// Log walkable grid
-//                    for (int i = 0; i < jpsGrid.width; i++) {
-//                        System.out.print("Row " + i + ": ");
-//                        for (int j = 0; j < jpsGrid.height; j++) {
-//                            System.out.print(jpsGrid.walkable[i][j] ? "0 " : "X ");  // 'X' for obstacles, '0' for walkable
-//                        }
-//                        System.out.println();
-//                    }
-//                } else {
-//                    updateStatus("Please select both start and end points.");
-//                }
-//            }
-//        });
         btnCalculatePath.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
                 if (Constants.startPoint != null && Constants.endPoint != null) {
-                    new CalculatePathTask().execute();  // Use AsyncTask to calculate path
+                    runPathQuery(PathService.Engine.ASTAR);  // Calculate the path on the query executor
                 } else {
                     updateStatus("Please select both start and end points.");
                 }
@@ -201,60 +234,150 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
-    private class PreprocessJumpPointsTask extends AsyncTask<Void, Void, Void> {
-        @Override
-        protected void onPreExecute() {
-            super.onPreExecute();
-            progressBar.setVisibility(View.VISIBLE);
-        }
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // The process may be killed without onDestroy once stopped, so the report
+        // is written here, on the query executor rather than the UI thread
+        final File report = new File(getFilesDir(), "latency.txt");
+        pathExecutor.execute(() -> {
+            try {
+                latency.dump(report);
+            } catch (IOException e) {
+                Log.w("Pathfinding", "Could not write latency report", e);
+            }
+        });
+    }
 
-        @Override
-        protected Void doInBackground(Void... voids) {
-            jpp.precomputeJumpPoints();
-            return null;
-        }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        pathExecutor.shutdownNow();
+    }
 
-        @Override
-        protected void onPostExecute(Void aVoid) {
-            super.onPostExecute(aVoid);
-            progressBar.setVisibility(View.INVISIBLE);
-            isFirstJpsRun = false;  // Update flag after preprocessing
-            updateStatus("Jump points preprocessed. Ready for JPS search.");
-        }
+    private void preprocessJumpPoints() {
+        final JumpPointPreprocessor preprocessor = new JumpPointPreprocessor(jpsGrid);
+        final JpsGrid grid = jpsGrid;
+        final CostGrid costs = costGrid;
+        final String map = mapName;
+        jpp = preprocessor;
+        progressBar.setVisibility(View.VISIBLE);
+        CompletableFuture.runAsync(() -> {
+                    long started = System.nanoTime();
+                    preprocessor.precomputeJumpPoints();
+                    latency.record(map, PathService.Engine.JPS.name(), LatencyRecorder.Kind.PREPROCESS,
+                            System.nanoTime() - started);
+                    try {
+                        artifactCache.put(ArtifactCache.keyOf(grid), JumpPointPreprocessor.ARTIFACT_KIND,
+                                JumpPointPreprocessor.ARTIFACT_VERSION, preprocessor.exportJumpPoints());
+                    } catch (IOException e) {
+                        Log.w("Pathfinding", "Could not cache jump points", e);
+                    }
+                }, pathExecutor)
+                .whenComplete((ignored, error) -> runOnUiThread(() -> {
+                    if (jpp != preprocessor) {
+                        return; // A different map was loaded meanwhile
+                    }
+                    progressBar.setVisibility(View.INVISIBLE);
+                    if (error != null) {
+                        jpp = null;
+                        updateStatus("Jump point preprocessing failed.");
+                        return;
+                    }
+                    pathService = newPathService(grid, preprocessor, costs, map);
+                    isFirstJpsRun = false;  // Update flag after preprocessing
+                    updateStatus("Jump points preprocessed. Ready for JPS search.");
+                }));
     }
-    private class RunJpsTask extends AsyncTask<Void, Void, List<JpsNode>> {
-        private long executionTime;
 
-        @Override
-        protected void onPreExecute() {
-            super.onPreExecute();
-            progressBar.setVisibility(View.VISIBLE);
-        }
+    // Looks the loaded map up in the artifact cache and, on a hit, installs its
+    // jump points so JPS runs without preprocessing
+    private void restoreCachedJumpPoints() {
+        final JpsGrid grid = jpsGrid;
+        final CostGrid costs = costGrid;
+        final String map = mapName;
+        CompletableFuture.supplyAsync(() -> {
+                    byte[] data = artifactCache.get(ArtifactCache.keyOf(grid), JumpPointPreprocessor.ARTIFACT_KIND,
+                            JumpPointPreprocessor.ARTIFACT_VERSION);
+                    if (data == null) {
+                        return null;
+                    }
+                    JumpPointPreprocessor preprocessor = new JumpPointPreprocessor(grid);
+                    try {
+                        preprocessor.importJumpPoints(data);
+                    } catch (IOException e) {
+                        return null;
+                    }
+                    return preprocessor;
+                }, pathExecutor)
+                .whenComplete((preprocessor, error) -> runOnUiThread(() -> {
+                    if (preprocessor == null || jpsGrid != grid || jpp != null) {
+                        return; // Miss, another map, or preprocessing already started
+                    }
+                    jpp = preprocessor;
+                    pathService = newPathService(grid, preprocessor, costs, map);
+                    isFirstJpsRun = false;
+                    updateStatus("Jump points restored from cache. Ready for JPS search.");
+                }));
+    }
+
+    private PathService newPathService(JpsGrid grid, JumpPointPreprocessor preprocessor, CostGrid costs,
+                                       String map) {
+        PathService service = new PathService(grid, preprocessor, costs, pathExecutor);
+        service.setLatencyRecorder(latency, map);
+        return service;
+    }
+
+    // Submits a query for the current start/end points and draws the result.
+    // The points are read here, on the UI thread, so the worker never touches Constants.
+    private void runPathQuery(final PathService.Engine engine) {
+        int startX = (int) Constants.startPoint.x;
+        int startY = (int) Constants.startPoint.y;
+        int endX = (int) Constants.endPoint.x;
+        int endY = (int) Constants.endPoint.y;
+        Log.d("Pathfinding", engine + " start: (" + startX + ", " + startY + ") end: (" + endX + ", " + endY + ")");
+
+        progressBar.setVisibility(View.VISIBLE);
+        final long startTime = System.currentTimeMillis();
+        pathService.submit(QUERY_CHANNEL, engine, startX, startY, endX, endY)
+                .whenComplete((path, error) -> {
+                    if (error instanceof CancellationException) {
+                        return; // Superseded by a newer query
+                    }
+                    final long executionTime = System.currentTimeMillis() - startTime;
+                    runOnUiThread(() -> showPathResult(engine, path, error, executionTime));
+                });
+    }
 
-        @Override
-        protected List<JpsNode> doInBackground(Void... voids) {
-            JpsNode startNode = new JpsNode((int) Constants.startPoint.x, (int) Constants.startPoint.y);
-            JpsNode endNode = new JpsNode((int) Constants.endPoint.x, (int) Constants.endPoint.y);
-            System.out.println("Start Node: (" + startNode.x + ", " + startNode.y + ")");
-            System.out.println("End Node: (" + endNode.x + ", " + endNode.y + ")");
-
-            long startTime = System.currentTimeMillis();
-            List<JpsNode> path = jpp.searchWithPrecomputedJPS(startNode, endNode);
-            executionTime = System.currentTimeMillis() - startTime;
-            return path;        }
-
-        @Override
-        protected void onPostExecute(List<JpsNode> path) {
-            super.onPostExecute(path);
-            progressBar.setVisibility(View.INVISIBLE);
-
-            if (path != null && !path.isEmpty()) {
-                updateStatus("JPS Path found with " + path.size() + " steps. Time: " + executionTime + "ms");
-                drawJPSPathOnMap(mapBitmap, path);
-//                drawPathOnMap(mapBitmap, path);  // Draw the path on the map
-            } else {
-                updateStatus("No path found.");
+    private void showPathResult(PathService.Engine engine, GridPath path, Throwable error, long executionTime) {
+        progressBar.setVisibility(View.INVISIBLE);
+
+        if (error != null) {
+            Log.e("Pathfinding", "Path query failed", error);
+            updateStatus("Path query failed.");
+        } else if (path == null) {
+            updateStatus("No path found.");
+        } else {
+            switch (engine) {
+                case ASTAR:
+                    updateStatus("A* Path found with " + path.cellCount() + " steps. Time: " + executionTime + "ms");
+                    break;
+                case JPS:
+                    updateStatus("JPS Path found with " + path.cellCount() + " steps. Time: " + executionTime + "ms");
+                    break;
+                case THETA:
+                    updateStatus("Theta* Path found with " + path.waypointCount() + " waypoints, length "
+                            + String.format("%.1f", path.cost()) + ". Time: " + executionTime + "ms");
+                    break;
+                case TERRAIN:
+                    updateStatus("Terrain Path found with " + path.cellCount() + " steps, cost "
+                            + String.format("%.1f", path.cost()) + ". Time: " + executionTime + "ms");
+                    break;
+                case FRINGE:
+                    updateStatus("Fringe Path found with " + path.cellCount() + " steps. Time: " + executionTime + "ms");
+                    break;
             }
+            pathOverlay.setPath(path);  // Draw the path over the map
         }
     }
     // Method to open the gallery and allow the user to pick an image
@@ -283,9 +406,25 @@ public class MainActivity extends AppCompatActivity {
             mapBitmap = MediaStore.Images.Media.getBitmap(getContentResolver(), imageUri);
             mapImageView.setScaleType(ImageView.ScaleType.MATRIX);
             mapImageView.setImageBitmap(mapBitmap);
+            pathOverlay.clearPath();
+            Drawable drawable = mapImageView.getDrawable();
+            pathOverlay.setContentScale(
+                    (float) drawable.getIntrinsicWidth() / mapBitmap.getWidth(),
+                    (float) drawable.getIntrinsicHeight() / mapBitmap.getHeight());
 
             int[][] grid = getGridFromBitmap(mapBitmap);
+            jpsGrid = new JpsGrid(grid);
+            int[] pixels = new int[mapBitmap.getWidth() * mapBitmap.getHeight()];
+            mapBitmap.getPixels(pixels, 0, mapBitmap.getWidth(), 0, 0, mapBitmap.getWidth(), mapBitmap.getHeight());
+            costGrid = CostGrid.fromPixels(pixels, mapBitmap.getWidth(), mapBitmap.getHeight(), CostGrid.DEFAULT_MAX_COST);
+            if (pathService != null) {
+                pathService.cancel(QUERY_CHANNEL);
+            }
+            mapName = imageUri.getLastPathSegment() != null ? imageUri.getLastPathSegment() : "map";
+            pathService = newPathService(jpsGrid, null, costGrid, mapName);
+            jpp = null;
             isFirstJpsRun = true;
+            restoreCachedJumpPoints();
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -294,54 +433,6 @@ public class MainActivity extends AppCompatActivity {
         tvStatus.setText("Status: " + message);
     }
 
-    // AsyncTask to calculate the path on a background thread
-    private class CalculatePathTask extends AsyncTask<Void, Void, List<Node>> {
-        private long executionTime;
-
-        @Override
-        protected void onPreExecute() {
-            super.onPreExecute();
-            progressBar.setVisibility(View.VISIBLE);  // Show the progress bar before task starts
-        }
-
-        @Override
-        protected List<Node> doInBackground(Void... voids) {
-            // Perform the pathfinding work in the background
-            long startTime = System.currentTimeMillis();
-            List<Node> path = calculateAndDisplayPath();
-            executionTime = System.currentTimeMillis() - startTime;
-            return path;        }
-
-        @Override
-        protected void onPostExecute(List<Node> path) {
-            super.onPostExecute(path);
-            progressBar.setVisibility(View.INVISIBLE);  // Hide progress bar once task is done
-
-            if (path != null && !path.isEmpty()) {
-                updateStatus("A* Path found with " + path.size() + " steps. Time: " + executionTime + "ms");
-                drawPathOnMap(mapBitmap, path);  // Draw the path on the map
-            } else {
-                updateStatus("No path found.");
-            }
-        }
-    }
-
-    private List<Node> calculateAndDisplayPath() {
-        int[][] grid = getGridFromBitmap(mapBitmap); // Method to convert bitmap to grid
-        Node startNode = new Node((int) Constants.startPoint.x, (int) Constants.startPoint.y);
-        Node endNode = new Node((int) Constants.endPoint.x, (int) Constants.endPoint.y);
-
-        // Log grid and points for debugging
-        for (int[] row : grid) {
-            Log.d("Pathfinding", "Grid Row: " + Arrays.toString(row));
-        }
-        Log.d("Pathfinding", "Start: (" + startNode.x + ", " + startNode.y + ")");
-        Log.d("Pathfinding", "End: (" + endNode.x + ", " + endNode.y + ")");
-
-        // Using AstarAlgorithm to find the path
-        return AstarAlgorithm.findPath(startNode, endNode, grid);
-    }
-
     // Convert the Bitmap to a 2D grid for pathfinding
     public int[][] getGridFromBitmap(Bitmap bitmap) {
         int width = bitmap.getWidth();
@@ -374,54 +465,5 @@ public class MainActivity extends AppCompatActivity {
         return grid;
     }
 
-    // Draw the path on the uploaded map
-    public void drawPathOnMap(Bitmap originalMap, List<Node> path) {
-        // Create a mutable bitmap from the original map (so we can modify it)
-        Bitmap mutableMap = originalMap.copy(Bitmap.Config.ARGB_8888, true);
-
-        // Create a Canvas to draw on the mutable bitmap
-        Canvas canvas = new Canvas(mutableMap);
-
-        // Set up the paint for the path (for example, red color and stroke width)
-        Paint paint = new Paint();
-        paint.setColor(Color.RED);   // Color of the path (you can customize)
-        paint.setStrokeWidth(1);     // Line width for the path
-
-        // Loop through the nodes in the path and draw a circle for each
-        for (Node node : path) {
-            float x = node.x;  // Get the X coordinate
-            float y = node.y;  // Get the Y coordinate
-            canvas.drawCircle(x, y, 1, paint);  // Draw a small circle at each node's position
-        }
-
-        // Set the modified bitmap with the drawn path back to the ImageView
-        mapImageView.setImageBitmap(mutableMap);
-    }
-
-    public void drawJPSPathOnMap(Bitmap originalMap, List<JpsNode> path) {
-        // Create a mutable bitmap from the original map (so we can modify it)
-        Bitmap mutableMap = originalMap.copy(Bitmap.Config.ARGB_8888, true);
-
-        // Create a Canvas to draw on the mutable bitmap
-        Canvas canvas = new Canvas(mutableMap);
-
-        // Set up the paint for the path (for example, red color and stroke width)
-        Paint paint = new Paint();
-        paint.setColor(Color.RED);   // Color of the path (you can customize)
-        paint.setStrokeWidth(1);     // Line width for the path
-
-        // Loop through the nodes in the path and draw a line between consecutive points
-        for (JpsNode node : path) {
-            float x = node.x;  // Get the X coordinate
-            float y = node.y;  // Get the Y coordinate
-            canvas.drawCircle(x, y, 1, paint);  // Draw a small circle at each node's position
-        }
-
-        // Set the modified bitmap with the drawn path back to the ImageView
-        mapImageView.setImageBitmap(mutableMap);
-
-
-    }
-
 
 }
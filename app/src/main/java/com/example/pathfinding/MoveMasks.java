@@ -0,0 +1,117 @@
+package com.example.pathfinding;
+
+import java.util.stream.IntStream;
+
+// One byte per cell (y * width + x) with bit d set when AstarAlgorithm's move d
+// (DX/DY order) is legal from that cell: the destination is inside the map and
+// walkable, which is also the whole corner rule, since diagonals may cut corners.
+// Built in one pass, 64 cells per word of the packed rows, and patched around a
+// cell when it changes. An expansion then walks the set bits of one byte instead
+// of bounds-checking and looking up 8 neighbours, and JPS pruning reads "is the
+// cell beside me blocked" from the same byte (bit(dx, dy)).
+// Edits must go through setWalkable/update; not safe to edit during searches.
+final class MoveMasks {
+    private static final int ROWS_PER_TASK = 64;
+    // (dy + 1) * 3 + (dx + 1) -> move index, -1 for (0, 0)
+    private static final int[] MOVE = new int[9];
+
+    static {
+        MOVE[4] = -1;
+        for (int d = 0; d < 8; d++) {
+            MOVE[(AstarAlgorithm.DY[d] + 1) * 3 + AstarAlgorithm.DX[d] + 1] = d;
+        }
+    }
+
+    private final JpsGrid grid;
+    private final byte[] masks;
+
+    MoveMasks(final JpsGrid grid) {
+        this.grid = grid;
+        this.masks = new byte[grid.width * grid.height];
+        int tasks = (grid.height + ROWS_PER_TASK - 1) / ROWS_PER_TASK;
+        IntStream.range(0, tasks).parallel().forEach(task -> {
+            int end = Math.min(grid.height, (task + 1) * ROWS_PER_TASK);
+            for (int y = task * ROWS_PER_TASK; y < end; y++) {
+                computeRow(y);
+            }
+        });
+    }
+
+    // Legal moves from the cell, bits in AstarAlgorithm's DX/DY order
+    int of(int cell) {
+        return masks[cell] & 0xFF;
+    }
+
+    // Bit of the move (dx, dy), each -1..1 and not both 0
+    static int bit(int dx, int dy) {
+        return 1 << MOVE[(dy + 1) * 3 + dx + 1];
+    }
+
+    // The moves of a cell looked up directly, for grids without a MoveMasks
+    static int at(JpsGrid grid, int x, int y) {
+        int mask = 0;
+        for (int d = 0; d < 8; d++) {
+            if (grid.isWalkable(x + AstarAlgorithm.DX[d], y + AstarAlgorithm.DY[d])) {
+                mask |= 1 << d;
+            }
+        }
+        return mask;
+    }
+
+    // Drops the diagonals that cut a corner: each needs both of its cardinal
+    // moves as well (JumpPointPreprocessor's natural neighbours)
+    static int withoutCornerCutting(int mask) {
+        int n = mask & 1, s = mask >>> 1 & 1, w = mask >>> 2 & 1, e = mask >>> 3 & 1;
+        return mask & (0x0F | (w & n) << 4 | (w & s) << 5 | (e & n) << 6 | (e & s) << 7);
+    }
+
+    void setWalkable(int x, int y, boolean walkable) {
+        grid.setWalkable(x, y, walkable);
+        update(x, y, x, y);
+    }
+
+    // Recomputes the cells that can move into the rectangle, after the grid was
+    // edited there directly
+    void update(int x0, int y0, int x1, int y1) {
+        for (int y = Math.max(0, y0 - 1); y <= Math.min(grid.height - 1, y1 + 1); y++) {
+            for (int x = Math.max(0, x0 - 1); x <= Math.min(grid.width - 1, x1 + 1); x++) {
+                masks[y * grid.width + x] = (byte) at(grid, x, y);
+            }
+        }
+    }
+
+    private void computeRow(int y) {
+        int wordsPerRow = grid.wordsPerRow;
+        long[] rows = new long[3 * (wordsPerRow + 2)]; // rows y-1..y+1, a zero word each side
+        for (int r = 0; r < 3; r++) {
+            int ry = y + r - 1;
+            if (ry < 0 || ry >= grid.height) {
+                continue;
+            }
+            for (int w = 0; w < wordsPerRow; w++) {
+                rows[r * (wordsPerRow + 2) + w + 1] = grid.word(ry, w);
+            }
+        }
+        long[] moves = new long[8];
+        for (int w = 0; w < wordsPerRow; w++) {
+            // moves[d] bit x: the destination of move d from cell x is walkable
+            for (int d = 0; d < 8; d++) {
+                int i = (AstarAlgorithm.DY[d] + 1) * (wordsPerRow + 2) + w + 1;
+                long word = rows[i];
+                int dx = AstarAlgorithm.DX[d];
+                moves[d] = dx == 0 ? word
+                        : dx < 0 ? (word << 1) | (rows[i - 1] >>> 63)
+                        : (word >>> 1) | (rows[i + 1] << 63);
+            }
+            int base = y * grid.width + (w << 6);
+            int count = Math.min(64, grid.width - (w << 6));
+            for (int b = 0; b < count; b++) {
+                int mask = 0;
+                for (int d = 0; d < 8; d++) {
+                    mask |= (int) (moves[d] >>> b & 1) << d;
+                }
+                masks[base + b] = (byte) mask;
+            }
+        }
+    }
+}
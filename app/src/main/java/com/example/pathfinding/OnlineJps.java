@@ -0,0 +1,236 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Jump Point Search without preprocessing, with a jump cache filled as it runs.
+// The result of every straight jump, per (cell, cardinal direction), is kept in
+// one flat int table: the distance to the jump point, or minus the number of
+// free cells before the wall. A scan stores the answer for every cell it walks
+// over and stops early at a cell already known, so queries get faster as the
+// explored part of the map fills in, reaching JPS+ speed there without paying
+// for precomputeJumpPoints up front. Diagonal jumps are walked, each step
+// asking the cache for its two straight jumps.
+//
+// Moves are AstarAlgorithm's (a diagonal needs only its destination free) and
+// costs are 10/14, so path costs match A*. Concurrent searches may share the
+// cache, since every thread writes the same values; grid edits must not run
+// concurrently with searches.
+public class OnlineJps {
+    private static final int UNKNOWN = Integer.MIN_VALUE;
+    private static final int NONE = -1;
+
+    private final JpsGrid grid;
+    // Per (cell * 4 + d), d a cardinal move of AstarAlgorithm (0 N, 1 S, 2 W, 3 E)
+    private final int[] jumps;
+    // Legal moves per cell: which neighbours are blocked, for the pruning rules
+    private final MoveMasks moves;
+
+    public OnlineJps(JpsGrid grid) {
+        this.grid = grid;
+        this.moves = new MoveMasks(grid);
+        this.jumps = new int[grid.width * grid.height * 4];
+        Arrays.fill(jumps, UNKNOWN);
+    }
+
+    // Changes a cell and forgets the cached jumps it may affect
+    public void setWalkable(int x, int y, boolean walkable) {
+        grid.setWalkable(x, y, walkable);
+        invalidate(x, y, x, y);
+    }
+
+    // Forgets cached jumps that may read any cell of the rectangle (horizontal
+    // jumps look one row up and down, vertical ones one column left and right)
+    // and refreshes the move masks around it
+    public void invalidate(int x0, int y0, int x1, int y1) {
+        moves.update(x0, y0, x1, y1);
+        int width = grid.width;
+        for (int y = Math.max(0, y0 - 1); y <= Math.min(grid.height - 1, y1 + 1); y++) {
+            for (int x = 0; x < width; x++) {
+                int i = (y * width + x) * 4;
+                jumps[i + 2] = UNKNOWN;
+                jumps[i + 3] = UNKNOWN;
+            }
+        }
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = Math.max(0, x0 - 1); x <= Math.min(width - 1, x1 + 1); x++) {
+                int i = (y * width + x) * 4;
+                jumps[i] = UNKNOWN;
+                jumps[i + 1] = UNKNOWN;
+            }
+        }
+    }
+
+    // Share of (cell, direction) entries already cached
+    public double cachedFraction() {
+        int known = 0;
+        for (int v : jumps) {
+            if (v != UNKNOWN) known++;
+        }
+        return jumps.length == 0 ? 0 : (double) known / jumps.length;
+    }
+
+    public GridPath findPath(int startX, int startY, int goalX, int goalY, SearchContext ctx) {
+        SearchHandle search = begin(startX, startY, goalX, goalY, ctx);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
+
+    // The same search, run a slice at a time by the caller; ctx belongs to the
+    // handle until it is done
+    public SearchHandle begin(int startX, int startY, int goalX, int goalY, SearchContext ctx) {
+        return new Search(startX, startY, goalX, goalY, ctx);
+    }
+
+    private final class Search extends SearchHandle {
+        private final SearchContext ctx;
+        private final int startCell, goalCell, goalX, goalY;
+
+        Search(int startX, int startY, int goalX, int goalY, SearchContext ctx) {
+            this.ctx = ctx;
+            this.startCell = startY * grid.width + startX;
+            this.goalCell = goalY * grid.width + goalX;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+                finish(null);
+                return;
+            }
+            ctx.reset();
+            ctx.set(startCell, 0, startCell);
+            ctx.open.push(startCell, AstarAlgorithm.calculateHCost(startX, startY, goalX, goalY));
+        }
+
+        @Override
+        void expand() {
+            if (ctx.open.isEmpty() || ctx.isCancelled()) {
+                finish(null);
+                return;
+            }
+            int width = grid.width;
+            int current = ctx.open.pop();
+            if (current == goalCell) {
+                finish(GridPath.fromParents(width, ctx.parent, startCell, goalCell, ctx.g[goalCell] / 10.0));
+                return;
+            }
+            ctx.close(current);
+            countExpansion();
+            int x = current % width;
+            int y = current / width;
+
+            if (current == startCell) {
+                for (int d = 0; d < 8; d++) {
+                    successor(current, x, y, AstarAlgorithm.DX[d], AstarAlgorithm.DY[d]);
+                }
+                return;
+            }
+            int legal = moves.of(current);
+            int p = ctx.parent[current];
+            int dx = Integer.signum(x - p % width);
+            int dy = Integer.signum(y - p / width);
+            if (dx != 0 && dy != 0) {
+                successor(current, x, y, dx, dy);
+                successor(current, x, y, dx, 0);
+                successor(current, x, y, 0, dy);
+                if ((legal & MoveMasks.bit(-dx, 0)) == 0) successor(current, x, y, -dx, dy);
+                if ((legal & MoveMasks.bit(0, -dy)) == 0) successor(current, x, y, dx, -dy);
+            } else if (dx != 0) {
+                successor(current, x, y, dx, 0);
+                if ((legal & MoveMasks.bit(0, -1)) == 0) successor(current, x, y, dx, -1);
+                if ((legal & MoveMasks.bit(0, 1)) == 0) successor(current, x, y, dx, 1);
+            } else {
+                successor(current, x, y, 0, dy);
+                if ((legal & MoveMasks.bit(-1, 0)) == 0) successor(current, x, y, -1, dy);
+                if ((legal & MoveMasks.bit(1, 0)) == 0) successor(current, x, y, 1, dy);
+            }
+        }
+
+        private void successor(int current, int x, int y, int dx, int dy) {
+            int jump = dx != 0 && dy != 0 ? jumpDiagonal(x, y, dx, dy) : jumpStraight(x, y, dx, dy);
+            if (jump == NONE || ctx.isClosed(jump)) {
+                return;
+            }
+            int jx = jump % grid.width;
+            int jy = jump / grid.width;
+            double g = ctx.g[current] + AstarAlgorithm.calculateHCost(x, y, jx, jy);
+            if (g < ctx.gOf(jump)) {
+                ctx.set(jump, g, current);
+                ctx.open.push(jump, g + AstarAlgorithm.calculateHCost(jx, jy, goalX, goalY));
+            }
+        }
+
+        // Jump point (or the goal) straight from (x, y), answered from the cache
+        private int jumpStraight(int x, int y, int dx, int dy) {
+            int v = straight(x, y, dx, dy);
+            int reach = v > 0 ? v : -v;
+            int along = dx != 0 ? (goalY == y ? (goalX - x) * dx : 0) : (goalX == x ? (goalY - y) * dy : 0);
+            if (along > 0 && along <= reach) {
+                return goalCell;
+            }
+            return v > 0 ? (y + v * dy) * grid.width + x + v * dx : NONE;
+        }
+
+        private int jumpDiagonal(int x, int y, int dx, int dy) {
+            while (true) {
+                x += dx;
+                y += dy;
+                if (!grid.isWalkable(x, y)) {
+                    return NONE;
+                }
+                int cell = y * grid.width + x;
+                if (cell == goalCell) {
+                    return cell;
+                }
+                if ((!grid.isWalkable(x - dx, y) && grid.isWalkable(x - dx, y + dy))
+                        || (!grid.isWalkable(x, y - dy) && grid.isWalkable(x + dx, y - dy))) {
+                    return cell; // forced neighbour
+                }
+                if (jumpStraight(x, y, dx, 0) != NONE || jumpStraight(x, y, 0, dy) != NONE) {
+                    return cell;
+                }
+            }
+        }
+    }
+
+    // Cached straight jump: > 0 is the distance to the jump point, <= 0 minus the
+    // number of free cells before the wall
+    private int straight(int x, int y, int dx, int dy) {
+        int d = dx == 0 ? (dy < 0 ? 0 : 1) : (dx < 0 ? 2 : 3);
+        int v = jumps[(y * grid.width + x) * 4 + d];
+        return v != UNKNOWN ? v : scan(x, y, dx, dy, d);
+    }
+
+    private int scan(int x, int y, int dx, int dy, int d) {
+        int width = grid.width;
+        int n = 0;
+        int cx = x, cy = y;
+        int result;
+        while (true) {
+            cx += dx;
+            cy += dy;
+            if (!grid.isWalkable(cx, cy)) {
+                result = -n;
+                break;
+            }
+            n++;
+            boolean forced = dx != 0
+                    ? (!grid.isWalkable(cx, cy - 1) && grid.isWalkable(cx + dx, cy - 1))
+                        || (!grid.isWalkable(cx, cy + 1) && grid.isWalkable(cx + dx, cy + 1))
+                    : (!grid.isWalkable(cx - 1, cy) && grid.isWalkable(cx - 1, cy + dy))
+                        || (!grid.isWalkable(cx + 1, cy) && grid.isWalkable(cx + 1, cy + dy));
+            if (forced) {
+                result = n;
+                break;
+            }
+            int known = jumps[(cy * width + cx) * 4 + d];
+            if (known != UNKNOWN) {
+                result = known > 0 ? known + n : known - n; // continue from what that cell knows
+                break;
+            }
+        }
+        // Every cell walked over shares the answer, shifted by its offset
+        for (int k = 0; k < Math.max(n, 1); k++) {
+            jumps[((y + k * dy) * width + x + k * dx) * 4 + d] = result > 0 ? result - k : result + k;
+        }
+        return result;
+    }
+}
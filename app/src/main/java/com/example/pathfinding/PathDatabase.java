@@ -0,0 +1,284 @@
+package com.example.pathfinding;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Compressed path database (first-move oracle) for a static map.
+// For every walkable source it stores the first move (AstarAlgorithm's move
+// index 0..7) of a shortest path to every target. Targets are visited in Morton
+// (Z-curve) order, where nearby cells usually share a first move, and each row
+// is run-length encoded as (Morton code of the run start << 4 | move) entries.
+// Blocked targets are "don't care" and simply extend the current run.
+// A query is a binary search in the source's row; a path is one query per step,
+// with no search at all.
+//
+// Building runs a FirstMoveSearch from every source, in parallel batches, and
+// streams the rows to a file; the database then serves queries from the file
+// mapped into memory. File layout after a 32-byte header: (cells + 1) row
+// offsets, then the run entries, all little-endian longs.
+public class PathDatabase implements Closeable {
+    private static final int MAGIC = 0x50444246; // "PDBF"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int NO_MOVE = 8;         // target unreachable from the source
+    private static final int BATCH = 1024;        // sources built per parallel batch
+    private static final int REGION_SHIFT = 27;   // longs per mapped region: 1 GB
+
+    private final JpsGrid grid;
+    private final int width, height;
+    private final RandomAccessFile file;
+    private final MappedByteBuffer[] regions;
+    private final LongBuffer[] longs;
+    private final long entryCount;
+
+    private PathDatabase(RandomAccessFile file, JpsGrid grid) throws IOException {
+        this.file = file;
+        this.grid = grid;
+        this.width = grid.width;
+        this.height = grid.height;
+        long bytes = file.length() - HEADER_BYTES;
+        this.entryCount = bytes / 8;
+        int count = (int) ((entryCount + (1L << REGION_SHIFT) - 1) >>> REGION_SHIFT);
+        regions = new MappedByteBuffer[count];
+        longs = new LongBuffer[count];
+        FileChannel channel = file.getChannel();
+        for (int r = 0; r < count; r++) {
+            long start = (long) r << REGION_SHIFT;
+            long size = Math.min(1L << REGION_SHIFT, entryCount - start) * 8;
+            regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + start * 8, size);
+            regions[r].order(ByteOrder.LITTLE_ENDIAN);
+            longs[r] = regions[r].asLongBuffer();
+        }
+    }
+
+    // Builds the database for the grid into `path` and opens it
+    public static PathDatabase build(final JpsGrid grid, File path) throws IOException {
+        if (grid.width > 0x7FFF || grid.height > 0x7FFF) {
+            throw new IllegalArgumentException("Path database needs width and height below 32768");
+        }
+        final int cells = grid.width * grid.height;
+        final int[] order = mortonOrder(grid.width, grid.height);
+        long[] offsets = new long[cells + 1];
+
+        try (RandomAccessFile out = new RandomAccessFile(path, "rw")) {
+            out.setLength(0);
+            FileChannel channel = out.getChannel();
+            long position = HEADER_BYTES + (cells + 1L) * 8; // runs start after the offsets
+            long entries = cells + 1L;
+            final long[][] rows = new long[BATCH][];
+            for (int first = 0; first < cells; first += BATCH) {
+                final int batchStart = first;
+                final int batchEnd = Math.min(cells, first + BATCH);
+                IntStream.range(0, (batchEnd - batchStart + 63) / 64).parallel().forEach(task -> {
+                    FirstMoveSearch search = new FirstMoveSearch(grid);
+                    int end = Math.min(batchEnd, batchStart + (task + 1) * 64);
+                    for (int source = batchStart + task * 64; source < end; source++) {
+                        rows[source - batchStart] = encodeRow(grid, search, source, order);
+                    }
+                });
+                for (int source = batchStart; source < batchEnd; source++) {
+                    long[] row = rows[source - batchStart];
+                    offsets[source] = entries;
+                    position += writeLongs(channel, position, row);
+                    entries += row.length;
+                }
+            }
+            offsets[cells] = entries;
+            writeLongs(channel, HEADER_BYTES, offsets);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(grid.width).putInt(grid.height);
+            header.flip();
+            channel.write(header, 0);
+        }
+        return open(path, grid);
+    }
+
+    // Opens a database built for this grid
+    public static PathDatabase open(File path, JpsGrid grid) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "r");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            file.getChannel().read(header, 0);
+            header.flip();
+            if (header.remaining() < 16 || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a path database of version " + VERSION + ": " + path);
+            }
+            if (header.getInt() != grid.width || header.getInt() != grid.height) {
+                throw new IOException("Path database was built for a different grid size");
+            }
+            return new PathDatabase(file, grid);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // Run-length row for one source; empty for blocked sources
+    private static long[] encodeRow(JpsGrid grid, FirstMoveSearch search, int source, int[] order) {
+        if (!grid.isWalkable(source % grid.width, source / grid.width)) {
+            return new long[0];
+        }
+        search.run(source);
+        long[] runs = new long[16];
+        int count = 0;
+        int current = -1;
+        for (int cell : order) {
+            int x = cell % grid.width;
+            int y = cell / grid.width;
+            if (!grid.isWalkable(x, y)) {
+                continue; // don't care
+            }
+            int move = search.firstMove(cell);
+            if (move == FirstMoveSearch.NONE) {
+                // The source itself is a don't care too; unreachable cells are not
+                move = cell == source ? current : NO_MOVE;
+                if (move < 0) {
+                    continue;
+                }
+            }
+            if (move != current) {
+                if (count == runs.length) {
+                    runs = Arrays.copyOf(runs, count * 2);
+                }
+                // Don't cares since the previous cell stay in the previous run
+                runs[count++] = ((long) morton(x, y) << 4) | move;
+                current = move;
+            }
+        }
+        if (count > 0) {
+            runs[0] &= 0xF; // the first run covers everything before it as well
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    // Move index (see AstarAlgorithm.DX/DY) of a shortest path's first step, or -1
+    // if the goal is unreachable, blocked, or equal to the start
+    public int firstMove(int startX, int startY, int goalX, int goalY) {
+        int source = startY * width + startX;
+        long begin = entry(source);
+        long end = entry(source + 1);
+        if (begin == end || (startX == goalX && startY == goalY) || !grid.isWalkable(goalX, goalY)) {
+            return -1;
+        }
+        long code = morton(goalX, goalY);
+        // Last run whose start code is <= the goal's code
+        long lo = begin, hi = end - 1;
+        while (lo < hi) {
+            long mid = (lo + hi + 1) >>> 1;
+            if ((entry(mid) >>> 4) <= code) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int move = (int) (entry(lo) & 0xF);
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    // Walks the first moves from start to goal; null if unreachable
+    public GridPath findPath(int startX, int startY, int goalX, int goalY) {
+        if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+            return null;
+        }
+        if (startX == goalX && startY == goalY) {
+            return new GridPath(width, new int[]{startY * width + startX}, 0);
+        }
+        int[] turns = new int[16];
+        int count = 0;
+        turns[count++] = startY * width + startX;
+        int x = startX, y = startY;
+        int cost = 0;
+        int previous = -1;
+        int steps = 0;
+        while (x != goalX || y != goalY) {
+            int d = firstMove(x, y, goalX, goalY);
+            if (d < 0 || ++steps > width * height) {
+                return null;
+            }
+            if (d != previous && previous >= 0) {
+                if (count == turns.length) {
+                    turns = Arrays.copyOf(turns, count * 2);
+                }
+                turns[count++] = y * width + x;
+            }
+            x += AstarAlgorithm.DX[d];
+            y += AstarAlgorithm.DY[d];
+            cost += AstarAlgorithm.STEP_COST[d];
+            previous = d;
+        }
+        if (count == turns.length) {
+            turns = Arrays.copyOf(turns, count + 1);
+        }
+        turns[count++] = goalY * width + goalX;
+        return new GridPath(width, Arrays.copyOf(turns, count), cost / 10.0);
+    }
+
+    // Number of run entries over all sources
+    public long runCount() {
+        return entryCount - (width * height + 1L);
+    }
+
+    public long sizeBytes() {
+        return HEADER_BYTES + entryCount * 8;
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(regions, null);
+        Arrays.fill(longs, null);
+        file.close();
+    }
+
+    private long entry(long index) {
+        return longs[(int) (index >>> REGION_SHIFT)].get((int) (index & ((1L << REGION_SHIFT) - 1)));
+    }
+
+    // Cells sorted by Morton code
+    private static int[] mortonOrder(int width, int height) {
+        long[] keyed = new long[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                keyed[y * width + x] = ((long) morton(x, y) << 32) | (y * width + x);
+            }
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[keyed.length];
+        for (int i = 0; i < keyed.length; i++) {
+            order[i] = (int) keyed[i];
+        }
+        return order;
+    }
+
+    // Interleaves the bits of x (even positions) and y (odd positions)
+    static int morton(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static int spread(int v) {
+        v &= 0xFFFF;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+
+    private static long writeLongs(FileChannel channel, long position, long[] values) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asLongBuffer().put(values);
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += channel.write(buffer, position + written);
+        }
+        return written;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.pathfinding;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.util.AttributeSet;
+import android.view.View;
+
+import androidx.annotation.Nullable;
+
+// Transparent layer over the map ImageView that draws the current path.
+// The map bitmap is never copied or modified: the path's waypoints are mapped
+// through the same image matrix scaleanddrag applies to the map and drawn as one
+// batched drawLines call, so a redraw costs O(waypoints) instead of O(map pixels).
+public class PathOverlayView extends View {
+    private final Paint linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint markerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Matrix imageMatrix = new Matrix();
+    private final Matrix drawMatrix = new Matrix();
+
+    private float[] mapPoints = new float[0];    // segment endpoints in map pixels
+    private float[] screenPoints = new float[0]; // same, mapped to view coordinates
+    private int pointCount;
+    private float contentScaleX = 1f, contentScaleY = 1f;
+
+    public PathOverlayView(Context context) {
+        this(context, null);
+    }
+
+    public PathOverlayView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        float density = context.getResources().getDisplayMetrics().density;
+        linePaint.setColor(Color.RED);
+        linePaint.setStrokeWidth(2 * density);
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+        markerPaint.setColor(Color.RED);
+        markerPaint.setStyle(Paint.Style.FILL);
+    }
+
+    // Ratio between the drawable's intrinsic size and the map bitmap, in case the
+    // ImageView's drawable is density scaled
+    public void setContentScale(float scaleX, float scaleY) {
+        contentScaleX = scaleX;
+        contentScaleY = scaleY;
+        invalidate();
+    }
+
+    // Called whenever the map's image matrix changes (drag, zoom, reset)
+    public void setImageMatrix(Matrix matrix) {
+        imageMatrix.set(matrix);
+        invalidate();
+    }
+
+    public void setPath(@Nullable GridPath path) {
+        if (path == null || path.waypointCount() == 0) {
+            clearPath();
+            return;
+        }
+        int segments = Math.max(path.waypointCount() - 1, 1);
+        if (mapPoints.length < segments * 4) {
+            mapPoints = new float[segments * 4];
+            screenPoints = new float[segments * 4];
+        }
+        int n = 0;
+        if (path.waypointCount() == 1) {
+            float x = path.waypointX(0) + 0.5f;
+            float y = path.waypointY(0) + 0.5f;
+            mapPoints[n++] = x;
+            mapPoints[n++] = y;
+            mapPoints[n++] = x;
+            mapPoints[n++] = y;
+        }
+        for (int i = 0; i + 1 < path.waypointCount(); i++) {
+            // Cell centres, so the line runs through the middle of each cell
+            mapPoints[n++] = path.waypointX(i) + 0.5f;
+            mapPoints[n++] = path.waypointY(i) + 0.5f;
+            mapPoints[n++] = path.waypointX(i + 1) + 0.5f;
+            mapPoints[n++] = path.waypointY(i + 1) + 0.5f;
+        }
+        pointCount = n;
+        invalidate();
+    }
+
+    public void clearPath() {
+        pointCount = 0;
+        invalidate();
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (pointCount == 0) {
+            return;
+        }
+        drawMatrix.set(imageMatrix);
+        drawMatrix.preScale(contentScaleX, contentScaleY);
+        drawMatrix.mapPoints(screenPoints, 0, mapPoints, 0, pointCount / 2);
+
+        canvas.drawLines(screenPoints, 0, pointCount, linePaint);
+
+        float radius = linePaint.getStrokeWidth() * 2;
+        canvas.drawCircle(screenPoints[0], screenPoints[1], radius, markerPaint);
+        canvas.drawCircle(screenPoints[pointCount - 2], screenPoints[pointCount - 1], radius, markerPaint);
+    }
+}
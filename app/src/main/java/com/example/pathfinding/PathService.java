@@ -0,0 +1,331 @@
+package com.example.pathfinding;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Thread-safe path queries over one map.
+// The grid and the jump points must not change once the service is built; every
+// query runs on the executor with a SearchContext of its own, borrowed from a pool
+// so threads never share search state. Queries submitted on the same channel
+// supersede each other: the previous one is cancelled and stops within a few
+// hundred expansions, releasing its pooled state.
+// With a ClearanceMap, queries may also ask for a minimum clearance so agents of
+// any size share the one preprocessed map.
+public class PathService {
+
+    public enum Engine { ASTAR, JPS, THETA, TERRAIN, FRINGE }
+
+    // Expansions between checks of a query's cancelled flag
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final JpsGrid grid;
+    private final JumpPointPreprocessor jumpPoints; // null: JPS runs online instead
+    private volatile OnlineJps onlineJps;           // jump cache, created by the first online JPS query
+    private volatile MoveMasks moveMasks;           // legal moves per cell, created by the first ASTAR query
+    private final ThetaStarSearch thetaStar;
+    private final CostGrid costs;                   // null when TERRAIN is not available
+    private final ClearanceMap clearance;           // null when only clearance 1 is available
+    private volatile GoalBounds goalBounds;         // optional pruning for ASTAR, built offline
+    private volatile RegionPruning regionPruning;   // optional dead-end and swamp pruning
+    private volatile LatencyHistogram[] latency;    // optional: per engine, queue wait then run time
+    private final ConcurrentLinkedQueue<TerrainSearch> terrainSearches = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<FringeSearch> fringeSearches = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<SearchContext> contexts = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Query> latestByChannel = new ConcurrentHashMap<>();
+
+    public PathService(JpsGrid grid, JumpPointPreprocessor jumpPoints, ExecutorService executor) {
+        this(grid, jumpPoints, null, executor);
+    }
+
+    public PathService(JpsGrid grid, JumpPointPreprocessor jumpPoints, CostGrid costs,
+                       ExecutorService executor) {
+        this(grid, jumpPoints, costs, null, executor);
+    }
+
+    public PathService(JpsGrid grid, JumpPointPreprocessor jumpPoints, CostGrid costs,
+                       ClearanceMap clearance, ExecutorService executor) {
+        this.grid = grid;
+        this.costs = costs;
+        this.clearance = clearance;
+        this.jumpPoints = jumpPoints;
+        this.thetaStar = new ThetaStarSearch(grid);
+        this.executor = executor;
+    }
+
+    // Virtual threads where the runtime has them (JDK 21+), otherwise a fixed pool
+    // of daemon threads, one per core
+    public static ExecutorService defaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            final AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                    new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "path-query-" + count.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+        }
+    }
+
+    // Installs goal bounding tables for this service's grid; ASTAR queries at
+    // clearance 1 use them from then on
+    public void setGoalBounds(GoalBounds bounds) {
+        if (bounds != null && (bounds.width != grid.width || bounds.height != grid.height)) {
+            throw new IllegalArgumentException("Goal bounds were built for a different grid");
+        }
+        this.goalBounds = bounds;
+    }
+
+    // Installs dead-end and swamp pruning for this service's grid; ASTAR, THETA
+    // and FRINGE queries at clearance 1 search its per-query view from then on. Goal bounds,
+    // when installed, already prune harder and take precedence for ASTAR.
+    public void setRegionPruning(RegionPruning pruning) {
+        if (pruning != null && pruning.regionOf.length != grid.width * grid.height) {
+            throw new IllegalArgumentException("Region pruning was built for a different grid");
+        }
+        this.regionPruning = pruning;
+    }
+
+    // Records queue wait and run time of every submitted query under this map's
+    // name; null stops recording. Handles from begin() are timed by their caller.
+    // The histograms are looked up here once, so recording a query is only the
+    // histogram updates.
+    public void setLatencyRecorder(LatencyRecorder recorder, String mapName) {
+        if (recorder == null) {
+            this.latency = null;
+            return;
+        }
+        Engine[] engines = Engine.values();
+        LatencyHistogram[] histograms = new LatencyHistogram[engines.length * 2];
+        for (Engine engine : engines) {
+            histograms[engine.ordinal() * 2] = recorder.histogram(mapName, engine.name(),
+                    LatencyRecorder.Kind.QUEUE_WAIT);
+            histograms[engine.ordinal() * 2 + 1] = recorder.histogram(mapName, engine.name(),
+                    LatencyRecorder.Kind.QUERY);
+        }
+        this.latency = histograms;
+    }
+
+    public boolean hasJumpPoints() {
+        return jumpPoints != null;
+    }
+
+    public CompletableFuture<GridPath> submit(Engine engine, int startX, int startY, int goalX, int goalY) {
+        return submit(null, engine, startX, startY, goalX, goalY);
+    }
+
+    // A non-null channel cancels whatever query was last submitted on it
+    public CompletableFuture<GridPath> submit(String channel, Engine engine,
+                                              int startX, int startY, int goalX, int goalY) {
+        return submit(channel, engine, 1, startX, startY, goalX, goalY);
+    }
+
+    // requiredClearance 1 is any walkable cell; larger values need a ClearanceMap.
+    // JPS only supports 1, since its jump points were computed for the plain grid.
+    public CompletableFuture<GridPath> submit(final String channel, final Engine engine,
+                                              final int requiredClearance,
+                                              final int startX, final int startY,
+                                              final int goalX, final int goalY) {
+        checkEngine(engine, requiredClearance);
+        final Query query = new Query();
+        if (channel != null) {
+            Query previous = latestByChannel.put(channel, query);
+            if (previous != null) {
+                previous.cancel();
+            }
+        }
+        final long submitted = System.nanoTime();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    if (query.cancelled.get()) {
+                        return;
+                    }
+                    long started = System.nanoTime();
+                    GridPath path = runQuery(engine, requiredClearance, startX, startY, goalX, goalY,
+                            query.cancelled);
+                    if (!query.cancelled.get()) {
+                        LatencyHistogram[] histograms = latency;
+                        if (histograms != null) {
+                            histograms[engine.ordinal() * 2].record(started - submitted);
+                            histograms[engine.ordinal() * 2 + 1].record(System.nanoTime() - started);
+                        }
+                        query.future.complete(path);
+                    }
+                } catch (Throwable t) {
+                    query.future.completeExceptionally(t);
+                } finally {
+                    if (channel != null) {
+                        latestByChannel.remove(channel, query);
+                    }
+                }
+            }
+        });
+        return query.future;
+    }
+
+    // Starts a query as a handle the caller steps itself, e.g. a few milliseconds
+    // per frame through a SearchScheduler. Pooled search state returns to the
+    // service when the handle finishes or is cancelled.
+    public SearchHandle begin(Engine engine, int requiredClearance,
+                              int startX, int startY, int goalX, int goalY) {
+        checkEngine(engine, requiredClearance);
+        return start(engine, requiredClearance, startX, startY, goalX, goalY, null);
+    }
+
+    private void checkEngine(Engine engine, int requiredClearance) {
+        if (requiredClearance > 1 && clearance == null) {
+            throw new IllegalStateException("No clearance map");
+        }
+        if (requiredClearance > 1 && engine == Engine.JPS) {
+            throw new IllegalArgumentException("JPS jump points only cover clearance 1");
+        }
+        if (engine == Engine.TERRAIN && costs == null) {
+            throw new IllegalStateException("No terrain cost grid");
+        }
+    }
+
+    // Cancels the pending query on a channel, if any
+    public void cancel(String channel) {
+        Query query = latestByChannel.remove(channel);
+        if (query != null) {
+            query.cancel();
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private GridPath runQuery(Engine engine, int requiredClearance, int startX, int startY,
+                              int goalX, int goalY, AtomicBoolean cancelled) {
+        SearchHandle search = start(engine, requiredClearance, startX, startY, goalX, goalY, cancelled);
+        try {
+            // In slices, so engines that never read the context's cancel flag
+            // (preprocessed JPS, TERRAIN, FRINGE) stop as well
+            while (!search.step(CANCEL_CHECK_INTERVAL)) {
+                if (cancelled.get()) {
+                    search.cancel();
+                }
+            }
+            return search.result();
+        } finally {
+            search.cancel(); // no-op once done; releases pooled state if the search threw
+        }
+    }
+
+    private SearchHandle start(Engine engine, int requiredClearance, int startX, int startY,
+                               int goalX, int goalY, AtomicBoolean cancelled) {
+        if (engine == Engine.JPS && jumpPoints != null) {
+            // JPS keeps its per-query state in its own maps; the jump point table is read-only
+            return jumpPoints.begin(new JpsNode(startX, startY), new JpsNode(goalX, goalY));
+        }
+        if (engine == Engine.TERRAIN) {
+            TerrainSearch pooled = terrainSearches.poll();
+            final TerrainSearch search = pooled != null ? pooled : new TerrainSearch(costs);
+            SearchHandle handle = search.begin(startX, startY, goalX, goalY, clearance, requiredClearance);
+            handle.setOnDone(() -> terrainSearches.offer(search));
+            return handle;
+        }
+        JpsGrid searchGrid = requiredClearance > 1 ? clearance.view(requiredClearance) : grid;
+        GoalBounds bounds = searchGrid == grid ? goalBounds : null;
+        RegionPruning pruning = regionPruning;
+        if (searchGrid == grid && pruning != null && (engine != Engine.ASTAR || bounds == null)) {
+            searchGrid = pruning.view(startX, startY, goalX, goalY);
+        }
+        if (engine == Engine.FRINGE) {
+            // Fringe keeps its state in its own arrays rather than a SearchContext
+            FringeSearch pooledFringe = fringeSearches.poll();
+            final FringeSearch search = pooledFringe != null ? pooledFringe : new FringeSearch(grid);
+            SearchHandle handle = search.begin(searchGrid, startX, startY, goalX, goalY);
+            handle.setOnDone(() -> fringeSearches.offer(search));
+            return handle;
+        }
+        SearchContext pooled = contexts.poll();
+        final SearchContext ctx = pooled != null ? pooled : new SearchContext(grid.width * grid.height);
+        ctx.setCancelFlag(cancelled);
+        SearchHandle handle;
+        try {
+            if (engine == Engine.JPS) {
+                // Not preprocessed: jumps are found online and cached for later queries
+                handle = onlineJps().begin(startX, startY, goalX, goalY, ctx);
+            } else if (engine == Engine.THETA) {
+                ThetaStarSearch search = searchGrid == grid ? thetaStar : new ThetaStarSearch(searchGrid);
+                handle = search.begin(new JpsNode(startX, startY), new JpsNode(goalX, goalY), ctx);
+            } else {
+                handle = AstarAlgorithm.begin(searchGrid, startX, startY, goalX, goalY, ctx, bounds,
+                        searchGrid == grid ? moveMasks() : null);
+            }
+        } catch (RuntimeException e) {
+            ctx.setCancelFlag(null);
+            contexts.offer(ctx);
+            throw e;
+        }
+        handle.setOnDone(() -> {
+            ctx.setCancelFlag(null);
+            contexts.offer(ctx);
+        });
+        return handle;
+    }
+
+    private OnlineJps onlineJps() {
+        OnlineJps online = onlineJps;
+        if (online == null) {
+            synchronized (this) {
+                online = onlineJps;
+                if (online == null) {
+                    online = new OnlineJps(grid);
+                    onlineJps = online;
+                }
+            }
+        }
+        return online;
+    }
+
+    private MoveMasks moveMasks() {
+        MoveMasks moves = moveMasks;
+        if (moves == null) {
+            synchronized (this) {
+                moves = moveMasks;
+                if (moves == null) {
+                    moves = new MoveMasks(grid);
+                    moveMasks = moves;
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static final class Query {
+        final CompletableFuture<GridPath> future = new CompletableFuture<>();
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        Query() {
+            // Callers may cancel the future directly as well
+            future.whenComplete((path, error) -> {
+                if (future.isCancelled()) {
+                    cancelled.set(true);
+                }
+            });
+        }
+
+        void cancel() {
+            cancelled.set(true);
+            future.cancel(false);
+        }
+    }
+}
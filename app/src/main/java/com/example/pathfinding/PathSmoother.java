@@ -0,0 +1,83 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+
+// String pulling for any engine's GridPath.
+// The path is expanded to its cells; from each waypoint the smoother keeps the
+// farthest later cell it can still see and drops everything in between, so the
+// result is a few straight segments a robot can follow directly. Candidates are
+// tested a window at a time with LineOfSight's batched check. Since the line of
+// sight covers every cell a segment touches, a shortcut never crosses a blocked
+// cell or a diagonal gap. LineOfSight is stricter than the engines, which may
+// squeeze diagonally past a corner, so when nothing beyond the input segment is
+// visible the smoother keeps that segment's end instead: the result never has
+// more waypoints than the input, and such a segment is as legal as the engine
+// made it. The cost is the Euclidean length, with sqrt(2) diagonals, so it can
+// read slightly above an A* cost that uses 1.4.
+final class PathSmoother {
+    private static final int WINDOW = 64; // candidates tested per batch
+
+    private PathSmoother() {
+    }
+
+    public static GridPath smooth(JpsGrid grid, GridPath path) {
+        if (path == null || path.waypointCount() <= 2) {
+            return path;
+        }
+        int width = grid.width;
+        int[] cells = new int[path.cellCount()];
+        PrimitiveIterator.OfInt it = path.cellIterator();
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = it.nextInt();
+        }
+        int last = cells.length - 1;
+        // segmentEnd[i]: position in cells of the first input waypoint after cell i
+        int[] segmentEnd = new int[cells.length];
+        for (int w = 1, i = 0; w < path.waypointCount(); w++) {
+            int end = i + Math.max(Math.abs(path.waypointX(w) - path.waypointX(w - 1)),
+                    Math.abs(path.waypointY(w) - path.waypointY(w - 1)));
+            for (; i < end; i++) {
+                segmentEnd[i] = end;
+            }
+        }
+
+        int[] from = new int[WINDOW];
+        boolean[] visible = new boolean[WINDOW];
+        int[] waypoints = new int[16];
+        int count = 0;
+        waypoints[count++] = cells[0];
+        double cost = 0;
+        int anchor = 0;
+        while (anchor < last) {
+            Arrays.fill(from, cells[anchor]);
+            int next = segmentEnd[anchor]; // a segment squeezing past a corner may not be "visible"
+            for (int begin = anchor + 1; begin <= last; begin += WINDOW) {
+                int n = Math.min(WINDOW, last - begin + 1);
+                LineOfSight.between(grid, from, Arrays.copyOfRange(cells, begin, begin + n), n, visible);
+                int farthest = -1;
+                for (int k = n - 1; k >= 0; k--) {
+                    if (visible[k]) {
+                        farthest = begin + k;
+                        break;
+                    }
+                }
+                if (farthest > next) {
+                    next = farthest;
+                }
+                if (farthest != begin + n - 1) {
+                    break; // sight is lost inside this window
+                }
+            }
+            if (count == waypoints.length) {
+                waypoints = Arrays.copyOf(waypoints, count * 2);
+            }
+            waypoints[count++] = cells[next];
+            int dx = cells[next] % width - cells[anchor] % width;
+            int dy = cells[next] / width - cells[anchor] / width;
+            cost += Math.sqrt(dx * dx + dy * dy);
+            anchor = next;
+        }
+        return new GridPath(width, Arrays.copyOf(waypoints, count), cost);
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// JpsGrid stored as a region quadtree with bitmap leaves, for mostly open maps.
+// The map is padded to a power-of-two square; every node is either uniform (all
+// free or all blocked, no storage below it), split into four children, or, at
+// 8 x 8 cells, a leaf holding its cells in one long. Large open or solid areas
+// therefore cost a single reference instead of a bit per cell.
+//
+// Node references are ints: FREE and BLOCKED for uniform nodes, >= 0 for a split
+// node (its children are children[ref * 4 .. ref * 4 + 3], quadrant order NW, NE,
+// SW, SE), and <= LEAF_BASE for leaf bitmaps. Lookups descend by consuming the
+// cell's Morton code two bits per level. Updates split and re-merge nodes on the
+// way, so the tree stays minimal. Cells outside width x height are blocked.
+public class QuadtreeGrid extends JpsGrid {
+    static final int FREE = -1;
+    static final int BLOCKED = -2;
+    static final int LEAF_BASE = -3; // leaf i is referenced as LEAF_BASE - i
+    private static final int LEAF_SHIFT = 3;
+    private static final int LEAF = 1 << LEAF_SHIFT;
+
+    private final int side;      // padded size, a power of two >= LEAF
+    private final int rootShift; // 2 * log2(side): Morton bits below the root's split
+    private int root = BLOCKED;
+
+    private int[] children = new int[64];
+    private int nodeCount;                 // ids handed out so far
+    private int[] freeNodes = new int[16];
+    private int freeNodeCount;
+    private long[] leaves = new long[16];
+    private int leafCount;
+    private int[] freeLeaves = new int[16];
+    private int freeLeafCount;
+
+    // An all-blocked grid, like new JpsGrid(width, height)
+    public QuadtreeGrid(int width, int height) {
+        super(width, height, false);
+        if (width > 0x8000 || height > 0x8000) {
+            throw new IllegalArgumentException("Quadtree grid needs width and height up to 32768");
+        }
+        int s = LEAF;
+        while (s < width || s < height) {
+            s <<= 1;
+        }
+        this.side = s;
+        this.rootShift = 2 * Integer.numberOfTrailingZeros(s);
+    }
+
+    public static QuadtreeGrid copyOf(JpsGrid source) {
+        QuadtreeGrid tree = new QuadtreeGrid(source.width, source.height);
+        tree.root = tree.build(source, 0, 0, tree.side);
+        return tree;
+    }
+
+    @Override
+    public boolean isWalkable(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return false;
+        }
+        int code = PathDatabase.morton(x, y);
+        int ref = root;
+        int shift = rootShift;
+        while (ref >= 0) {
+            shift -= 2;
+            ref = children[(ref << 2) | ((code >>> shift) & 3)];
+        }
+        if (ref == FREE || ref == BLOCKED) {
+            return ref == FREE;
+        }
+        return (leaves[LEAF_BASE - ref] >>> (((y & 7) << 3) | (x & 7)) & 1) != 0;
+    }
+
+    @Override
+    public void setWalkable(int x, int y, boolean walkable) {
+        if (!isInBounds(x, y)) {
+            throw new IndexOutOfBoundsException("Cell (" + x + ", " + y + ") is outside the grid");
+        }
+        root = set(root, side, x, y, walkable);
+    }
+
+    @Override
+    long word(int y, int w) {
+        long word = 0;
+        int x0 = w << 6;
+        for (int b = 0; b < 8; b++) {
+            int x = x0 + (b << LEAF_SHIFT);
+            if (x >= side) {
+                break;
+            }
+            word |= (long) blockRow(x, y) << (b << LEAF_SHIFT);
+        }
+        return word;
+    }
+
+    @Override
+    void setWord(int y, int w, long value) {
+        long diff = word(y, w) ^ value;
+        int valid = width - (w << 6);
+        if (valid < 64) {
+            diff &= (1L << valid) - 1; // bits past the right edge stay blocked
+        }
+        for (; diff != 0; diff &= diff - 1) {
+            int bit = Long.numberOfTrailingZeros(diff);
+            setWalkable((w << 6) + bit, y, (value >>> bit & 1) != 0);
+        }
+    }
+
+    @Override
+    public boolean isRowRangeWalkable(int y, int x0, int x1) {
+        return isBlockFree(Math.min(x0, x1), y, Math.max(x0, x1), y);
+    }
+
+    // True when every cell of the rectangle (inclusive bounds) is walkable.
+    // Uniform free nodes answer for their whole area at once.
+    public boolean isBlockFree(int x0, int y0, int x1, int y1) {
+        if (x0 > x1 || y0 > y1 || x0 < 0 || y0 < 0 || x1 >= width || y1 >= height) {
+            return false;
+        }
+        return blockFree(root, 0, 0, side, x0, y0, x1, y1);
+    }
+
+    // Side of the largest aligned free square (a uniform quadtree node) holding
+    // (x, y); 0 if the cell is blocked. Its corner is (x & -size, y & -size), so a
+    // search can cross it in one step instead of cell by cell.
+    public int freeSquareSize(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return 0;
+        }
+        int code = PathDatabase.morton(x, y);
+        int ref = root;
+        int shift = rootShift;
+        while (ref >= 0) {
+            shift -= 2;
+            ref = children[(ref << 2) | ((code >>> shift) & 3)];
+        }
+        if (ref == FREE) {
+            // Padding outside the map is blocked, so a free node lies within it
+            return 1 << (shift >>> 1);
+        }
+        return isWalkable(x, y) ? 1 : 0;
+    }
+
+    public int nodeCount() {
+        return nodeCount - freeNodeCount;
+    }
+
+    public int leafCount() {
+        return leafCount - freeLeafCount;
+    }
+
+    // Raw tree access for the structure tests
+    int rootRef() {
+        return root;
+    }
+
+    int child(int ref, int quadrant) {
+        return children[(ref << 2) | quadrant];
+    }
+
+    long leafBits(int ref) {
+        return leaves[LEAF_BASE - ref];
+    }
+
+    // Heap used by the tree arrays, including free capacity
+    public long sizeBytes() {
+        return children.length * 4L + leaves.length * 8L
+                + (freeNodes.length + freeLeaves.length) * 4L;
+    }
+
+    // Bits of cells x..x+7 of row y, x a multiple of 8
+    private int blockRow(int x, int y) {
+        if (y >= side) {
+            return 0;
+        }
+        int code = PathDatabase.morton(x, y);
+        int ref = root;
+        int shift = rootShift;
+        while (ref >= 0) {
+            shift -= 2;
+            ref = children[(ref << 2) | ((code >>> shift) & 3)];
+        }
+        if (ref == FREE || ref == BLOCKED) {
+            // A free node never covers padding, see build/set
+            return ref == FREE ? 0xFF : 0;
+        }
+        return (int) (leaves[LEAF_BASE - ref] >>> ((y & 7) << 3)) & 0xFF;
+    }
+
+    private boolean blockFree(int ref, int nx, int ny, int size,
+                              int x0, int y0, int x1, int y1) {
+        if (nx > x1 || ny > y1 || nx + size <= x0 || ny + size <= y0) {
+            return true; // no overlap
+        }
+        if (ref == FREE || ref == BLOCKED) {
+            return ref == FREE;
+        }
+        if (ref <= LEAF_BASE) {
+            long bits = leaves[LEAF_BASE - ref];
+            int lx0 = Math.max(x0, nx) - nx, lx1 = Math.min(x1, nx + LEAF - 1) - nx;
+            long rowMask = ((1L << (lx1 + 1)) - 1) & -(1L << lx0);
+            for (int ly = Math.max(y0, ny) - ny; ly <= Math.min(y1, ny + LEAF - 1) - ny; ly++) {
+                long mask = rowMask << (ly << 3);
+                if ((bits & mask) != mask) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        int half = size >> 1;
+        int c = ref << 2;
+        return blockFree(children[c], nx, ny, half, x0, y0, x1, y1)
+                && blockFree(children[c + 1], nx + half, ny, half, x0, y0, x1, y1)
+                && blockFree(children[c + 2], nx, ny + half, half, x0, y0, x1, y1)
+                && blockFree(children[c + 3], nx + half, ny + half, half, x0, y0, x1, y1);
+    }
+
+    // Bottom-up construction from a packed grid
+    private int build(JpsGrid source, int nx, int ny, int size) {
+        if (nx >= width || ny >= height) {
+            return BLOCKED;
+        }
+        if (size == LEAF) {
+            long bits = 0;
+            int validX = Math.min(LEAF, width - nx);
+            int rowMask = (1 << validX) - 1;
+            for (int ly = 0; ly < LEAF && ny + ly < height; ly++) {
+                long row = source.word(ny + ly, nx >>> 6) >>> (nx & 63);
+                bits |= (row & rowMask) << (ly << 3);
+            }
+            return leafRef(bits);
+        }
+        int half = size >> 1;
+        int nw = build(source, nx, ny, half);
+        int ne = build(source, nx + half, ny, half);
+        int sw = build(source, nx, ny + half, half);
+        int se = build(source, nx + half, ny + half, half);
+        if (nw == ne && nw == sw && nw == se && (nw == FREE || nw == BLOCKED)) {
+            return nw;
+        }
+        int ref = newNode();
+        int c = ref << 2;
+        children[c] = nw;
+        children[c + 1] = ne;
+        children[c + 2] = sw;
+        children[c + 3] = se;
+        return ref;
+    }
+
+    // Sets one cell below `ref` (a node of the given size containing it) and
+    // returns the node's new reference, splitting or merging as needed
+    private int set(int ref, int size, int x, int y, boolean walkable) {
+        if (ref == (walkable ? FREE : BLOCKED)) {
+            return ref;
+        }
+        if (size == LEAF) {
+            long bits = ref == FREE ? -1L : ref == BLOCKED ? 0L : leaves[LEAF_BASE - ref];
+            long bit = 1L << (((y & 7) << 3) | (x & 7));
+            bits = walkable ? bits | bit : bits & ~bit;
+            if (ref <= LEAF_BASE) {
+                if (bits != 0 && bits != -1L) {
+                    leaves[LEAF_BASE - ref] = bits;
+                    return ref;
+                }
+                releaseLeaf(LEAF_BASE - ref);
+            }
+            return leafRef(bits);
+        }
+        if (ref < 0) {
+            // Uniform node: split into four copies of itself
+            int uniform = ref;
+            ref = newNode();
+            Arrays.fill(children, ref << 2, (ref << 2) + 4, uniform);
+        }
+        int half = size >> 1;
+        int slot = (ref << 2) | ((y & half) != 0 ? 2 : 0) | ((x & half) != 0 ? 1 : 0);
+        int child = set(children[slot], half, x, y, walkable);
+        children[slot] = child;
+        int c = ref << 2;
+        if ((child == FREE || child == BLOCKED)
+                && children[c] == child && children[c + 1] == child
+                && children[c + 2] == child && children[c + 3] == child) {
+            releaseNode(ref);
+            return child;
+        }
+        return ref;
+    }
+
+    // A uniform reference for all-free or all-blocked bits, else a new leaf.
+    // Leaves reaching past the map edge never come out all free, so padding stays blocked.
+    private int leafRef(long bits) {
+        if (bits == 0) {
+            return BLOCKED;
+        }
+        if (bits == -1L) {
+            return FREE;
+        }
+        int i;
+        if (freeLeafCount > 0) {
+            i = freeLeaves[--freeLeafCount];
+        } else {
+            if (leafCount == leaves.length) {
+                leaves = Arrays.copyOf(leaves, leafCount * 2);
+            }
+            i = leafCount++;
+        }
+        leaves[i] = bits;
+        return LEAF_BASE - i;
+    }
+
+    private void releaseLeaf(int i) {
+        if (freeLeafCount == freeLeaves.length) {
+            freeLeaves = Arrays.copyOf(freeLeaves, freeLeafCount * 2);
+        }
+        freeLeaves[freeLeafCount++] = i;
+    }
+
+    private int newNode() {
+        if (freeNodeCount > 0) {
+            return freeNodes[--freeNodeCount];
+        }
+        if ((nodeCount + 1) * 4 > children.length) {
+            children = Arrays.copyOf(children, children.length * 2);
+        }
+        return nodeCount++;
+    }
+
+    private void releaseNode(int ref) {
+        if (freeNodeCount == freeNodes.length) {
+            freeNodes = Arrays.copyOf(freeNodes, freeNodeCount * 2);
+        }
+        freeNodes[freeNodeCount++] = ref;
+    }
+}
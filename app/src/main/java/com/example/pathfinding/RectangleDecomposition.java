@@ -0,0 +1,187 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Decomposition of a JpsGrid's walkable cells into empty rectangles, for
+// Rectangular Symmetry Reduction (RsrSearch).
+// Built greedily in row-major order: each unassigned walkable cell starts a
+// rectangle that grows right as far as it can, then down while the whole row
+// segment is free, using JpsGrid's word-at-a-time row checks. Storage is one int
+// per cell (its rectangle id, -1 when blocked) plus four ints per rectangle.
+// Changing a cell dissolves only the rectangle that contained it and decomposes
+// that area again; other rectangles are untouched. An opened cell starts as a
+// rectangle of its own and is then merged with any neighbour of the same row or
+// column span, repeatedly, so opening a strip cell by cell still ends as one
+// rectangle.
+public class RectangleDecomposition {
+    static final int NONE = -1;
+
+    private final JpsGrid grid;
+    final int[] rectOf;
+    int[] x0 = new int[64], y0 = new int[64], x1 = new int[64], y1 = new int[64];
+    private int rectCapacityUsed;       // ids 0..rectCapacityUsed-1 have been handed out
+    private int[] freeIds = new int[16]; // dissolved ids, reused first
+    private int freeCount;
+    private final JpsGrid unassigned;   // walkable cells not yet in a rectangle
+
+    public RectangleDecomposition(JpsGrid grid) {
+        this.grid = grid;
+        this.rectOf = new int[grid.width * grid.height];
+        Arrays.fill(rectOf, NONE);
+        this.unassigned = new JpsGrid(grid.width, grid.height);
+        for (int y = 0; y < grid.height; y++) {
+            for (int w = 0; w < grid.wordsPerRow; w++) {
+                unassigned.bits[y * unassigned.wordsPerRow + w] = grid.word(y, w);
+            }
+        }
+        decompose(0, 0, grid.width - 1, grid.height - 1);
+    }
+
+    public int rectangleCount() {
+        return rectCapacityUsed - freeCount;
+    }
+
+    public int rectangleAt(int x, int y) {
+        return rectOf[y * grid.width + x];
+    }
+
+    // True for cells that are not on their rectangle's border
+    boolean isInterior(int cell) {
+        int r = rectOf[cell];
+        if (r == NONE) {
+            return false;
+        }
+        int x = cell % grid.width;
+        int y = cell / grid.width;
+        return x > x0[r] && x < x1[r] && y > y0[r] && y < y1[r];
+    }
+
+    // Changes a cell of the grid and repairs the decomposition around it
+    public void setWalkable(int x, int y, boolean walkable) {
+        if (grid.isWalkable(x, y) == walkable) {
+            return;
+        }
+        grid.setWalkable(x, y, walkable);
+        int cell = y * grid.width + x;
+        int r = rectOf[cell];
+        if (r == NONE) {
+            // Newly opened cell: a rectangle of its own, merged into its neighbours
+            unassigned.setWalkable(x, y, true);
+            decompose(x, y, x, y);
+            mergeAround(rectOf[cell]);
+            return;
+        }
+        int rx0 = x0[r], ry0 = y0[r], rx1 = x1[r], ry1 = y1[r];
+        for (int cy = ry0; cy <= ry1; cy++) {
+            for (int cx = rx0; cx <= rx1; cx++) {
+                rectOf[cy * grid.width + cx] = NONE;
+                unassigned.setWalkable(cx, cy, grid.isWalkable(cx, cy));
+            }
+        }
+        releaseId(r);
+        decompose(rx0, ry0, rx1, ry1);
+    }
+
+    // Greedy decomposition of the unassigned cells inside the given bounds
+    private void decompose(int bx0, int by0, int bx1, int by1) {
+        for (int y = by0; y <= by1; y++) {
+            for (int x = bx0; x <= bx1; x++) {
+                if (!unassigned.isWalkable(x, y)) {
+                    continue;
+                }
+                int right = x;
+                while (right < bx1 && unassigned.isWalkable(right + 1, y)) {
+                    right++;
+                }
+                int bottom = y;
+                while (bottom < by1 && unassigned.isRowRangeWalkable(bottom + 1, x, right)) {
+                    bottom++;
+                }
+                int r = newId();
+                x0[r] = x;
+                y0[r] = y;
+                x1[r] = right;
+                y1[r] = bottom;
+                for (int cy = y; cy <= bottom; cy++) {
+                    for (int cx = x; cx <= right; cx++) {
+                        rectOf[cy * grid.width + cx] = r;
+                        unassigned.setWalkable(cx, cy, false);
+                    }
+                }
+                x = right;
+            }
+        }
+    }
+
+    // Merges r with an adjacent rectangle covering the same rows (left, right) or
+    // columns (above, below) until none is left; the smaller one is relabelled
+    private void mergeAround(int r) {
+        int width = grid.width;
+        while (true) {
+            int n = NONE;
+            if (x0[r] > 0) {
+                n = sameSpan(r, rectOf[y0[r] * width + x0[r] - 1]);
+            }
+            if (n == NONE && x1[r] + 1 < width) {
+                n = sameSpan(r, rectOf[y0[r] * width + x1[r] + 1]);
+            }
+            if (n == NONE && y0[r] > 0) {
+                n = sameSpan(r, rectOf[(y0[r] - 1) * width + x0[r]]);
+            }
+            if (n == NONE && y1[r] + 1 < grid.height) {
+                n = sameSpan(r, rectOf[(y1[r] + 1) * width + x0[r]]);
+            }
+            if (n == NONE) {
+                return;
+            }
+            int keep = area(n) >= area(r) ? n : r;
+            int gone = keep == n ? r : n;
+            for (int cy = y0[gone]; cy <= y1[gone]; cy++) {
+                for (int cx = x0[gone]; cx <= x1[gone]; cx++) {
+                    rectOf[cy * width + cx] = keep;
+                }
+            }
+            x0[keep] = Math.min(x0[keep], x0[gone]);
+            y0[keep] = Math.min(y0[keep], y0[gone]);
+            x1[keep] = Math.max(x1[keep], x1[gone]);
+            y1[keep] = Math.max(y1[keep], y1[gone]);
+            releaseId(gone);
+            r = keep;
+        }
+    }
+
+    // n when it is a rectangle whose union with r is again a rectangle, else NONE
+    private int sameSpan(int r, int n) {
+        if (n == NONE || n == r) {
+            return NONE;
+        }
+        boolean rows = y0[n] == y0[r] && y1[n] == y1[r];
+        boolean columns = x0[n] == x0[r] && x1[n] == x1[r];
+        return rows || columns ? n : NONE;
+    }
+
+    private int area(int r) {
+        return (x1[r] - x0[r] + 1) * (y1[r] - y0[r] + 1);
+    }
+
+    private int newId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (rectCapacityUsed == x0.length) {
+            int n = rectCapacityUsed * 2;
+            x0 = Arrays.copyOf(x0, n);
+            y0 = Arrays.copyOf(y0, n);
+            x1 = Arrays.copyOf(x1, n);
+            y1 = Arrays.copyOf(y1, n);
+        }
+        return rectCapacityUsed++;
+    }
+
+    private void releaseId(int r) {
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = r;
+    }
+}
@@ -0,0 +1,467 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Dead-end and swamp pruning over a region decomposition of a JpsGrid.
+// Regions are the connected pieces of the walkable cells inside 16 x 16
+// sectors. Peeling leaves off the region graph leaves trees of dead-end regions
+// hanging off a core; every core region is a swamp candidate. A candidate group
+// (a dead-end region with everything behind it, or one core region) is pruned
+// only if, between any two cells just outside it, the shortest way around is no
+// longer than the shortest way through it, measured on the map with the groups
+// pruned so far already removed. Pruning therefore never makes a path longer:
+// a path through a pruned group can always be rerouted at the same cost.
+//
+// view(start, goal) is the drop-in filter: a JpsGrid that hides the pruned
+// groups except those holding the start or the goal, so any engine that
+// searches a JpsGrid skips them during successor generation. The pruned cells
+// are packed once into a bitset in the grid's word layout, and each group's
+// share of it into a sorted list of (word, mask) pairs, so a view's word() is
+// the base word with the pruned bits cleared, minus the two kept groups' masks.
+// Moves and costs are AstarAlgorithm's. Preprocessing is sequential and meant
+// to run once per map.
+public class RegionPruning {
+    private static final int SECTOR_SHIFT = 4;
+    private static final int MAX_ENTRIES = 256; // larger groups are never pruned
+    static final int NONE = -1;
+
+    private final JpsGrid grid;
+    final int[] regionOf;      // per cell, NONE when blocked
+    private int regionCount;
+    private int[] groupOf;     // per region: NONE, or the id of the pruned group it belongs to
+    private int[] treeParent;  // per region: neighbour it hangs off, NONE for core regions
+    private int deadEndGroups, swampGroups;
+
+    // Pruned cells packed like JpsGrid.bits; per group (indexed by group id),
+    // the words it covers in ascending order and its bits in each
+    private long[] prunedBits;
+    private int[] groupWordStart, groupWords;
+    private long[] groupMasks;
+
+    // Region cells and adjacency in compressed form
+    private int[] cellStart, cellList;
+    private int[] adjStart, adjList;
+
+    // Scratch for the redundancy test
+    private final int[] distIn, stampIn, distOut, stampOut, entryStamp;
+    private int[] groupStamp;
+    private int generation, groupGeneration;
+    private final LongMinHeap open = new LongMinHeap(256);
+
+    public RegionPruning(JpsGrid grid) {
+        this.grid = grid;
+        int cells = grid.width * grid.height;
+        regionOf = new int[cells];
+        distIn = new int[cells];
+        stampIn = new int[cells];
+        distOut = new int[cells];
+        stampOut = new int[cells];
+        entryStamp = new int[cells];
+        buildRegions();
+        buildAdjacency();
+        groupOf = new int[regionCount];
+        Arrays.fill(groupOf, NONE);
+        groupStamp = new int[regionCount];
+        int[] peelOrder = peel();
+        pruneDeadEnds(peelOrder);
+        pruneSwamps();
+        packPrunedCells();
+    }
+
+    public int regionCount() {
+        return regionCount;
+    }
+
+    public int deadEndGroupCount() {
+        return deadEndGroups;
+    }
+
+    public int swampGroupCount() {
+        return swampGroups;
+    }
+
+    public int prunedCellCount() {
+        int count = 0;
+        for (int r = 0; r < regionCount; r++) {
+            if (groupOf[r] != NONE) {
+                count += cellStart[r + 1] - cellStart[r];
+            }
+        }
+        return count;
+    }
+
+    // The grid as a search for this start and goal should see it
+    public JpsGrid view(int startX, int startY, int goalX, int goalY) {
+        return new View(this, groupAt(startX, startY), groupAt(goalX, goalY));
+    }
+
+    private int groupAt(int x, int y) {
+        if (!grid.isInBounds(x, y)) {
+            return NONE;
+        }
+        int r = regionOf[y * grid.width + x];
+        return r == NONE ? NONE : groupOf[r];
+    }
+
+    // Bits of word i (in JpsGrid layout) that belong to the group, 0 for NONE
+    private long groupMask(int group, int i) {
+        if (group == NONE) {
+            return 0L;
+        }
+        int k = Arrays.binarySearch(groupWords, groupWordStart[group], groupWordStart[group + 1], i);
+        return k >= 0 ? groupMasks[k] : 0L;
+    }
+
+    // Fills prunedBits and the per-group word lists. Cells are visited in
+    // row-major order, so each group's words come out sorted.
+    private void packPrunedCells() {
+        int width = grid.width;
+        int wordsPerRow = grid.wordsPerRow;
+        prunedBits = new long[wordsPerRow * grid.height];
+        groupWordStart = new int[regionCount + 1];
+        int[] lastWord = new int[regionCount];
+        Arrays.fill(lastWord, NONE);
+        for (int cell = 0; cell < regionOf.length; cell++) {
+            int r = regionOf[cell];
+            if (r == NONE || groupOf[r] == NONE) continue;
+            int group = groupOf[r];
+            int x = cell % width;
+            int i = (cell / width) * wordsPerRow + (x >>> 6);
+            prunedBits[i] |= 1L << (x & 63);
+            if (lastWord[group] != i) {
+                lastWord[group] = i;
+                groupWordStart[group + 1]++;
+            }
+        }
+        for (int g = 0; g < regionCount; g++) {
+            groupWordStart[g + 1] += groupWordStart[g];
+        }
+        groupWords = new int[groupWordStart[regionCount]];
+        groupMasks = new long[groupWords.length];
+        int[] fill = Arrays.copyOf(groupWordStart, regionCount);
+        Arrays.fill(lastWord, NONE);
+        for (int cell = 0; cell < regionOf.length; cell++) {
+            int r = regionOf[cell];
+            if (r == NONE || groupOf[r] == NONE) continue;
+            int group = groupOf[r];
+            int x = cell % width;
+            int i = (cell / width) * wordsPerRow + (x >>> 6);
+            if (lastWord[group] != i) {
+                lastWord[group] = i;
+                groupWords[fill[group]++] = i;
+            }
+            groupMasks[fill[group] - 1] |= 1L << (x & 63);
+        }
+    }
+
+    // Flood fill inside each sector
+    private void buildRegions() {
+        int width = grid.width;
+        Arrays.fill(regionOf, NONE);
+        int[] queue = new int[1 << (2 * SECTOR_SHIFT)];
+        for (int cell = 0; cell < regionOf.length; cell++) {
+            int x = cell % width;
+            int y = cell / width;
+            if (regionOf[cell] != NONE || !grid.isWalkable(x, y)) {
+                continue;
+            }
+            int region = regionCount++;
+            int sx = x >> SECTOR_SHIFT;
+            int sy = y >> SECTOR_SHIFT;
+            int head = 0, tail = 0;
+            queue[tail++] = cell;
+            regionOf[cell] = region;
+            while (head < tail) {
+                int c = queue[head++];
+                int cx = c % width;
+                int cy = c / width;
+                for (int d = 0; d < 8; d++) {
+                    int nx = cx + AstarAlgorithm.DX[d];
+                    int ny = cy + AstarAlgorithm.DY[d];
+                    if ((nx >> SECTOR_SHIFT) != sx || (ny >> SECTOR_SHIFT) != sy
+                            || !AstarAlgorithm.canMove(grid, cx, cy, d)) {
+                        continue;
+                    }
+                    int n = ny * width + nx;
+                    if (regionOf[n] == NONE) {
+                        regionOf[n] = region;
+                        queue[tail++] = n;
+                    }
+                }
+            }
+        }
+        cellStart = new int[regionCount + 1];
+        for (int r : regionOf) {
+            if (r != NONE) cellStart[r + 1]++;
+        }
+        for (int r = 0; r < regionCount; r++) {
+            cellStart[r + 1] += cellStart[r];
+        }
+        cellList = new int[cellStart[regionCount]];
+        int[] fill = Arrays.copyOf(cellStart, regionCount);
+        for (int cell = 0; cell < regionOf.length; cell++) {
+            if (regionOf[cell] != NONE) {
+                cellList[fill[regionOf[cell]]++] = cell;
+            }
+        }
+    }
+
+    private void buildAdjacency() {
+        int width = grid.width;
+        long[] pairs = new long[64];
+        int count = 0;
+        for (int cell = 0; cell < regionOf.length; cell++) {
+            int r = regionOf[cell];
+            if (r == NONE) continue;
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = 0; d < 8; d++) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) continue;
+                int other = regionOf[(y + AstarAlgorithm.DY[d]) * width + x + AstarAlgorithm.DX[d]];
+                if (other != r) {
+                    if (count == pairs.length) pairs = Arrays.copyOf(pairs, count * 2);
+                    pairs[count++] = ((long) r << 32) | other;
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, count);
+        adjStart = new int[regionCount + 1];
+        adjList = new int[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) continue;
+            adjList[n++] = (int) pairs[i];
+            adjStart[(int) (pairs[i] >>> 32) + 1]++;
+        }
+        for (int r = 0; r < regionCount; r++) {
+            adjStart[r + 1] += adjStart[r];
+        }
+        adjList = Arrays.copyOf(adjList, n);
+    }
+
+    // Repeatedly removes regions with a single remaining neighbour; returns them
+    // in removal order and records the neighbour each one hung off
+    private int[] peel() {
+        treeParent = new int[regionCount];
+        Arrays.fill(treeParent, NONE);
+        int[] degree = new int[regionCount];
+        boolean[] removed = new boolean[regionCount];
+        int[] queue = new int[regionCount];
+        int head = 0, tail = 0;
+        for (int r = 0; r < regionCount; r++) {
+            degree[r] = adjStart[r + 1] - adjStart[r];
+            if (degree[r] == 1) queue[tail++] = r;
+        }
+        int[] order = new int[regionCount];
+        int peeled = 0;
+        while (head < tail) {
+            int r = queue[head++];
+            if (removed[r] || degree[r] != 1) continue;
+            removed[r] = true;
+            order[peeled++] = r;
+            for (int i = adjStart[r]; i < adjStart[r + 1]; i++) {
+                int other = adjList[i];
+                if (!removed[other]) {
+                    treeParent[r] = other;
+                    if (--degree[other] == 1) queue[tail++] = other;
+                }
+            }
+        }
+        return Arrays.copyOf(order, peeled);
+    }
+
+    // Nearest-to-core first, so a pruned region takes its whole branch with it
+    private void pruneDeadEnds(int[] peelOrder) {
+        int[] childStart = new int[regionCount + 1];
+        for (int r : peelOrder) childStart[treeParent[r] + 1]++;
+        for (int r = 0; r < regionCount; r++) childStart[r + 1] += childStart[r];
+        int[] children = new int[peelOrder.length];
+        int[] fill = Arrays.copyOf(childStart, regionCount);
+        for (int r : peelOrder) children[fill[treeParent[r]]++] = r;
+
+        int[] branch = new int[regionCount];
+        for (int i = peelOrder.length - 1; i >= 0; i--) {
+            int root = peelOrder[i];
+            if (groupOf[treeParent[root]] != NONE) {
+                groupOf[root] = groupOf[treeParent[root]]; // behind an already pruned region
+                continue;
+            }
+            int size = 0, head = 0;
+            branch[size++] = root;
+            while (head < size) {
+                int r = branch[head++];
+                for (int c = childStart[r]; c < childStart[r + 1]; c++) branch[size++] = children[c];
+            }
+            if (isRedundant(branch, size)) {
+                for (int k = 0; k < size; k++) groupOf[branch[k]] = root;
+                deadEndGroups++;
+            }
+        }
+    }
+
+    private void pruneSwamps() {
+        int[] single = new int[1];
+        for (int r = 0; r < regionCount; r++) {
+            if (treeParent[r] != NONE || groupOf[r] != NONE) continue;
+            single[0] = r;
+            if (isRedundant(single, 1)) {
+                groupOf[r] = r;
+                swampGroups++;
+            }
+        }
+    }
+
+    // True when no shortest path needs to pass through the given regions
+    private boolean isRedundant(int[] regions, int count) {
+        int width = grid.width;
+        if (++groupGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(groupStamp, 0);
+            groupGeneration = 1;
+        }
+        for (int k = 0; k < count; k++) groupStamp[regions[k]] = groupGeneration;
+
+        // Cells just outside the group
+        nextGeneration();
+        int[] entries = new int[16];
+        int entryCount = 0;
+        for (int k = 0; k < count; k++) {
+            int r = regions[k];
+            for (int i = cellStart[r]; i < cellStart[r + 1]; i++) {
+                int cell = cellList[i];
+                int x = cell % width, y = cell / width;
+                for (int d = 0; d < 8; d++) {
+                    int nx = x + AstarAlgorithm.DX[d], ny = y + AstarAlgorithm.DY[d];
+                    if (!grid.isWalkable(nx, ny)) continue;
+                    int n = ny * width + nx;
+                    if (groupStamp[regionOf[n]] == groupGeneration || entryStamp[n] == generation) continue;
+                    if (groupOf[regionOf[n]] != NONE || entryCount == MAX_ENTRIES) {
+                        return false; // touches a pruned group, or too big to test
+                    }
+                    entryStamp[n] = generation;
+                    if (entryCount == entries.length) entries = Arrays.copyOf(entries, entryCount * 2);
+                    entries[entryCount++] = n;
+                }
+            }
+        }
+
+        for (int e = 0; e < entryCount; e++) {
+            int a = entries[e];
+            int bound = searchThrough(a);
+            if (bound < 0) continue; // the group leads nowhere from a
+            searchAround(a, bound);
+            for (int f = 0; f < entryCount; f++) {
+                int b = entries[f];
+                if (b == a || stampIn[b] != generation) continue;
+                if (stampOut[b] != generation || distOut[b] > distIn[b]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Distances from entry a to other entries, stepping only through the group.
+    // Returns the largest one, or -1 if no other entry is reached.
+    private int searchThrough(int a) {
+        int width = grid.width;
+        nextGeneration();
+        open.clear();
+        distIn[a] = 0;
+        stampIn[a] = generation;
+        open.push(LongMinHeap.pack(0, a));
+        int bound = -1;
+        while (!open.isEmpty()) {
+            long top = open.pop();
+            int c = (int) top;
+            int dist = (int) (top >>> 32);
+            if (dist != distIn[c]) continue;
+            if (c != a && groupStamp[regionOf[c]] != groupGeneration) {
+                bound = Math.max(bound, dist); // reached an entry: do not go on from it
+                continue;
+            }
+            int x = c % width, y = c / width;
+            for (int d = 0; d < 8; d++) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) continue;
+                int n = (y + AstarAlgorithm.DY[d]) * width + x + AstarAlgorithm.DX[d];
+                // Any walkable cell next to the group is an entry; a itself only steps inward
+                if (c == a && groupStamp[regionOf[n]] != groupGeneration) continue;
+                int nd = dist + AstarAlgorithm.STEP_COST[d];
+                if (stampIn[n] != generation || nd < distIn[n]) {
+                    distIn[n] = nd;
+                    stampIn[n] = generation;
+                    open.push(LongMinHeap.pack(nd, n));
+                }
+            }
+        }
+        return bound;
+    }
+
+    // Distances from a avoiding the group and everything pruned so far, up to bound
+    private void searchAround(int a, int bound) {
+        int width = grid.width;
+        open.clear();
+        distOut[a] = 0;
+        stampOut[a] = generation;
+        open.push(LongMinHeap.pack(0, a));
+        while (!open.isEmpty()) {
+            long top = open.pop();
+            int c = (int) top;
+            int dist = (int) (top >>> 32);
+            if (dist != distOut[c]) continue;
+            int x = c % width, y = c / width;
+            for (int d = 0; d < 8; d++) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) continue;
+                int n = (y + AstarAlgorithm.DY[d]) * width + x + AstarAlgorithm.DX[d];
+                int r = regionOf[n];
+                if (groupStamp[r] == groupGeneration || groupOf[r] != NONE) continue;
+                int nd = dist + AstarAlgorithm.STEP_COST[d];
+                if (nd > bound) continue;
+                if (stampOut[n] != generation || nd < distOut[n]) {
+                    distOut[n] = nd;
+                    stampOut[n] = generation;
+                    open.push(LongMinHeap.pack(nd, n));
+                }
+            }
+        }
+    }
+
+    private void nextGeneration() {
+        if (++generation == Integer.MAX_VALUE) {
+            Arrays.fill(stampIn, 0);
+            Arrays.fill(stampOut, 0);
+            Arrays.fill(entryStamp, 0);
+            generation = 1;
+        }
+    }
+
+    static final class View extends JpsGrid {
+        private final JpsGrid base;
+        private final RegionPruning pruning;
+        private final int keepA, keepB;
+
+        View(RegionPruning pruning, int keepA, int keepB) {
+            super(pruning.grid.width, pruning.grid.height, false);
+            this.base = pruning.grid;
+            this.pruning = pruning;
+            this.keepA = keepA;
+            this.keepB = keepB;
+        }
+
+        @Override
+        long word(int y, int w) {
+            long word = base.word(y, w);
+            int i = y * wordsPerRow + w;
+            long pruned = pruning.prunedBits[i];
+            if ((word & pruned) == 0) {
+                return word;
+            }
+            pruned &= ~(pruning.groupMask(keepA, i) | pruning.groupMask(keepB, i));
+            return word & ~pruned;
+        }
+
+        @Override
+        void setWord(int y, int w, long value) {
+            throw new UnsupportedOperationException("Pruned views are read-only");
+        }
+    }
+}
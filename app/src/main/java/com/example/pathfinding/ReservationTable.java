@@ -0,0 +1,128 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Space-time reservations for cooperative pathfinding: which agent occupies a
+// cell at a time step. Open-addressing hash keyed on the primitive pair
+// (time << 32 | cell), so a lookup allocates nothing.
+final class ReservationTable {
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] agents;
+    private int size;
+
+    ReservationTable(int expectedEntries) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedEntries * 2) - 1) << 1;
+        keys = new long[capacity];
+        agents = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    static long key(int cell, int time) {
+        return ((long) time << 32) | (cell & 0xFFFFFFFFL);
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Reserves (cell, time) for the agent; false if another agent already holds it
+    boolean reserve(int cell, int time, int agent) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        long key = key(cell, time);
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                keys[i] = key;
+                agents[i] = agent;
+                size++;
+                return true;
+            }
+            if (keys[i] == key) {
+                return agents[i] == agent;
+            }
+        }
+    }
+
+    // Drops the agent's reservation of (cell, time), if it holds it
+    void release(int cell, int time, int agent) {
+        long key = key(cell, time);
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == EMPTY) return;
+            i = (i + 1) & mask;
+        }
+        if (agents[i] != agent) return;
+        // Backward-shift deletion: pull later entries of the probe run into the gap
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                agents[i] = agents[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        size--;
+    }
+
+    // Agent holding (cell, time), or -1
+    int agentAt(int cell, int time) {
+        long key = key(cell, time);
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) return -1;
+            if (keys[i] == key) return agents[i];
+        }
+    }
+
+    boolean isFree(int cell, int time, int agent) {
+        int holder = agentAt(cell, time);
+        return holder < 0 || holder == agent;
+    }
+
+    // Moving from -> to between time and time + 1: the target must be free at
+    // time + 1 and no agent may be coming the other way (head-on swap)
+    boolean canMove(int from, int to, int time, int agent) {
+        if (!isFree(to, time + 1, agent)) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
+        int other = agentAt(to, time);
+        return other < 0 || other == agent || agentAt(from, time + 1) != other;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldAgents = agents;
+        keys = new long[oldKeys.length * 2];
+        agents = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = slot(oldKeys[j], mask);
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            agents[i] = oldAgents[j];
+        }
+    }
+}
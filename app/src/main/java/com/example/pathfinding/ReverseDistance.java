@@ -0,0 +1,140 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// Reverse Resumable A* (RRA*): true grid distance to a fixed goal, ignoring other
+// agents, computed on demand. The search runs backwards from the goal towards the
+// agent's start and is resumed only until the queried cell is closed, so repeated
+// queries along an agent's route cost almost nothing. State lives in primitive
+// hash tables sized to the explored area rather than to the whole map.
+// Moves and costs are AstarAlgorithm's (10 straight / 14 diagonal).
+final class ReverseDistance {
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+    private static final int EMPTY = -1;
+
+    private final JpsGrid grid;
+    private final int goalCell;
+    private final int targetX, targetY;
+
+    // cell -> (g << 1 | closed bit), open addressing
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    // (f << 32 | cell) entries, stale ones skipped when popped
+    private final LongMinHeap open = new LongMinHeap(64);
+
+    ReverseDistance(JpsGrid grid, int goalX, int goalY, int targetX, int targetY) {
+        this.grid = grid;
+        this.goalCell = goalY * grid.width + goalX;
+        this.targetX = targetX;
+        this.targetY = targetY;
+        keys = new int[256];
+        values = new int[256];
+        Arrays.fill(keys, EMPTY);
+        if (grid.isWalkable(goalX, goalY)) {
+            put(goalCell, 0, false);
+            open.push(LongMinHeap.pack(AstarAlgorithm.calculateHCost(goalX, goalY, targetX, targetY), goalCell));
+        }
+    }
+
+    int goalCell() {
+        return goalCell;
+    }
+
+    // Exact distance from the cell to the goal, or UNREACHABLE
+    int distance(int cell) {
+        int v = get(cell);
+        if (v != EMPTY && (v & 1) != 0) {
+            return v >>> 1;
+        }
+        int width = grid.width;
+        while (!open.isEmpty()) {
+            long top = open.pop();
+            int current = (int) top;
+            int cv = get(current);
+            if ((cv & 1) != 0) {
+                continue; // stale entry, already closed
+            }
+            int g = cv >>> 1;
+            if ((int) (top >>> 32) != g + heuristic(current)) {
+                continue; // stale entry, g improved since
+            }
+            put(current, g, true);
+
+            int x = current % width;
+            int y = current / width;
+            for (int d = 0; d < 8; d++) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) {
+                    continue;
+                }
+                int n = (y + AstarAlgorithm.DY[d]) * width + x + AstarAlgorithm.DX[d];
+                int nv = get(n);
+                int ng = g + AstarAlgorithm.STEP_COST[d];
+                if (nv == EMPTY || ((nv & 1) == 0 && ng < (nv >>> 1))) {
+                    put(n, ng, false);
+                    open.push(LongMinHeap.pack(ng + heuristic(n), n));
+                }
+            }
+            if (current == cell) {
+                return g;
+            }
+        }
+        return UNREACHABLE;
+    }
+
+    private int heuristic(int cell) {
+        return AstarAlgorithm.calculateHCost(cell % grid.width, cell / grid.width, targetX, targetY);
+    }
+
+    private static int slot(int cell, int mask) {
+        int h = cell * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int get(int cell) {
+        int mask = keys.length - 1;
+        for (int i = slot(cell, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) return EMPTY;
+            if (keys[i] == cell) return values[i];
+        }
+    }
+
+    private void put(int cell, int g, boolean closed) {
+        if ((size + 1) * 2 > keys.length) {
+            rehash();
+        }
+        int value = (g << 1) | (closed ? 1 : 0);
+        int mask = keys.length - 1;
+        for (int i = slot(cell, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) {
+                keys[i] = cell;
+                values[i] = value;
+                size++;
+                return;
+            }
+            if (keys[i] == cell) {
+                values[i] = value;
+                return;
+            }
+        }
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i = slot(oldKeys[j], mask);
+            while (keys[i] != EMPTY) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.pathfinding;
+
+// A* with Rectangular Symmetry Reduction over a RectangleDecomposition.
+// Interior cells of a rectangle are never expanded: a perimeter cell steps to
+// its ordinary neighbours outside the interior, plus macro edges across the
+// rectangle to other perimeter cells, costed at octile distance. Inside an empty
+// rectangle the octile distance is always realisable, so path costs match
+// AstarAlgorithm (same moves and 10/14 costs) while large open rooms cost only
+// their perimeter. A start or goal in an interior is joined
+// to its rectangle's perimeter for that query only.
+public class RsrSearch {
+    private final JpsGrid grid;
+    private final RectangleDecomposition rects;
+
+    public RsrSearch(JpsGrid grid, RectangleDecomposition rects) {
+        this.grid = grid;
+        this.rects = rects;
+    }
+
+    public GridPath findPath(int startX, int startY, int goalX, int goalY, SearchContext ctx) {
+        SearchHandle search = begin(startX, startY, goalX, goalY, ctx);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
+
+    // The same search, run a slice at a time by the caller; ctx belongs to the
+    // handle until it is done
+    public SearchHandle begin(int startX, int startY, int goalX, int goalY, SearchContext ctx) {
+        return new Search(startX, startY, goalX, goalY, ctx);
+    }
+
+    private final class Search extends SearchHandle {
+        private final SearchContext ctx;
+        private final int startCell, goalCell, goalX, goalY, goalRect;
+        private final boolean goalInterior;
+
+        Search(int startX, int startY, int goalX, int goalY, SearchContext ctx) {
+            this.ctx = ctx;
+            this.startCell = startY * grid.width + startX;
+            this.goalCell = goalY * grid.width + goalX;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+                this.goalRect = RectangleDecomposition.NONE;
+                this.goalInterior = false;
+                finish(null);
+                return;
+            }
+            this.goalRect = rects.rectOf[goalCell];
+            this.goalInterior = rects.isInterior(goalCell);
+            ctx.reset();
+            ctx.set(startCell, 0, startCell);
+            ctx.open.push(startCell, AstarAlgorithm.calculateHCost(startX, startY, goalX, goalY));
+        }
+
+        @Override
+        void expand() {
+            if (ctx.open.isEmpty() || ctx.isCancelled()) {
+                finish(null);
+                return;
+            }
+            int width = grid.width;
+            int current = ctx.open.pop();
+            if (current == goalCell) {
+                finish(reconstruct(ctx, startCell, goalCell));
+                return;
+            }
+            ctx.close(current);
+            countExpansion();
+            int x = current % width;
+            int y = current / width;
+            int r = rects.rectOf[current];
+
+            if (current == startCell && rects.isInterior(current)) {
+                // Start inside a rectangle: jump to its whole perimeter
+                relaxPerimeter(ctx, current, x, y, r, goalX, goalY, true);
+            } else {
+                for (int d = 0; d < 8; d++) {
+                    if (!AstarAlgorithm.canMove(grid, x, y, d)) {
+                        continue;
+                    }
+                    int nx = x + AstarAlgorithm.DX[d];
+                    int ny = y + AstarAlgorithm.DY[d];
+                    int neighbor = ny * width + nx;
+                    if (neighbor != goalCell && rects.isInterior(neighbor)) {
+                        continue;
+                    }
+                    relax(ctx, current, neighbor, AstarAlgorithm.STEP_COST[d], nx, ny, goalX, goalY);
+                }
+                relaxPerimeter(ctx, current, x, y, r, goalX, goalY, false);
+            }
+            if (r == goalRect && (goalInterior || current == startCell)) {
+                int cost = AstarAlgorithm.calculateHCost(x, y, goalX, goalY);
+                relax(ctx, current, goalCell, cost, goalX, goalY, goalX, goalY);
+            }
+        }
+    }
+
+    // Macro edges across rectangle r from (x, y): to every perimeter cell when
+    // (x, y) is an interior start, otherwise from a perimeter cell to the cells of
+    // the opposite side inside its 45 degree cone, plus the four diagonals to where
+    // they meet the border. Any other octile path across the rectangle can be
+    // rebuilt from those and plain steps along the perimeter at the same cost.
+    private void relaxPerimeter(SearchContext ctx, int current, int x, int y, int r,
+                                int goalX, int goalY, boolean fromInterior) {
+        int rx0 = rects.x0[r], ry0 = rects.y0[r], rx1 = rects.x1[r], ry1 = rects.y1[r];
+        if (rx1 - rx0 < 2 || ry1 - ry0 < 2) {
+            return; // no interior to jump over
+        }
+        int width = grid.width;
+        if (fromInterior) {
+            for (int px = rx0; px <= rx1; px++) {
+                relaxMacro(ctx, current, x, y, px, ry0, width, goalX, goalY);
+                relaxMacro(ctx, current, x, y, px, ry1, width, goalX, goalY);
+            }
+            for (int py = ry0 + 1; py < ry1; py++) {
+                relaxMacro(ctx, current, x, y, rx0, py, width, goalX, goalY);
+                relaxMacro(ctx, current, x, y, rx1, py, width, goalX, goalY);
+            }
+            return;
+        }
+        if (y == ry0 || y == ry1) {
+            int depth = ry1 - ry0;
+            int oppositeY = y == ry0 ? ry1 : ry0;
+            for (int px = Math.max(rx0, x - depth); px <= Math.min(rx1, x + depth); px++) {
+                relaxMacro(ctx, current, x, y, px, oppositeY, width, goalX, goalY);
+            }
+        }
+        if (x == rx0 || x == rx1) {
+            int depth = rx1 - rx0;
+            int oppositeX = x == rx0 ? rx1 : rx0;
+            for (int py = Math.max(ry0, y - depth); py <= Math.min(ry1, y + depth); py++) {
+                relaxMacro(ctx, current, x, y, oppositeX, py, width, goalX, goalY);
+            }
+        }
+        for (int d = 4; d < 8; d++) {
+            int dx = AstarAlgorithm.DX[d];
+            int dy = AstarAlgorithm.DY[d];
+            int k = Math.min(dx > 0 ? rx1 - x : x - rx0, dy > 0 ? ry1 - y : y - ry0);
+            if (k > 1) {
+                relaxMacro(ctx, current, x, y, x + k * dx, y + k * dy, width, goalX, goalY);
+            }
+        }
+    }
+
+    private void relaxMacro(SearchContext ctx, int current, int x, int y, int px, int py, int width,
+                            int goalX, int goalY) {
+        if (px == x && py == y) {
+            return;
+        }
+        relax(ctx, current, py * width + px, AstarAlgorithm.calculateHCost(x, y, px, py), px, py, goalX, goalY);
+    }
+
+    private void relax(SearchContext ctx, int current, int neighbor, int cost, int nx, int ny,
+                       int goalX, int goalY) {
+        if (ctx.isClosed(neighbor)) {
+            return;
+        }
+        double tentative = ctx.g[current] + cost;
+        if (tentative < ctx.gOf(neighbor)) {
+            ctx.set(neighbor, tentative, current);
+            ctx.open.push(neighbor, tentative + AstarAlgorithm.calculateHCost(nx, ny, goalX, goalY));
+        }
+    }
+
+    // Parent chain as waypoints. Runs of unit steps in one direction are merged;
+    // macro edges stay as their own segments, since GridPath draws each segment as
+    // a line, which for an edge inside a rectangle is an octile path of the same cost.
+    private GridPath reconstruct(SearchContext ctx, int startCell, int goalCell) {
+        int width = grid.width;
+        int[] chain = new int[16];
+        int count = 0;
+        for (int cell = goalCell; ; cell = ctx.parent[cell]) {
+            if (count == chain.length) {
+                chain = java.util.Arrays.copyOf(chain, count * 2);
+            }
+            chain[count++] = cell;
+            if (cell == startCell) {
+                break;
+            }
+        }
+        int[] waypoints = new int[count];
+        int n = 0;
+        waypoints[n++] = chain[count - 1];
+        for (int i = count - 2; i >= 1; i--) {
+            int prev = chain[i + 1], cell = chain[i], next = chain[i - 1];
+            int dx1 = cell % width - prev % width, dy1 = cell / width - prev / width;
+            int dx2 = next % width - cell % width, dy2 = next / width - cell / width;
+            boolean unit = Math.max(Math.abs(dx1), Math.abs(dy1)) == 1 && Math.max(Math.abs(dx2), Math.abs(dy2)) == 1;
+            if (!unit || dx1 != dx2 || dy1 != dy2) {
+                waypoints[n++] = cell;
+            }
+        }
+        if (count > 1) {
+            waypoints[n++] = chain[0];
+        }
+        return new GridPath(width, java.util.Arrays.copyOf(waypoints, n), ctx.g[goalCell] / 10.0);
+    }
+}
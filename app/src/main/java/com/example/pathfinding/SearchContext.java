@@ -0,0 +1,81 @@
+package com.example.pathfinding;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Per-query search state over cell indices (y * width + x), kept in primitive
+// arrays and reused between queries. A generation stamp marks which cells were
+// touched by the current query, so reset() is O(1) instead of clearing the arrays.
+class SearchContext {
+    final int capacity;
+    final double[] g;
+    final int[] parent;
+    final IndexedMinHeap open;
+    private final int[] seen;
+    private final int[] closed;
+    private int generation;
+    // Set by whoever runs the query; engines poll it and give up when it is raised
+    private volatile AtomicBoolean cancelFlag;
+    private int closedGeneration;
+
+    public SearchContext(int capacity) {
+        this.capacity = capacity;
+        this.g = new double[capacity];
+        this.parent = new int[capacity];
+        this.open = new IndexedMinHeap(capacity);
+        this.seen = new int[capacity];
+        this.closed = new int[capacity];
+    }
+
+    public void reset() {
+        open.clear();
+        if (++generation == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(seen, 0);
+            generation = 1;
+        }
+        clearClosed();
+    }
+
+    // Empties the closed set but keeps g-costs and parents (anytime re-expansion)
+    public void clearClosed() {
+        if (++closedGeneration == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(closed, 0);
+            closedGeneration = 1;
+        }
+    }
+
+    public void setCancelFlag(AtomicBoolean flag) {
+        cancelFlag = flag;
+    }
+
+    public boolean isCancelled() {
+        AtomicBoolean flag = cancelFlag;
+        return flag != null && flag.get();
+    }
+
+    public boolean isSeen(int cell) {
+        return seen[cell] == generation;
+    }
+
+    // g-cost of the cell in this query, infinity if it has not been reached
+    public double gOf(int cell) {
+        return seen[cell] == generation ? g[cell] : Double.POSITIVE_INFINITY;
+    }
+
+    public void set(int cell, double cost, int parentCell) {
+        seen[cell] = generation;
+        g[cell] = cost;
+        parent[cell] = parentCell;
+    }
+
+    public boolean isClosed(int cell) {
+        return closed[cell] == closedGeneration;
+    }
+
+    public void close(int cell) {
+        closed[cell] = closedGeneration;
+    }
+
+    public void reopen(int cell) {
+        closed[cell] = 0;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.pathfinding;
+
+// A search that runs in slices.
+// The engine keeps its open list and per-cell state inside the handle between
+// calls, so a frame or tick can spend a fixed budget on it and pick up exactly
+// where it stopped next time. A handle owns its SearchContext (or engine scratch)
+// until it is done or cancelled; nothing else may use them meanwhile.
+// The engines' findPath methods are begin(...) stepped to completion.
+public abstract class SearchHandle {
+    private static final int CLOCK_CHECK_INTERVAL = 256;
+
+    private boolean done;
+    private GridPath result;
+    private int expansions;
+    private int nodesExpanded;
+    private Runnable onDone;
+
+    // Runs at most maxExpansions expansions; true once the search has finished
+    public boolean step(int maxExpansions) {
+        for (int i = 0; i < maxExpansions && !done; i++) {
+            expansions++;
+            expand();
+        }
+        return done;
+    }
+
+    // Runs until the deadline (System.nanoTime) passes; true once finished.
+    // The clock is read every few hundred expansions.
+    public boolean stepUntil(long deadlineNanos) {
+        while (!done && System.nanoTime() - deadlineNanos < 0) {
+            step(CLOCK_CHECK_INTERVAL);
+        }
+        return done;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    // The path once done; null before that, or when there is none
+    public GridPath result() {
+        return result;
+    }
+
+    // expand() calls so far: the budget step() has spent, including calls that
+    // skip a stale entry, pass over a node, or only finish the search
+    public int expansions() {
+        return expansions;
+    }
+
+    // Nodes whose successors were generated, the count to compare engines by
+    public int nodesExpanded() {
+        return nodesExpanded;
+    }
+
+    // Stops the search; it reports done with no path
+    public void cancel() {
+        if (!done) {
+            finish(null);
+        }
+    }
+
+    // Runs once when the search finishes or is cancelled (at once if it already has)
+    void setOnDone(Runnable action) {
+        if (done) {
+            action.run();
+        } else {
+            onDone = action;
+        }
+    }
+
+    // One expansion: pops a node and generates its successors, or calls finish
+    abstract void expand();
+
+    // Called by expand() when it generates a node's successors
+    final void countExpansion() {
+        nodesExpanded++;
+    }
+
+    final void finish(GridPath path) {
+        done = true;
+        result = path;
+        if (onDone != null) {
+            Runnable action = onDone;
+            onDone = null;
+            action.run();
+        }
+    }
+}
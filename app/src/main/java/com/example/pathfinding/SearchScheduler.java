@@ -0,0 +1,80 @@
+package com.example.pathfinding;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+// Round-robins in-flight SearchHandles inside a fixed per-frame budget.
+// Each turn gives one search `quantum` expansions and moves it to the back of
+// the line, so many queries progress together and none starves. Meant to be
+// driven from a single thread (UI frame callback or simulation tick).
+public class SearchScheduler {
+    public static final int DEFAULT_QUANTUM = 256;
+
+    private final int quantum;
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+
+    public SearchScheduler() {
+        this(DEFAULT_QUANTUM);
+    }
+
+    public SearchScheduler(int quantum) {
+        if (quantum <= 0) {
+            throw new IllegalArgumentException("quantum must be positive");
+        }
+        this.quantum = quantum;
+    }
+
+    // Completes with the search's path (null if none). Cancelling the future
+    // cancels the search.
+    public CompletableFuture<GridPath> add(SearchHandle search) {
+        Entry entry = new Entry(search);
+        queue.addLast(entry);
+        return entry.future;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    // Steps the queued searches in turn until the budget is spent or all are
+    // done; returns how many finished during this frame
+    public int runFrame(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        int finished = 0;
+        while (!queue.isEmpty()) {
+            Entry entry = queue.pollFirst();
+            if (entry.future.isCancelled()) {
+                entry.search.cancel();
+                continue;
+            }
+            if (entry.search.step(quantum)) {
+                entry.future.complete(entry.search.result());
+                finished++;
+            } else {
+                queue.addLast(entry);
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                break;
+            }
+        }
+        return finished;
+    }
+
+    // Cancels every queued search
+    public void clear() {
+        for (Entry entry : queue) {
+            entry.search.cancel();
+            entry.future.cancel(false);
+        }
+        queue.clear();
+    }
+
+    private static final class Entry {
+        final SearchHandle search;
+        final CompletableFuture<GridPath> future = new CompletableFuture<>();
+
+        Entry(SearchHandle search) {
+            this.search = search;
+        }
+    }
+}
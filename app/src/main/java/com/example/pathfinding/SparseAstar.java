@@ -0,0 +1,234 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+
+// A* whose per-cell state lives in a hash table of the cells it touches, not in
+// arrays the size of the map, for grids too large for a SearchContext such as a
+// 100k x 100k TiledJpsGrid (10^10 cells). Cells are keyed by the long
+// y * width + x, so no index overflows, and a query gives up with no path once
+// it has touched `maxNodes` cells: search memory is bounded by the node budget
+// and grid memory by the tile cache budget, whatever the map size.
+// Moves, 10/14 costs and the octile heuristic are AstarAlgorithm's, so path
+// costs match it. Paths come back as x, y pairs of the cells where they turn,
+// and also as a GridPath when the map has fewer than 2^31 cells.
+// State is allocated once per instance and grows up to the budget; not thread-safe.
+public class SparseAstar {
+    private static final long EMPTY = -1L;
+
+    private final JpsGrid grid;
+    private final int maxNodes;
+
+    private long[] nodeCell = new long[1024];
+    private int[] nodeG = new int[1024];
+    private int[] nodeParent = new int[1024];
+    private boolean[] nodeClosed = new boolean[1024];
+    private int nodeCount;
+    private long[] keys = new long[2048]; // cell -> node, open addressing
+    private int[] nodes = new int[2048];
+    private final LongMinHeap open = new LongMinHeap(1024); // (f << 32 | node), lazy deletion
+    private boolean budgetExceeded;
+
+    public SparseAstar(JpsGrid grid, int maxNodes) {
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("maxNodes must be at least 1");
+        }
+        this.grid = grid;
+        this.maxNodes = maxNodes;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    // True when the last query stopped because it reached the node budget
+    public boolean budgetExceeded() {
+        return budgetExceeded;
+    }
+
+    // Cells the last query touched
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    // x, y pairs of the path's turning points from start to goal, or null when
+    // there is no path or the budget ran out
+    public int[] findWaypoints(int startX, int startY, int goalX, int goalY) {
+        Search search = new Search(startX, startY, goalX, goalY);
+        search.step(Integer.MAX_VALUE);
+        return search.waypoints;
+    }
+
+    public GridPath findPath(int startX, int startY, int goalX, int goalY) {
+        SearchHandle search = begin(startX, startY, goalX, goalY);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
+
+    // The same search, run a slice at a time by the caller. The handle works in
+    // this instance's tables: starting another query abandons it.
+    public SearchHandle begin(int startX, int startY, int goalX, int goalY) {
+        return new Search(startX, startY, goalX, goalY);
+    }
+
+    private final class Search extends SearchHandle {
+        private final int goalX, goalY;
+        private final long goalCell;
+        private int[] waypoints;
+
+        Search(int startX, int startY, int goalX, int goalY) {
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.goalCell = (long) goalY * grid.width + goalX;
+            reset();
+            if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+                finish(null);
+                return;
+            }
+            int root = addNode((long) startY * grid.width + startX, 0, -1);
+            open.push(LongMinHeap.pack(AstarAlgorithm.calculateHCost(startX, startY, goalX, goalY), root));
+        }
+
+        @Override
+        void expand() {
+            if (open.isEmpty()) {
+                finish(null);
+                return;
+            }
+            int node = (int) open.pop();
+            if (nodeClosed[node]) {
+                return; // stale heap entry
+            }
+            nodeClosed[node] = true;
+            long cell = nodeCell[node];
+            if (cell == goalCell) {
+                waypoints = path(node);
+                long cells = (long) grid.width * grid.height;
+                finish(cells <= Integer.MAX_VALUE ? toGridPath(waypoints, nodeG[node]) : null);
+                return;
+            }
+            countExpansion();
+            int x = (int) (cell % grid.width);
+            int y = (int) (cell / grid.width);
+            for (int d = 0; d < 8; d++) {
+                if (!AstarAlgorithm.canMove(grid, x, y, d)) {
+                    continue;
+                }
+                int nx = x + AstarAlgorithm.DX[d];
+                int ny = y + AstarAlgorithm.DY[d];
+                long neighborCell = (long) ny * grid.width + nx;
+                int g = nodeG[node] + AstarAlgorithm.STEP_COST[d];
+                int neighbor = find(neighborCell);
+                if (neighbor >= 0) {
+                    if (nodeClosed[neighbor] || nodeG[neighbor] <= g) {
+                        continue;
+                    }
+                    nodeG[neighbor] = g;
+                    nodeParent[neighbor] = node;
+                } else {
+                    if (nodeCount == maxNodes) {
+                        budgetExceeded = true;
+                        finish(null);
+                        return;
+                    }
+                    neighbor = addNode(neighborCell, g, node);
+                }
+                open.push(LongMinHeap.pack(g + AstarAlgorithm.calculateHCost(nx, ny, goalX, goalY), neighbor));
+            }
+        }
+
+        // Walks the parent chain back, keeping only the cells where the path
+        // turns, as AstarAlgorithm.reconstructPath does; x, y pairs, start first
+        private int[] path(int goalNode) {
+            int[] turns = new int[32];
+            int count = 0;
+            turns[count++] = (int) (nodeCell[goalNode] % grid.width);
+            turns[count++] = (int) (nodeCell[goalNode] / grid.width);
+            for (int n = goalNode; nodeParent[n] >= 0; n = nodeParent[n]) {
+                int parent = nodeParent[n];
+                int grandparent = nodeParent[parent];
+                if (grandparent < 0 || !isStraight(nodeCell[n], nodeCell[parent], nodeCell[grandparent])) {
+                    if (count == turns.length) {
+                        turns = Arrays.copyOf(turns, count * 2);
+                    }
+                    turns[count++] = (int) (nodeCell[parent] % grid.width);
+                    turns[count++] = (int) (nodeCell[parent] / grid.width);
+                }
+            }
+            int[] points = new int[count];
+            for (int i = 0; i < count; i += 2) {
+                points[i] = turns[count - 2 - i];
+                points[i + 1] = turns[count - 1 - i];
+            }
+            return points;
+        }
+
+        // Whether a -> b -> c continues in one direction
+        private boolean isStraight(long a, long b, long c) {
+            return a - b == b - c;
+        }
+
+        private GridPath toGridPath(int[] points, int g) {
+            int[] cells = new int[points.length / 2];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = points[2 * i + 1] * grid.width + points[2 * i];
+            }
+            return new GridPath(grid.width, cells, g / 10.0);
+        }
+    }
+
+    private void reset() {
+        nodeCount = 0;
+        budgetExceeded = false;
+        open.clear();
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private int addNode(long cell, int g, int parent) {
+        if (nodeCount == nodeCell.length) {
+            int n = Math.min(maxNodes, nodeCount * 2);
+            nodeCell = Arrays.copyOf(nodeCell, n);
+            nodeG = Arrays.copyOf(nodeG, n);
+            nodeParent = Arrays.copyOf(nodeParent, n);
+            nodeClosed = Arrays.copyOf(nodeClosed, n);
+        }
+        if ((nodeCount + 1) * 2 > keys.length) {
+            growTable();
+        }
+        int node = nodeCount++;
+        nodeCell[node] = cell;
+        nodeG[node] = g;
+        nodeParent[node] = parent;
+        nodeClosed[node] = false;
+        insert(cell, node);
+        return node;
+    }
+
+    private int find(long cell) {
+        int mask = keys.length - 1;
+        for (int i = slot(cell, mask); ; i = (i + 1) & mask) {
+            if (keys[i] == EMPTY) return -1;
+            if (keys[i] == cell) return nodes[i];
+        }
+    }
+
+    private void insert(long cell, int node) {
+        int mask = keys.length - 1;
+        int i = slot(cell, mask);
+        while (keys[i] != EMPTY) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = cell;
+        nodes[i] = node;
+    }
+
+    private void growTable() {
+        keys = new long[keys.length * 2];
+        nodes = new int[keys.length];
+        Arrays.fill(keys, EMPTY);
+        for (int n = 0; n < nodeCount; n++) {
+            insert(nodeCell[n], n);
+        }
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.pathfinding;
+
+// Cost-aware A* / Dijkstra over a CostGrid.
+// Stepping into a cell costs the move cost (10 straight, 14 diagonal) times the
+// cell's cost, so every priority is an integer. The heuristic is octile distance
+// times the grid's minimum cell cost, which is admissible and consistent, so f
+// never decreases and the open list can be a bucket queue: a ring of
+// doubly-linked lists indexed by f, threaded through per-cell int arrays.
+// All state is allocated once per instance; queries allocate only the result.
+// Not thread-safe: use one instance per thread.
+public class TerrainSearch {
+    private static final int NONE = -1;
+
+    private final CostGrid grid;
+    private final boolean useHeuristic;
+    private int heuristicScale;
+
+    private final int[] g;
+    private final int[] parent;
+    private final int[] stamp;   // generation when g/parent were set
+    private final int[] closed;  // generation when closed
+    private final int[] next, prev, bucketOf;
+    private final int[] buckets; // head cell per bucket, ring indexed by f
+    private int generation;
+    private int queued;
+    private int expansions;
+
+    public TerrainSearch(CostGrid grid) {
+        this(grid, true);
+    }
+
+    // useHeuristic false runs plain Dijkstra
+    public TerrainSearch(CostGrid grid, boolean useHeuristic) {
+        this.grid = grid;
+        this.useHeuristic = useHeuristic;
+        int n = grid.width * grid.height;
+        g = new int[n];
+        parent = new int[n];
+        stamp = new int[n];
+        closed = new int[n];
+        next = new int[n];
+        prev = new int[n];
+        bucketOf = new int[n];
+        // f of anything queued lies within one maximal edge (plus its heuristic
+        // change) of the current minimum, so the ring never wraps onto itself
+        buckets = new int[2 * 14 * 255 + 1];
+        java.util.Arrays.fill(buckets, NONE);
+    }
+
+    // Number of cells expanded by the last query
+    public int expansions() {
+        return expansions;
+    }
+
+    public GridPath findPath(int startX, int startY, int goalX, int goalY) {
+        return findPath(startX, startY, goalX, goalY, null, 1);
+    }
+
+    // Only enters cells whose clearance is at least `requiredClearance`
+    public GridPath findPath(int startX, int startY, int goalX, int goalY,
+                             ClearanceMap clearance, int requiredClearance) {
+        SearchHandle search = begin(startX, startY, goalX, goalY, clearance, requiredClearance);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
+
+    // The same search, run a slice at a time by the caller. The handle works in
+    // this instance's arrays: starting another query abandons it.
+    public SearchHandle begin(int startX, int startY, int goalX, int goalY,
+                              ClearanceMap clearance, int requiredClearance) {
+        return new Search(startX, startY, goalX, goalY, clearance, requiredClearance);
+    }
+
+    private final class Search extends SearchHandle {
+        private final byte[] fit;
+        private final int requiredClearance;
+        private final int startCell, goalCell, goalX, goalY;
+        private final int query;  // generation this search runs in
+        private int cursor;       // lowest f that may still hold cells
+
+        Search(int startX, int startY, int goalX, int goalY, ClearanceMap clearance, int requiredClearance) {
+            this.fit = requiredClearance > 1 ? clearance.clearance : null;
+            this.requiredClearance = requiredClearance;
+            int width = grid.width;
+            this.startCell = startY * width + startX;
+            this.goalCell = goalY * width + goalX;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)
+                    || (fit != null && ((fit[startCell] & 0xFF) < requiredClearance
+                    || (fit[goalCell] & 0xFF) < requiredClearance))) {
+                this.query = 0;
+                finish(null);
+                return;
+            }
+            beginQuery();
+            this.query = generation;
+
+            g[startCell] = 0;
+            parent[startCell] = startCell;
+            stamp[startCell] = generation;
+            int f = heuristic(startX, startY, goalX, goalY);
+            insert(startCell, f);
+            cursor = f;
+        }
+
+        @Override
+        void expand() {
+            if (queued == 0 || query != generation) {
+                finish(null); // exhausted, or another query took over the arrays
+                return;
+            }
+            int width = grid.width;
+            // Advance to the next non-empty bucket
+            int slot = cursor % buckets.length;
+            while (buckets[slot] == NONE) {
+                cursor++;
+                slot = cursor % buckets.length;
+            }
+            int current = buckets[slot];
+            unlink(current);
+            closed[current] = generation;
+            expansions++;
+
+            if (current == goalCell) {
+                finish(AstarAlgorithm.reconstructPath(parent, startCell, goalCell, width, g[goalCell] / 10.0));
+                return;
+            }
+            countExpansion();
+
+            int x = current % width;
+            int y = current / width;
+            for (int d = 0; d < 8; d++) {
+                int nx = x + AstarAlgorithm.DX[d];
+                int ny = y + AstarAlgorithm.DY[d];
+                if (!grid.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int neighbor = ny * width + nx;
+                if (fit != null && (fit[neighbor] & 0xFF) < requiredClearance) {
+                    continue;
+                }
+                if (closed[neighbor] == generation) {
+                    continue;
+                }
+                int tentative = g[current] + AstarAlgorithm.STEP_COST[d] * grid.cost(neighbor);
+                if (stamp[neighbor] == generation && tentative >= g[neighbor]) {
+                    continue;
+                }
+                if (stamp[neighbor] == generation) {
+                    unlink(neighbor);
+                }
+                g[neighbor] = tentative;
+                parent[neighbor] = current;
+                stamp[neighbor] = generation;
+                insert(neighbor, tentative + heuristic(nx, ny, goalX, goalY));
+            }
+        }
+    }
+
+    private int heuristic(int x, int y, int goalX, int goalY) {
+        return useHeuristic ? AstarAlgorithm.calculateHCost(x, y, goalX, goalY) * heuristicScale : 0;
+    }
+
+    private void beginQuery() {
+        if (queued > 0) {
+            java.util.Arrays.fill(buckets, NONE); // previous query stopped early
+        }
+        queued = 0;
+        expansions = 0;
+        heuristicScale = grid.minCost(); // re-read in case costs were edited
+        if (++generation == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(stamp, 0);
+            java.util.Arrays.fill(closed, 0);
+            generation = 1;
+        }
+    }
+
+    private void insert(int cell, int f) {
+        int slot = f % buckets.length;
+        int head = buckets[slot];
+        next[cell] = head;
+        prev[cell] = NONE;
+        if (head != NONE) {
+            prev[head] = cell;
+        }
+        buckets[slot] = cell;
+        bucketOf[cell] = slot;
+        queued++;
+    }
+
+    private void unlink(int cell) {
+        int slot = bucketOf[cell];
+        if (prev[cell] != NONE) {
+            next[prev[cell]] = next[cell];
+        } else {
+            buckets[slot] = next[cell];
+        }
+        if (next[cell] != NONE) {
+            prev[next[cell]] = prev[cell];
+        }
+        queued--;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.pathfinding;
+
+// Any-angle search (Theta* / Lazy Theta*) over a JpsGrid.
+// A node may take its grandparent as parent whenever the two see each other, so
+// the result is a short list of waypoints joined by straight segments instead of
+// an 8-direction staircase. Lazy mode defers the line-of-sight check until a node
+// is expanded, which saves most of the checks on open maps.
+// Moves are AstarAlgorithm's: a step needs only its destination walkable, and
+// line of sight may cut a corner exactly where diagonal steps could, so Theta*
+// finds a path whenever A* does. Costs are Euclidean with sqrt(2) diagonals,
+// against A*'s 1.4, so a Theta* cost can read up to sqrt(2) / 1.4 above the A*
+// cost of the same cells.
+public class ThetaStarSearch {
+    private static final int[] DX = {0, 1, 0, -1, 1, 1, -1, -1};
+    private static final int[] DY = {-1, 0, 1, 0, -1, 1, 1, -1};
+    private static final double SQRT2 = Math.sqrt(2);
+
+    private final JpsGrid grid;
+    private final boolean lazy;
+    private SearchContext ctx; // used by the two-argument findPath, created on first use
+
+    public ThetaStarSearch(JpsGrid grid) {
+        this(grid, true);
+    }
+
+    public ThetaStarSearch(JpsGrid grid, boolean lazy) {
+        this.grid = grid;
+        this.lazy = lazy;
+    }
+
+    // Returns the waypoints from start to goal, or null if the goal is unreachable.
+    // Not thread-safe; concurrent callers pass their own context below.
+    public GridPath findPath(JpsNode start, JpsNode goal) {
+        if (ctx == null) {
+            ctx = new SearchContext(grid.width * grid.height);
+        }
+        return findPath(start, goal, ctx);
+    }
+
+    public GridPath findPath(JpsNode start, JpsNode goal, SearchContext ctx) {
+        SearchHandle search = begin(start, goal, ctx);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
+
+    // The same search, run a slice at a time by the caller; ctx belongs to the
+    // handle until it is done
+    public SearchHandle begin(JpsNode start, JpsNode goal, SearchContext ctx) {
+        return new Search(start, goal, ctx);
+    }
+
+    private final class Search extends SearchHandle {
+        private final SearchContext ctx;
+        private final JpsNode goal;
+        private final int startCell, goalCell;
+
+        Search(JpsNode start, JpsNode goal, SearchContext ctx) {
+            this.ctx = ctx;
+            this.goal = goal;
+            this.startCell = start.y * grid.width + start.x;
+            this.goalCell = goal.y * grid.width + goal.x;
+            if (!grid.isWalkable(start.x, start.y) || !grid.isWalkable(goal.x, goal.y)) {
+                finish(null);
+                return;
+            }
+            ctx.reset();
+            ctx.set(startCell, 0, startCell);
+            ctx.open.push(startCell, heuristic(start.x, start.y, goal.x, goal.y));
+        }
+
+        @Override
+        void expand() {
+            if (ctx.open.isEmpty() || ctx.isCancelled()) {
+                finish(null);
+                return;
+            }
+            int width = grid.width;
+            double key = ctx.open.peekKey();
+            int current = ctx.open.pop();
+            int cx = current % width;
+            int cy = current / width;
+
+            if (lazy) {
+                setVertex(ctx, current, cx, cy);
+                double f = ctx.g[current] + heuristic(cx, cy, goal.x, goal.y);
+                if (f > key + 1e-9) {
+                    // The assumed parent was hidden: queue again under the real cost,
+                    // or the node could be expanded ahead of cheaper ones
+                    ctx.open.push(current, f);
+                    return;
+                }
+            }
+            if (current == goalCell) {
+                finish(GridPath.fromParents(width, ctx.parent, startCell, goalCell, ctx.g[goalCell]));
+                return;
+            }
+            ctx.close(current);
+            countExpansion();
+
+            for (int d = 0; d < 8; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!canMove(cx, cy, DX[d], DY[d])) {
+                    continue;
+                }
+                int next = ny * width + nx;
+                if (ctx.isClosed(next)) {
+                    continue;
+                }
+                updateVertex(ctx, current, cx, cy, next, nx, ny, goal);
+            }
+        }
+    }
+
+    private void updateVertex(SearchContext ctx, int current, int cx, int cy, int next, int nx, int ny, JpsNode goal) {
+        int width = grid.width;
+        int p = ctx.parent[current];
+        int px = p % width;
+        int py = p / width;
+
+        double g;
+        int parent;
+        if (lazy || LineOfSight.betweenCuttingCorners(grid, px, py, nx, ny)) {
+            // Path 2: straight from the parent of current (verified later when lazy)
+            g = ctx.g[p] + distance(px, py, nx, ny);
+            parent = p;
+        } else {
+            // Path 1: through current along the grid edge
+            g = ctx.g[current] + distance(cx, cy, nx, ny);
+            parent = current;
+        }
+
+        if (g < ctx.gOf(next)) {
+            ctx.set(next, g, parent);
+            ctx.open.push(next, g + heuristic(nx, ny, goal.x, goal.y));
+        }
+    }
+
+    // Lazy Theta*: the parent was assumed visible; if it is not, fall back to the
+    // best closed grid neighbour
+    private void setVertex(SearchContext ctx, int cell, int x, int y) {
+        int width = grid.width;
+        int p = ctx.parent[cell];
+        if (p == cell || LineOfSight.betweenCuttingCorners(grid, p % width, p / width, x, y)) {
+            return;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        int bestParent = p;
+        for (int d = 0; d < 8; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            // Moves are symmetric, so checking the move from the cell is enough
+            if (!canMove(x, y, DX[d], DY[d])) {
+                continue;
+            }
+            int n = ny * width + nx;
+            if (!ctx.isClosed(n)) {
+                continue;
+            }
+            double g = ctx.g[n] + distance(nx, ny, x, y);
+            if (g < best) {
+                best = g;
+                bestParent = n;
+            }
+        }
+        ctx.set(cell, best, bestParent);
+    }
+
+    // 8-connected move into a walkable cell, corners may be cut (as in AstarAlgorithm)
+    private boolean canMove(int x, int y, int dx, int dy) {
+        return grid.isWalkable(x + dx, y + dy);
+    }
+
+    private static double distance(int x0, int y0, int x1, int y1) {
+        int dx = x1 - x0;
+        int dy = y1 - y0;
+        if (dx == 0) return Math.abs(dy);
+        if (dy == 0) return Math.abs(dx);
+        if (dx == dy || dx == -dy) return Math.abs(dx) * SQRT2;
+        return Math.sqrt((double) dx * dx + (double) dy * dy);
+    }
+
+    private static double heuristic(int x0, int y0, int x1, int y1) {
+        return distance(x0, y0, x1, y1);
+    }
+}
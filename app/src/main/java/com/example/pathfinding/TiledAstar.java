@@ -0,0 +1,123 @@
+package com.example.pathfinding;
+
+// A* with the grid and every per-cell search array (g, parents, closed and heap
+// positions in the SearchContext) numbered by CellLayout: 8x8 Morton tiles
+// instead of rows. Expanding a cell reads its neighbours at precomputed index
+// offsets, mostly in the same tile, so on large maps the 8 neighbour accesses
+// stay within a few cache lines. Moves, 10/14 costs and the octile heuristic are
+// AstarAlgorithm's, so path costs match it; paths come back in row-major cells.
+// The walkability copy is taken at construction: edit the map through
+// setWalkable. State is allocated once per instance; not thread-safe.
+public class TiledAstar {
+    private final JpsGrid grid;
+    private final CellLayout layout;
+    private final long[] tiles;
+    private final SearchContext ctx;
+
+    public TiledAstar(JpsGrid grid) {
+        this.grid = grid;
+        this.layout = new CellLayout(grid.width, grid.height);
+        this.tiles = layout.walkable(grid);
+        this.ctx = new SearchContext(layout.size());
+    }
+
+    public void setWalkable(int x, int y, boolean walkable) {
+        grid.setWalkable(x, y, walkable);
+        int i = layout.index(x, y);
+        tiles[i >>> 6] = walkable ? tiles[i >>> 6] | (1L << i) : tiles[i >>> 6] & ~(1L << i);
+    }
+
+    public GridPath findPath(int startX, int startY, int goalX, int goalY) {
+        SearchHandle search = begin(startX, startY, goalX, goalY);
+        search.step(Integer.MAX_VALUE);
+        return search.result();
+    }
+
+    // The same search, run a slice at a time by the caller. The handle works in
+    // this instance's context: starting another query abandons it.
+    public SearchHandle begin(int startX, int startY, int goalX, int goalY) {
+        return new Search(startX, startY, goalX, goalY);
+    }
+
+    private boolean isWalkable(int index) {
+        return (tiles[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private final class Search extends SearchHandle {
+        private final int startCell, goalCell, goalX, goalY;
+
+        Search(int startX, int startY, int goalX, int goalY) {
+            this.goalX = goalX;
+            this.goalY = goalY;
+            if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+                this.startCell = -1;
+                this.goalCell = -1;
+                finish(null);
+                return;
+            }
+            this.startCell = layout.index(startX, startY);
+            this.goalCell = layout.index(goalX, goalY);
+            ctx.reset();
+            ctx.set(startCell, 0, startCell);
+            ctx.open.push(startCell, AstarAlgorithm.calculateHCost(startX, startY, goalX, goalY));
+        }
+
+        @Override
+        void expand() {
+            if (ctx.open.isEmpty() || ctx.isCancelled()) {
+                finish(null);
+                return;
+            }
+            int current = ctx.open.pop();
+            if (current == goalCell) {
+                finish(path());
+                return;
+            }
+            ctx.close(current);
+            countExpansion();
+            int x = layout.x(current);
+            int y = layout.y(current);
+            int offsets = (current & 63) * 8;
+
+            for (int d = 0; d < 8; d++) {
+                int neighbor = current + layout.neighborOffset[offsets + d];
+                if (!isWalkable(neighbor) || ctx.isClosed(neighbor)) {
+                    continue; // The border tiles are never walkable
+                }
+                double tentativeGCost = ctx.g[current] + AstarAlgorithm.STEP_COST[d];
+                if (tentativeGCost < ctx.gOf(neighbor)) {
+                    ctx.set(neighbor, tentativeGCost, current);
+                    ctx.open.push(neighbor, tentativeGCost + AstarAlgorithm.calculateHCost(
+                            x + AstarAlgorithm.DX[d], y + AstarAlgorithm.DY[d], goalX, goalY));
+                }
+            }
+        }
+
+        // Walks the parent chain back, keeping only the cells where the path
+        // turns, as AstarAlgorithm.reconstructPath does, in row-major cells
+        private GridPath path() {
+            int[] turns = new int[16];
+            int count = 0;
+            turns[count++] = layout.rowMajor(goalCell);
+            for (int cell = goalCell; cell != startCell; cell = ctx.parent[cell]) {
+                int parent = ctx.parent[cell];
+                if (parent == startCell || !isStraight(cell, parent, ctx.parent[parent])) {
+                    if (count == turns.length) {
+                        turns = java.util.Arrays.copyOf(turns, count * 2);
+                    }
+                    turns[count++] = layout.rowMajor(parent);
+                }
+            }
+            int[] waypoints = new int[count];
+            for (int i = 0; i < count; i++) {
+                waypoints[i] = turns[count - 1 - i];
+            }
+            return new GridPath(grid.width, waypoints, ctx.g[goalCell] / 10.0);
+        }
+
+        private boolean isStraight(int a, int b, int c) {
+            return layout.x(a) - layout.x(b) == layout.x(b) - layout.x(c)
+                    && layout.y(a) - layout.y(b) == layout.y(b) - layout.y(c);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.example.pathfinding;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// JpsGrid backed by a file instead of the heap, for maps too large to hold in memory.
+// The map is cut into square tiles of tileSize x tileSize cells, each stored as
+// tileSize rows of packed words (the same bit layout as JpsGrid.bits), one after
+// another in a single file. The file is memory-mapped in large regions; tiles
+// are copied into a cache of long[] slots, at most `budgetBytes` worth, and
+// written back when a dirty tile is evicted or on flush(). Resident heap memory
+// is therefore bounded by the budget no matter how big the map is.
+// Reads of resident tiles take no lock: the tile's array is found through an
+// atomic per-tile reference and marked recently used with a plain flag, so
+// concurrent queries do not serialize on neighbour lookups. Only a miss locks,
+// to load the tile and evict one chosen by the CLOCK approximation of LRU. An
+// evicted array is never refilled, so a reader that raced with the eviction
+// still sees that tile's words. Edits lock and must not run during searches.
+// SparseAstar searches such a grid with per-query state bounded by a node budget.
+//
+// File layout: 32-byte header (magic, width, height, tileSize), then the tiles
+// row-major by tile.
+public class TiledJpsGrid extends JpsGrid implements Closeable {
+    private static final int MAGIC = 0x4A505354; // "JPST"
+    private static final int HEADER_BYTES = 32;
+    private static final long REGION_BYTES = 1L << 28;
+    private static final int NONE = -1;
+
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    private final int tileSize;
+    private final int tileShift;
+    private final int tileWordsPerRow;
+    private final int tileWords;
+    private final int tilesX, tilesY;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+
+    // Tile cache: resident tile -> its words, and per slot the tile it holds
+    private final AtomicReferenceArray<long[]> resident;
+    private final byte[] referenced;  // per tile, set on every read; cleared by the clock hand
+    private final int[] slotOfTile;   // tile -> slot, or NONE; under the lock
+    private final int[] tileOfSlot;
+    private final boolean[] dirty;
+    private final int slotCount;
+    private int usedSlots;
+    private int hand;
+
+    private final LongAdder hits = new LongAdder();
+    private long misses, evictions;
+
+    private TiledJpsGrid(RandomAccessFile file, int width, int height, int tileSize, long budgetBytes)
+            throws IOException {
+        super(width, height, false);
+        if (tileSize < 64 || Integer.bitCount(tileSize) != 1) {
+            throw new IllegalArgumentException("tileSize must be a power of two >= 64");
+        }
+        this.tileSize = tileSize;
+        this.tileShift = Integer.numberOfTrailingZeros(tileSize);
+        this.tileWordsPerRow = tileSize >>> 6;
+        this.tileWords = tileWordsPerRow * tileSize;
+        this.tilesX = (width + tileSize - 1) >>> tileShift;
+        this.tilesY = (height + tileSize - 1) >>> tileShift;
+        this.file = file;
+        this.channel = file.getChannel();
+
+        long dataBytes = (long) tilesX * tilesY * tileWords * 8;
+        if (file.length() < HEADER_BYTES + dataBytes) {
+            file.setLength(HEADER_BYTES + dataBytes); // sparse: unwritten tiles read as blocked
+        }
+        regions = new MappedByteBuffer[(int) ((dataBytes + REGION_BYTES - 1) / REGION_BYTES)];
+
+        long tileBytes = tileWords * 8L;
+        int slots = (int) Math.max(2, Math.min(budgetBytes / tileBytes, (long) tilesX * tilesY));
+        resident = new AtomicReferenceArray<>(tilesX * tilesY);
+        referenced = new byte[tilesX * tilesY];
+        slotOfTile = new int[tilesX * tilesY];
+        Arrays.fill(slotOfTile, NONE);
+        tileOfSlot = new int[slots];
+        dirty = new boolean[slots];
+        slotCount = slots;
+    }
+
+    // Creates (or truncates) a file for an all-blocked width x height map
+    public static TiledJpsGrid create(File path, int width, int height, int tileSize, long budgetBytes)
+            throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            file.setLength(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(width).putInt(height).putInt(tileSize);
+            header.flip();
+            file.getChannel().write(header, 0);
+            return new TiledJpsGrid(file, width, height, tileSize, budgetBytes);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // Opens a file written by create()
+    public static TiledJpsGrid open(File path, long budgetBytes) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(path, "rw");
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            file.getChannel().read(header, 0);
+            header.flip();
+            if (header.remaining() < 16 || header.getInt() != MAGIC) {
+                throw new IOException("Not a tiled grid file: " + path);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            int tileSize = header.getInt();
+            return new TiledJpsGrid(file, width, height, tileSize, budgetBytes);
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    // Copies an in-memory grid into a new tiled file
+    public static TiledJpsGrid copyOf(JpsGrid grid, File path, int tileSize, long budgetBytes)
+            throws IOException {
+        TiledJpsGrid tiled = create(path, grid.width, grid.height, tileSize, budgetBytes);
+        for (int y = 0; y < grid.height; y++) {
+            for (int w = 0; w < grid.wordsPerRow; w++) {
+                long word = grid.word(y, w);
+                if (word != 0) {
+                    tiled.setWord(y, w, word);
+                }
+            }
+        }
+        return tiled;
+    }
+
+    public int tileSize() {
+        return tileSize;
+    }
+
+    @Override
+    long word(int y, int w) {
+        int tile = tileOf(y, w);
+        long[] data = resident.get(tile);
+        if (data != null) {
+            hits.increment();
+            if (referenced[tile] == 0) {
+                referenced[tile] = 1;
+            }
+        } else {
+            data = load(tile);
+        }
+        return data[offset(y, w)];
+    }
+
+    @Override
+    synchronized void setWord(int y, int w, long value) {
+        int tile = tileOf(y, w);
+        long[] data = load(tile);
+        data[offset(y, w)] = value;
+        dirty[slotOfTile[tile]] = true;
+    }
+
+    // Tile cache lookups served from memory
+    public long hits() {
+        return hits.sum();
+    }
+
+    // Tile cache lookups that had to read the tile from the file
+    public synchronized long misses() {
+        return misses;
+    }
+
+    public synchronized long evictions() {
+        return evictions;
+    }
+
+    public synchronized double hitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public synchronized int residentTiles() {
+        return usedSlots;
+    }
+
+    public synchronized long residentBytes() {
+        return usedSlots * (long) tileWords * 8;
+    }
+
+    public synchronized void resetStats() {
+        hits.reset();
+        misses = 0;
+        evictions = 0;
+    }
+
+    // Writes dirty tiles back to the file and forces it to disk
+    public synchronized void flush() throws IOException {
+        for (int slot = 0; slot < usedSlots; slot++) {
+            if (dirty[slot]) {
+                store(tileOfSlot[slot]);
+                dirty[slot] = false;
+            }
+        }
+        for (MappedByteBuffer region : regions) {
+            if (region != null) {
+                region.force();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            Arrays.fill(regions, null);
+            file.close();
+        }
+    }
+
+    private int tileOf(int y, int w) {
+        return (y >>> tileShift) * tilesX + (w >>> (tileShift - 6));
+    }
+
+    private int offset(int y, int w) {
+        return (y & (tileSize - 1)) * tileWordsPerRow + (w & (tileWordsPerRow - 1));
+    }
+
+    // The tile's words, read from the file into a slot if it is not resident
+    private synchronized long[] load(int tile) {
+        long[] data = resident.get(tile);
+        if (data != null) {
+            hits.increment(); // another thread loaded it meanwhile
+            return data;
+        }
+        misses++;
+        int slot;
+        if (usedSlots < slotCount) {
+            slot = usedSlots++;
+        } else {
+            // CLOCK: skip recently read tiles, clearing their flag, evict the first other
+            while (referenced[tileOfSlot[hand]] != 0) {
+                referenced[tileOfSlot[hand]] = 0;
+                hand = (hand + 1) % slotCount;
+            }
+            slot = hand;
+            hand = (hand + 1) % slotCount;
+            int evicted = tileOfSlot[slot];
+            if (dirty[slot]) {
+                store(evicted);
+            }
+            resident.set(evicted, null);
+            slotOfTile[evicted] = NONE;
+            evictions++;
+        }
+        // A fresh array each time: readers holding the evicted one stay consistent
+        data = new long[tileWords];
+        tileBuffer(tile).get(data);
+        tileOfSlot[slot] = tile;
+        slotOfTile[tile] = slot;
+        dirty[slot] = false;
+        referenced[tile] = 1;
+        resident.set(tile, data);
+        return data;
+    }
+
+    private void store(int tile) {
+        tileBuffer(tile).put(resident.get(tile));
+    }
+
+    private java.nio.LongBuffer tileBuffer(int tile) {
+        long offset = (long) tile * tileWords * 8;
+        int r = (int) (offset / REGION_BYTES);
+        ByteBuffer view = region(r).duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        view.position((int) (offset - r * REGION_BYTES));
+        view.limit(view.position() + tileWords * 8);
+        return view.slice().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    private MappedByteBuffer region(int r) {
+        MappedByteBuffer region = regions[r];
+        if (region == null) {
+            long start = HEADER_BYTES + r * REGION_BYTES;
+            long dataEnd = HEADER_BYTES + (long) tilesX * tilesY * tileWords * 8;
+            try {
+                region = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(REGION_BYTES, dataEnd - start));
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+            regions[r] = region;
+        }
+        return region;
+    }
+}
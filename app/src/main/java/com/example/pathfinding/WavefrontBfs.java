@@ -0,0 +1,218 @@
+package com.example.pathfinding;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Breadth-first hop distances on a JpsGrid, one whole wavefront per step.
+// The frontier, the visited cells and walkability are all bitsets in the
+// grid's packed row layout, so a layer is: spread the frontier one cell left
+// and right within each row (shifts with the carry from the neighbouring word),
+// OR three such rows together, then AND with walkable and AND-NOT visited,
+// 64 cells per word operation. Moves are AstarAlgorithm's 8 (a diagonal needs
+// only its destination free), so a hop count is the number of moves in a
+// shortest path by move count, not by 10/14 cost.
+// Each layer only touches the rows the wavefront can have reached, split into
+// stripes of rows that run in parallel. Calls share no state.
+public final class WavefrontBfs {
+    public static final int UNREACHABLE = -1;
+
+    private static final int ROWS_PER_TASK = 32;
+
+    private WavefrontBfs() {
+    }
+
+    // Hops from (startX, startY) to every cell, row-major (y * width + x),
+    // UNREACHABLE for blocked or cut-off cells
+    public static int[] distances(JpsGrid grid, int startX, int startY) {
+        return distances(grid, new int[]{startX, startY});
+    }
+
+    // Hops to the nearest of several sources (x, y pairs), e.g. every shelf of
+    // a warehouse at once; blocked sources are ignored
+    public static int[] distances(JpsGrid grid, int[] sources) {
+        int[] field = new int[grid.width * grid.height];
+        Arrays.fill(field, UNREACHABLE);
+        new Wave(grid, sources, field).run(-1, -1);
+        return field;
+    }
+
+    // Fewest moves from start to goal, or UNREACHABLE; stops at the goal's layer
+    public static int hopCount(JpsGrid grid, int startX, int startY, int goalX, int goalY) {
+        if (!grid.isWalkable(goalX, goalY)) {
+            return UNREACHABLE;
+        }
+        return new Wave(grid, new int[]{startX, startY}, null).run(goalX, goalY);
+    }
+
+    private static final class Wave {
+        private final JpsGrid grid;
+        private final int wordsPerRow;
+        private final int summaryWords; // per row, one bit per frontier word
+        private final int[] field; // null when only a hop count is wanted
+        private final long[] walkable;
+        private final long[] visited;
+        private long[] frontier, next;
+        // Bit w of a row's summary is set when frontier word w of that row is
+        // non-zero, so a layer visits only words next to the wavefront
+        private long[] frontierSummary, nextSummary;
+        private int top, bottom; // rows the frontier occupies
+
+        Wave(JpsGrid grid, int[] sources, int[] field) {
+            this.grid = grid;
+            this.wordsPerRow = grid.wordsPerRow;
+            this.summaryWords = (wordsPerRow + 63) >>> 6;
+            this.field = field;
+            int words = wordsPerRow * grid.height;
+            // Copied through word() so views (clearance, pruning) work too
+            walkable = new long[words];
+            for (int y = 0; y < grid.height; y++) {
+                for (int w = 0; w < wordsPerRow; w++) {
+                    walkable[y * wordsPerRow + w] = grid.word(y, w);
+                }
+            }
+            visited = new long[words];
+            frontier = new long[words];
+            next = new long[words];
+            frontierSummary = new long[summaryWords * grid.height];
+            nextSummary = new long[summaryWords * grid.height];
+            top = grid.height;
+            bottom = -1;
+            for (int i = 0; i + 1 < sources.length; i += 2) {
+                int x = sources[i], y = sources[i + 1];
+                if (!grid.isWalkable(x, y)) {
+                    continue;
+                }
+                int w = x >>> 6;
+                frontier[y * wordsPerRow + w] |= 1L << x;
+                visited[y * wordsPerRow + w] |= 1L << x;
+                frontierSummary[y * summaryWords + (w >>> 6)] |= 1L << w;
+                if (field != null) {
+                    field[y * grid.width + x] = 0;
+                }
+                top = Math.min(top, y);
+                bottom = Math.max(bottom, y);
+            }
+        }
+
+        // Expands layer after layer; returns the goal's layer, or UNREACHABLE
+        // once the wavefront dies out (always, with no goal)
+        int run(int goalX, int goalY) {
+            int goalWord = goalX < 0 ? -1 : goalY * wordsPerRow + (goalX >>> 6);
+            long goalBit = goalX < 0 ? 0 : 1L << goalX;
+            for (int layer = 0; bottom >= top; layer++) {
+                if (goalWord >= 0 && (visited[goalWord] & goalBit) != 0) {
+                    return layer;
+                }
+                final int from = Math.max(0, top - 1);
+                final int to = Math.min(grid.height - 1, bottom + 1);
+                final int hops = layer + 1;
+                int tasks = (to - from) / ROWS_PER_TASK + 1;
+                // Each task writes only its own rows of next, visited and field
+                long spread = IntStream.range(0, tasks).parallel().mapToLong(task -> {
+                    int end = Math.min(to, from + (task + 1) * ROWS_PER_TASK - 1);
+                    return advance(from + task * ROWS_PER_TASK, end, hops);
+                }).reduce(Long.MAX_VALUE, Wave::mergeRows);
+                clearFrontier();
+                long[] t = frontier;
+                frontier = next;
+                next = t;
+                t = frontierSummary;
+                frontierSummary = nextSummary;
+                nextSummary = t;
+                top = (int) (spread >>> 32);
+                bottom = (int) spread;
+            }
+            return UNREACHABLE;
+        }
+
+        // New cells of rows y0..y1; returns their first and last non-empty row
+        // packed as mergeRows expects, or Long.MAX_VALUE when none
+        private long advance(int y0, int y1, int hops) {
+            int first = Integer.MAX_VALUE, last = -1;
+            for (int y = y0; y <= y1; y++) {
+                boolean any = false;
+                for (int sw = 0; sw < summaryWords; sw++) {
+                    // Frontier words in rows y - 1..y + 1, widened by one word
+                    long s = summaryColumn(y, sw);
+                    long active = s | (s << 1) | (s >>> 1);
+                    if (sw > 0) active |= summaryColumn(y, sw - 1) >>> 63;
+                    if (sw + 1 < summaryWords) active |= summaryColumn(y, sw + 1) << 63;
+                    for (; active != 0; active &= active - 1) {
+                        int w = (sw << 6) + Long.numberOfTrailingZeros(active);
+                        if (w < wordsPerRow && grow(y, w, hops)) {
+                            any = true;
+                        }
+                    }
+                }
+                if (any) {
+                    first = Math.min(first, y);
+                    last = y;
+                }
+            }
+            return last < 0 ? Long.MAX_VALUE : ((long) first << 32) | last;
+        }
+
+        // Adds the cells of word w, row y that the frontier reaches this layer
+        private boolean grow(int y, int w, int hops) {
+            // A 3x3 spread is a vertical OR of three rows, then one cell left and right
+            long v = column(y, w);
+            long reach = v | (v << 1) | (v >>> 1);
+            if (w > 0) reach |= column(y, w - 1) >>> 63;
+            if (w + 1 < wordsPerRow) reach |= column(y, w + 1) << 63;
+            int i = y * wordsPerRow + w;
+            long fresh = reach & walkable[i] & ~visited[i];
+            if (fresh == 0) {
+                return false;
+            }
+            next[i] = fresh;
+            visited[i] |= fresh;
+            nextSummary[y * summaryWords + (w >>> 6)] |= 1L << w;
+            if (field != null) {
+                int base = y * grid.width + (w << 6);
+                for (long bits = fresh; bits != 0; bits &= bits - 1) {
+                    field[base + Long.numberOfTrailingZeros(bits)] = hops;
+                }
+            }
+            return true;
+        }
+
+        // Frontier word w of rows y - 1, y and y + 1 ORed together
+        private long column(int y, int w) {
+            int i = y * wordsPerRow + w;
+            long word = frontier[i];
+            if (y > 0) word |= frontier[i - wordsPerRow];
+            if (y + 1 < grid.height) word |= frontier[i + wordsPerRow];
+            return word;
+        }
+
+        private long summaryColumn(int y, int sw) {
+            int i = y * summaryWords + sw;
+            long word = frontierSummary[i];
+            if (y > 0) word |= frontierSummary[i - summaryWords];
+            if (y + 1 < grid.height) word |= frontierSummary[i + summaryWords];
+            return word;
+        }
+
+        // Zeroes the words the frontier used, so the buffers are empty when reused
+        private void clearFrontier() {
+            for (int y = top; y <= bottom; y++) {
+                for (int sw = 0; sw < summaryWords; sw++) {
+                    int i = y * summaryWords + sw;
+                    for (long bits = frontierSummary[i]; bits != 0; bits &= bits - 1) {
+                        frontier[y * wordsPerRow + (sw << 6) + Long.numberOfTrailingZeros(bits)] = 0;
+                    }
+                    frontierSummary[i] = 0;
+                }
+            }
+        }
+
+        // Union of two (first << 32 | last) row ranges; Long.MAX_VALUE is empty
+        private static long mergeRows(long a, long b) {
+            if (a == Long.MAX_VALUE) return b;
+            if (b == Long.MAX_VALUE) return a;
+            long first = Math.min(a >>> 32, b >>> 32);
+            long last = Math.max((int) a, (int) b);
+            return (first << 32) | last;
+        }
+    }
+}
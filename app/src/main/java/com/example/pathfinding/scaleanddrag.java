@@ -15,6 +15,7 @@ import androidx.appcompat.app.AppCompatActivity;
 
 public class scaleanddrag extends AppCompatActivity {
     private ImageView imageView_map;
+    private PathOverlayView pathOverlay;
     private FrameLayout mPhotoBox;
     Matrix matrix = new Matrix();
     Matrix savedMatrix = new Matrix();
@@ -39,6 +40,11 @@ public class scaleanddrag extends AppCompatActivity {
         this.imageView_map = imageView;
     }
 
+    // The overlay follows the map's matrix so the path stays on top of it
+    public void setPathOverlay(PathOverlayView overlay) {
+        this.pathOverlay = overlay;
+    }
+
     private float spacing(MotionEvent event) {
         float x = event.getX(0) - event.getX(1);
         float y = event.getY(0) - event.getY(1);
@@ -133,6 +139,9 @@ public class scaleanddrag extends AppCompatActivity {
         }
 
         view.setImageMatrix(matrix);
+        if (pathOverlay != null) {
+            pathOverlay.setImageMatrix(view.getImageMatrix());
+        }
         return true; // indicate event was handled
     }
 
@@ -154,6 +163,9 @@ public class scaleanddrag extends AppCompatActivity {
             imageView_map.setImageMatrix(matrix);
             imageView_map.invalidate();
         }
+        if (pathOverlay != null) {
+            pathOverlay.setImageMatrix(matrix);
+        }
 
         MainActivity.updateStatus("Map reset to original position.");
     }
@@ -0,0 +1,55 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class AnytimeSearchTest {
+
+    // With epsilon 1 from the start, ARA* is plain A*: one optimal pass
+    @Test
+    public void epsilonOneMatchesDijkstra() {
+        JpsGrid grid = TestGrids.random(90, 90, 30, 61);
+        Random random = new Random(62);
+        for (int i = 0; i < 40; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = TestGrids.walkableCell(grid, random);
+            double expected = TestGrids.dijkstra(grid, start[0], start[1], goal[0], goal[1]);
+            AnytimeSearch.Result result = new AnytimeSearch(grid, start[0], start[1], goal[0], goal[1], 1.0, 0.5)
+                    .runExpansions(Integer.MAX_VALUE);
+            assertTrue(result.complete);
+            if (expected < 0) {
+                assertNull(result.path);
+                continue;
+            }
+            assertEquals(1.0, result.bound, 0);
+            assertEquals(expected, result.path.cost(), 1e-9);
+            assertEquals(expected, TestGrids.walkCost(grid, result.path, start[0], start[1], goal[0], goal[1]), 1e-9);
+        }
+    }
+
+    // Small slices: every published path is within its bound, and the last
+    // one is optimal
+    @Test
+    public void boundsHoldUntilOptimal() {
+        JpsGrid grid = TestGrids.rooms(150, 150);
+        Random random = new Random(63);
+        for (int i = 0; i < 10; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = TestGrids.walkableCell(grid, random);
+            double optimal = TestGrids.dijkstra(grid, start[0], start[1], goal[0], goal[1]);
+            AnytimeSearch search = new AnytimeSearch(grid, start[0], start[1], goal[0], goal[1]);
+            AnytimeSearch.Result result;
+            do {
+                result = search.runExpansions(300);
+                if (result.path != null) {
+                    assertTrue(result.path.cost() <= result.bound * optimal + 1e-9);
+                }
+            } while (!result.complete);
+            assertEquals(optimal, result.path.cost(), 1e-9);
+        }
+    }
+}
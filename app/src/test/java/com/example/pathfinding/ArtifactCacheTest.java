@@ -0,0 +1,127 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import org.junit.Test;
+
+public class ArtifactCacheTest {
+    private static final String KEY = "0123abcd";
+
+    @Test
+    public void corruptEntryIsDeleted() throws IOException {
+        File dir = Files.createTempDirectory("artifacts").toFile();
+        try {
+            ArtifactCache cache = new ArtifactCache(dir, 1 << 20);
+            cache.put(KEY, "jump-points", 1, payload(100, 1));
+            File file = new File(dir, KEY + ".jump-points");
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                long at = file.length() - 20; // inside the payload
+                raf.seek(at);
+                int b = raf.read();
+                raf.seek(at);
+                raf.write(b ^ 0xFF);
+            }
+            assertNull(cache.get(KEY, "jump-points", 1));
+            assertFalse(file.exists());
+            assertEquals(0, cache.entryCount());
+            assertEquals(0, cache.sizeBytes());
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void truncatedEntryIsDeleted() throws IOException {
+        File dir = Files.createTempDirectory("artifacts").toFile();
+        try {
+            ArtifactCache cache = new ArtifactCache(dir, 1 << 20);
+            cache.put(KEY, "jump-points", 1, payload(100, 2));
+            File file = new File(dir, KEY + ".jump-points");
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(file.length() - 30);
+            }
+            assertNull(cache.get(KEY, "jump-points", 1));
+            assertFalse(file.exists());
+            assertEquals(0, cache.entryCount());
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    public void otherVersionIsAMissAndDeleted() throws IOException {
+        File dir = Files.createTempDirectory("artifacts").toFile();
+        try {
+            ArtifactCache cache = new ArtifactCache(dir, 1 << 20);
+            byte[] data = payload(100, 3);
+            cache.put(KEY, "jump-points", 1, data);
+            assertArrayEquals(data, cache.get(KEY, "jump-points", 1));
+            assertNull(cache.get(KEY, "jump-points", 2));
+            assertFalse(new File(dir, KEY + ".jump-points").exists());
+            assertNull(cache.get(KEY, "jump-points", 1));
+            assertEquals(0, cache.sizeBytes());
+        } finally {
+            delete(dir);
+        }
+    }
+
+    // Room for three entries: a fourth evicts the least recently read one
+    @Test
+    public void evictsLeastRecentlyUsedWithinBudget() throws IOException {
+        File dir = Files.createTempDirectory("artifacts").toFile();
+        try {
+            ArtifactCache probe = new ArtifactCache(new File(dir, "probe"), Long.MAX_VALUE);
+            probe.put(KEY, "a", 1, payload(1000, 0));
+            long entryBytes = probe.sizeBytes();
+            probe.clear();
+
+            ArtifactCache cache = new ArtifactCache(new File(dir, "cache"), 3 * entryBytes + entryBytes / 2);
+            cache.put(KEY, "a", 1, payload(1000, 4));
+            cache.put(KEY, "b", 1, payload(1000, 5));
+            cache.put(KEY, "c", 1, payload(1000, 6));
+            assertNotNull(cache.get(KEY, "a", 1));
+            cache.put(KEY, "d", 1, payload(1000, 7));
+
+            assertEquals(3, cache.entryCount());
+            assertNull(cache.get(KEY, "b", 1));
+            assertNotNull(cache.get(KEY, "a", 1));
+            assertNotNull(cache.get(KEY, "c", 1));
+            assertNotNull(cache.get(KEY, "d", 1));
+            long onDisk = 0;
+            for (File file : new File(dir, "cache").listFiles()) {
+                onDisk += file.length();
+            }
+            assertEquals(onDisk, cache.sizeBytes());
+            assertTrue(cache.sizeBytes() <= 3 * entryBytes + entryBytes / 2);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static byte[] payload(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * 31 + seed);
+        }
+        return data;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
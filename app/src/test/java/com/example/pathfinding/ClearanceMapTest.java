@@ -0,0 +1,33 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ClearanceMapTest {
+
+    @Test
+    public void viewsMatchClearance() {
+        JpsGrid grid = TestGrids.random(300, 130, 4, 6);
+        ClearanceMap map = ClearanceMap.compute(grid);
+        for (int required = 1; required <= 4; required++) {
+            JpsGrid view = map.view(required);
+            for (int y = -1; y <= grid.height; y++) {
+                for (int x = -1; x <= grid.width; x++) {
+                    assertEquals(map.fits(x, y, required), view.isWalkable(x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void firstViewIsTheGrid() {
+        JpsGrid grid = TestGrids.rooms(200, 100);
+        JpsGrid view = ClearanceMap.compute(grid).view(1);
+        for (int y = 0; y < grid.height; y++) {
+            for (int w = 0; w < grid.wordsPerRow; w++) {
+                assertEquals(grid.word(y, w), view.word(y, w));
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class CooperativePlannerTest {
+
+    @Test
+    public void corridorAgentsNeverShareACell() {
+        JpsGrid grid = new JpsGrid(6, 1);
+        for (int x = 0; x < 6; x++) {
+            grid.setWalkable(x, 0, true);
+        }
+        CooperativePlanner planner = new CooperativePlanner(grid, 8);
+        planner.addAgent(0, 0, 5, 0, 0);
+        planner.addAgent(5, 0, 0, 0, 1);
+        assertEquals(0, planner.plan());
+        assertEquals(0, collisions(planner));
+    }
+
+    @Test
+    public void manyAgentsPlanWithoutCollisionsWithinBudget() {
+        JpsGrid grid = TestGrids.random(200, 200, 15, 1);
+        Random random = new Random(2);
+        CooperativePlanner planner = new CooperativePlanner(grid, 16);
+        Set<Integer> starts = new HashSet<>();
+        Set<Integer> goals = new HashSet<>();
+        for (int i = 0; i < 150; i++) {
+            int[] start, goal;
+            do {
+                start = TestGrids.walkableCell(grid, random);
+            } while (!starts.add(start[1] * grid.width + start[0]));
+            do {
+                goal = TestGrids.walkableCell(grid, random);
+            } while (!goals.add(goal[1] * grid.width + goal[0]));
+            planner.addAgent(start[0], start[1], goal[0], goal[1], i);
+        }
+
+        long planning = 0;
+        int ticks = 40;
+        for (int tick = 0; tick < ticks; tick++) {
+            long started = System.nanoTime();
+            assertEquals(0, planner.plan());
+            planning += System.nanoTime() - started;
+            assertEquals("collisions at tick " + tick, 0, collisions(planner));
+            planner.advance(8);
+        }
+        assertTrue(planner.allArrived());
+        // Generous bound; a tick takes around 10 ms on a desktop JVM
+        assertTrue("mean plan() " + planning / ticks / 1000000 + " ms", planning / ticks < 200000000L);
+    }
+
+    // Pairs of agents in the same cell at the same step, or swapping cells
+    private static int collisions(CooperativePlanner planner) {
+        int count = 0;
+        int n = planner.agentCount();
+        int[][] cells = new int[n][];
+        for (int i = 0; i < n; i++) {
+            cells[i] = planner.plannedCells(i);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                for (int t = 0; t < Math.min(cells[i].length, cells[j].length); t++) {
+                    if (cells[i][t] == cells[j][t]) {
+                        count++;
+                    }
+                    if (t > 0 && cells[i][t] == cells[j][t - 1] && cells[i][t - 1] == cells[j][t]) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
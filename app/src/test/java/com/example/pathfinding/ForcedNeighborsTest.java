@@ -0,0 +1,97 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class ForcedNeighborsTest {
+
+    // One obstacle on each side of a word boundary (x 63 and 64), so the
+    // shifts must carry bits between words to find all of them
+    @Test
+    public void singleObstaclesForceTheirNeighbours() {
+        JpsGrid grid = new JpsGrid(130, 30);
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                grid.setWalkable(x, y, true);
+            }
+        }
+        grid.setWalkable(63, 5, false);
+        grid.setWalkable(64, 20, false);
+        ForcedNeighbors forced = ForcedNeighbors.compute(grid);
+        int[][] obstacles = {{63, 5}, {64, 20}};
+        for (Direction dir : Direction.values()) {
+            Set<Integer> expected = new HashSet<>();
+            for (int[] o : obstacles) {
+                // Moving along one axis, the cells beside the obstacle across
+                // the move; moving diagonally, the cells that have it on the
+                // trailing side of one of the two components
+                if (dir.dx == 0) {
+                    expected.add(o[1] * grid.width + o[0] - 1);
+                    expected.add(o[1] * grid.width + o[0] + 1);
+                } else if (dir.dy == 0) {
+                    expected.add((o[1] - 1) * grid.width + o[0]);
+                    expected.add((o[1] + 1) * grid.width + o[0]);
+                } else {
+                    expected.add((o[1] - dir.dy) * grid.width + o[0]);
+                    expected.add(o[1] * grid.width + o[0] - dir.dx);
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            for (int y = 0; y < grid.height; y++) {
+                for (int x = 0; x < grid.width; x++) {
+                    if (forced.isForced(x, y, dir)) {
+                        actual.add(y * grid.width + x);
+                    }
+                }
+            }
+            assertEquals(dir.name(), expected, actual);
+        }
+    }
+
+    @Test
+    public void bitsMatchHasForcedNeighborAndOnlyMarkWalkableCells() {
+        JpsGrid grid = TestGrids.random(130, 70, 30, 1);
+        ForcedNeighbors forced = ForcedNeighbors.compute(grid);
+        for (Direction dir : Direction.values()) {
+            for (int y = -1; y <= grid.height; y++) {
+                for (int x = -1; x <= grid.width; x++) {
+                    boolean bit = forced.isForced(x, y, dir);
+                    assertEquals(grid.hasForcedNeighbor(x, y, dir), bit);
+                    if (bit) {
+                        assertTrue(grid.isWalkable(x, y));
+                    }
+                }
+            }
+        }
+    }
+
+    // nextForced/previousForced scan whole words; they must land on the same
+    // cells as testing bit after bit, and never on the padding past the row end
+    @Test
+    public void scansAgreeWithBitTests() {
+        JpsGrid grid = TestGrids.random(200, 40, 20, 3);
+        ForcedNeighbors forced = ForcedNeighbors.compute(grid);
+        for (Direction dir : Direction.values()) {
+            for (int y = 0; y < grid.height; y++) {
+                int next = -1;
+                for (int x = grid.width - 1; x >= 0; x--) {
+                    if (forced.isForced(x, y, dir)) next = x;
+                    assertEquals(next, forced.nextForced(y, x, dir));
+                }
+                int previous = -1;
+                for (int x = 0; x < grid.width; x++) {
+                    if (forced.isForced(x, y, dir)) previous = x;
+                    assertEquals(previous, forced.previousForced(y, x, dir));
+                }
+                assertEquals(-1, forced.nextForced(y, grid.width, dir));
+                assertEquals(previous, forced.previousForced(y, grid.width + 70, dir));
+            }
+        }
+        assertFalse(forced.isForced(grid.width, 0, Direction.N));
+    }
+}
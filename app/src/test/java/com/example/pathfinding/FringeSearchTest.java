@@ -0,0 +1,42 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class FringeSearchTest {
+
+    @Test
+    public void costsMatchDijkstra() {
+        JpsGrid[] grids = {TestGrids.random(150, 120, 30, 1), TestGrids.rooms(200, 200), TestGrids.open(200, 150, 2)};
+        Random random = new Random(3);
+        for (JpsGrid grid : grids) {
+            FringeSearch fringe = new FringeSearch(grid);
+            for (int i = 0; i < 40; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = TestGrids.walkableCell(grid, random);
+                double expected = TestGrids.dijkstra(grid, start[0], start[1], goal[0], goal[1]);
+                GridPath path = fringe.findPath(start[0], start[1], goal[0], goal[1]);
+                if (expected < 0) {
+                    assertNull(path);
+                    continue;
+                }
+                assertEquals(expected, path.cost(), 1e-9);
+                assertEquals(expected, TestGrids.walkCost(grid, path, start[0], start[1], goal[0], goal[1]), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void countsOnlyRealExpansions() {
+        JpsGrid grid = TestGrids.random(100, 100, 20, 4);
+        grid.setWalkable(0, 0, true);
+        grid.setWalkable(99, 99, true);
+        FringeSearch fringe = new FringeSearch(grid);
+        SearchHandle search = fringe.begin(0, 0, 99, 99);
+        search.step(Integer.MAX_VALUE);
+        assertEquals(fringe.expansions(), search.nodesExpanded());
+    }
+}
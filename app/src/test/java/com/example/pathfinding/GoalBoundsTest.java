@@ -0,0 +1,49 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+
+public class GoalBoundsTest {
+
+    // Pruned A* stays optimal, including on a map walled in two, and opens
+    // fewer nodes overall
+    @Test
+    public void prunedAstarMatchesPlainAstar() throws IOException {
+        JpsGrid grid = TestGrids.random(60, 50, 25, 81);
+        for (int y = 0; y < grid.height; y++) {
+            grid.setWalkable(40, y, false);
+        }
+        GoalBounds computed = GoalBounds.compute(grid);
+        GoalBounds imported = GoalBounds.fromBytes(grid, computed.export());
+        SearchContext ctx = new SearchContext(grid.width * grid.height);
+        Random random = new Random(82);
+        long plainExpanded = 0, prunedExpanded = 0;
+        for (int i = 0; i < 100; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = TestGrids.walkableCell(grid, random);
+            SearchHandle plain = AstarAlgorithm.begin(grid, start[0], start[1], goal[0], goal[1], ctx, null);
+            plain.step(Integer.MAX_VALUE);
+            for (GoalBounds bounds : new GoalBounds[]{computed, imported}) {
+                SearchHandle pruned = AstarAlgorithm.begin(grid, start[0], start[1], goal[0], goal[1], ctx, bounds);
+                pruned.step(Integer.MAX_VALUE);
+                if (plain.result() == null) {
+                    assertNull(pruned.result());
+                    continue;
+                }
+                assertEquals(plain.result().cost(), pruned.result().cost(), 1e-9);
+                assertEquals(plain.result().cost(),
+                        TestGrids.walkCost(grid, pruned.result(), start[0], start[1], goal[0], goal[1]), 1e-9);
+                if (bounds == computed) {
+                    plainExpanded += plain.nodesExpanded();
+                    prunedExpanded += pruned.nodesExpanded();
+                }
+            }
+        }
+        assertTrue(prunedExpanded < plainExpanded);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class GridPathTest {
+
+    @Test
+    public void runsRoundTripCellsAndCost() {
+        JpsGrid grid = TestGrids.random(120, 90, 25, 51);
+        SearchContext ctx = new SearchContext(grid.width * grid.height);
+        Random random = new Random(52);
+        for (int i = 0; i < 60; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = i % 10 == 0 ? start : TestGrids.walkableCell(grid, random);
+            GridPath path = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+            if (path == null) {
+                continue;
+            }
+            GridPath decoded = GridPath.decodeRuns(grid.width, path.encodeRuns());
+            assertArrayEquals(path.cells().toArray(), decoded.cells().toArray());
+            assertArrayEquals(path.waypoints(), decoded.waypoints());
+            assertEquals(path.cost(), decoded.cost(), 1e-9);
+        }
+    }
+
+    @Test
+    public void emptyPathRoundTrips() {
+        GridPath decoded = GridPath.decodeRuns(10, new GridPath(10, new int[0], 0).encodeRuns());
+        assertEquals(0, decoded.waypointCount());
+        assertEquals(0, decoded.cost(), 0);
+    }
+}
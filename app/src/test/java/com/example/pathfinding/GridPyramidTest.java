@@ -0,0 +1,52 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class GridPyramidTest {
+
+    @Test
+    public void pathsAreNoShorterThanOptimal() {
+        JpsGrid grid = TestGrids.rooms(256, 256);
+        GridPyramid pyramid = new GridPyramid(grid);
+        Random random = new Random(5);
+        for (int i = 0; i < 50; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = TestGrids.walkableCell(grid, random);
+            GridPyramid.Result result = pyramid.findPath(start[0], start[1], goal[0], goal[1], true);
+            assertTrue(result.isGapExact());
+            assertEquals(TestGrids.dijkstra(grid, start[0], start[1], goal[0], goal[1]), result.optimalCost, 1e-9);
+            assertEquals(result.path.cost(),
+                    TestGrids.walkCost(grid, result.path, start[0], start[1], goal[0], goal[1]), 1e-9);
+            assertTrue(result.path.cost() >= result.optimalCost - 1e-9);
+            assertTrue(result.optimalCost >= result.lowerBound - 1e-9);
+        }
+    }
+
+    @Test
+    public void slicedSearchMatchesFindPath() {
+        JpsGrid grid = TestGrids.random(200, 200, 10, 6);
+        GridPyramid pyramid = new GridPyramid(grid);
+        Random random = new Random(7);
+        for (int i = 0; i < 30; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = TestGrids.walkableCell(grid, random);
+            GridPath expected = pyramid.findPath(start[0], start[1], goal[0], goal[1]).path;
+            SearchHandle search = pyramid.begin(start[0], start[1], goal[0], goal[1]);
+            while (!search.step(16)) {
+                // a slice per frame
+            }
+            if (expected == null) {
+                assertNull(search.result());
+            } else {
+                assertEquals(expected.cost(), search.result().cost(), 0);
+                assertArrayEquals(expected.waypoints(), search.result().waypoints());
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    // Each percentile is the sorted sample at its rank, rounded up to its
+    // bucket's highest value: exact below 256, within 1/128 above
+    @Test
+    public void percentilesMatchSortedSamples() {
+        Random random = new Random(91);
+        for (int n : new int[]{1, 7, 1000, 20000}) {
+            LatencyHistogram histogram = new LatencyHistogram();
+            long[] samples = new long[n];
+            long sum = 0;
+            for (int i = 0; i < n; i++) {
+                // Log-uniform from 1 ns to about 17 s
+                samples[i] = (long) Math.pow(2, random.nextDouble() * 34);
+                histogram.record(samples[i]);
+                sum += samples[i];
+            }
+            Arrays.sort(samples);
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            assertEquals(n, snapshot.count);
+            assertEquals(samples[n - 1], snapshot.max);
+            assertEquals((double) sum / n, snapshot.mean, 1e-6);
+            checkPercentile(samples, 0.50, snapshot.p50);
+            checkPercentile(samples, 0.90, snapshot.p90);
+            checkPercentile(samples, 0.99, snapshot.p99);
+            checkPercentile(samples, 0.999, snapshot.p999);
+        }
+    }
+
+    @Test
+    public void emptyAndResetReportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(5_000_000);
+        histogram.reset();
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.count);
+        assertEquals(0, snapshot.max);
+        assertEquals(0, snapshot.p50);
+        assertEquals(0, snapshot.p999);
+    }
+
+    private static void checkPercentile(long[] sorted, double q, long reported) {
+        long exact = sorted[(int) Math.max(1, Math.ceil(q * sorted.length)) - 1];
+        assertTrue(reported >= exact);
+        assertTrue(reported - exact <= exact / 128);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class MoveMasksTest {
+
+    @Test
+    public void bitsFollowMoveOrder() {
+        for (int d = 0; d < 8; d++) {
+            assertEquals(1 << d, MoveMasks.bit(AstarAlgorithm.DX[d], AstarAlgorithm.DY[d]));
+        }
+    }
+
+    // Bit d says exactly whether the destination of move d is on the map and
+    // walkable, whatever the cell itself is; 130 wide so the packed rows have
+    // a word boundary and a partial last word
+    @Test
+    public void eachBitIsItsDestination() {
+        JpsGrid grid = TestGrids.random(130, 40, 30, 1);
+        MoveMasks masks = new MoveMasks(grid);
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                int mask = masks.of(y * grid.width + x);
+                for (int d = 0; d < 8; d++) {
+                    int nx = x + AstarAlgorithm.DX[d], ny = y + AstarAlgorithm.DY[d];
+                    boolean open = nx >= 0 && nx < grid.width && ny >= 0 && ny < grid.height
+                            && grid.isWalkable(nx, ny);
+                    assertEquals(open, (mask & (1 << d)) != 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void enclosedCellHasOnlyItsOpening() {
+        JpsGrid grid = new JpsGrid(3, 3);
+        grid.setWalkable(1, 1, true);
+        grid.setWalkable(2, 1, true);
+        MoveMasks masks = new MoveMasks(grid);
+        assertEquals(MoveMasks.bit(1, 0), masks.of(4));
+        assertEquals(MoveMasks.bit(-1, 0), masks.of(5));
+        assertEquals(MoveMasks.bit(0, 1) | MoveMasks.bit(1, 1), masks.of(1)); // blocked cells have moves too
+    }
+
+    // An edit changes only the bit pointing at the edited cell, in each of
+    // its neighbours
+    @Test
+    public void editsFlipOnlyTheBitsIntoTheCell() {
+        JpsGrid grid = TestGrids.random(100, 80, 20, 3);
+        MoveMasks masks = new MoveMasks(grid);
+        Random random = new Random(4);
+        int[] before = new int[grid.width * grid.height];
+        for (int i = 0; i < 200; i++) {
+            for (int c = 0; c < before.length; c++) {
+                before[c] = masks.of(c);
+            }
+            int x = random.nextInt(grid.width), y = random.nextInt(grid.height);
+            boolean walkable = random.nextBoolean();
+            masks.setWalkable(x, y, walkable);
+            for (int c = 0; c < before.length; c++) {
+                int dx = x - c % grid.width, dy = y - c / grid.width;
+                int expected = before[c];
+                if (Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && (dx != 0 || dy != 0)) {
+                    int bit = MoveMasks.bit(dx, dy);
+                    expected = walkable ? expected | bit : expected & ~bit;
+                }
+                assertEquals(expected, masks.of(c));
+            }
+        }
+    }
+
+    @Test
+    public void updateRefreshesARectangleEditedOnTheGrid() {
+        JpsGrid grid = TestGrids.random(100, 80, 20, 5);
+        MoveMasks masks = new MoveMasks(grid);
+        for (int y = 10; y < 20; y++) {
+            for (int x = 30; x < 60; x++) {
+                grid.setWalkable(x, y, (x + y) % 3 != 0);
+            }
+        }
+        masks.update(30, 10, 59, 19);
+        MoveMasks fresh = new MoveMasks(grid);
+        for (int c = 0; c < grid.width * grid.height; c++) {
+            assertEquals(fresh.of(c), masks.of(c));
+        }
+    }
+
+    @Test
+    public void cornerCuttingDropsDiagonalsMissingACardinal() {
+        for (int mask = 0; mask < 256; mask++) {
+            int result = MoveMasks.withoutCornerCutting(mask);
+            assertEquals(mask & 0x0F, result & 0x0F);
+            for (int d = 4; d < 8; d++) {
+                int dx = AstarAlgorithm.DX[d], dy = AstarAlgorithm.DY[d];
+                boolean kept = (mask & (1 << d)) != 0
+                        && (mask & MoveMasks.bit(dx, 0)) != 0 && (mask & MoveMasks.bit(0, dy)) != 0;
+                assertEquals(kept, (result & (1 << d)) != 0);
+            }
+        }
+    }
+
+    // A* reading the masks must find the same paths as A* looking cells up
+    @Test
+    public void astarWithMasksFindsTheSamePaths() {
+        JpsGrid grid = TestGrids.random(150, 150, 25, 5);
+        MoveMasks masks = new MoveMasks(grid);
+        SearchContext ctx = new SearchContext(grid.width * grid.height);
+        Random random = new Random(6);
+        for (int i = 0; i < 40; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = TestGrids.walkableCell(grid, random);
+            GridPath plain = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+            SearchHandle search = AstarAlgorithm.begin(grid, start[0], start[1], goal[0], goal[1], ctx, null, masks);
+            search.step(Integer.MAX_VALUE);
+            GridPath masked = search.result();
+            if (plain == null) {
+                assertNull(masked);
+            } else {
+                assertArrayEquals(plain.waypoints(), masked.waypoints());
+                assertEquals(plain.cost(), masked.cost(), 0);
+            }
+        }
+    }
+}
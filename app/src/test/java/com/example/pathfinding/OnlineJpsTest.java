@@ -0,0 +1,51 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class OnlineJpsTest {
+
+    @Test
+    public void costsMatchDijkstra() {
+        JpsGrid[] grids = {TestGrids.random(150, 120, 25, 1), TestGrids.rooms(200, 200), TestGrids.open(200, 150, 2)};
+        Random random = new Random(11);
+        for (JpsGrid grid : grids) {
+            OnlineJps jps = new OnlineJps(grid);
+            SearchContext ctx = new SearchContext(grid.width * grid.height);
+            for (int i = 0; i < 40; i++) {
+                assertQuery(grid, jps, ctx, TestGrids.walkableCell(grid, random), TestGrids.walkableCell(grid, random));
+            }
+        }
+    }
+
+    // The cache must forget every jump an edit can change
+    @Test
+    public void costsMatchDijkstraAfterEdits() {
+        JpsGrid grid = TestGrids.random(120, 100, 15, 4);
+        OnlineJps jps = new OnlineJps(grid);
+        SearchContext ctx = new SearchContext(grid.width * grid.height);
+        Random random = new Random(12);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 5; i++) {
+                assertQuery(grid, jps, ctx, TestGrids.walkableCell(grid, random), TestGrids.walkableCell(grid, random));
+            }
+            for (int i = 0; i < 30; i++) {
+                jps.setWalkable(random.nextInt(grid.width), random.nextInt(grid.height), random.nextBoolean());
+            }
+        }
+    }
+
+    private static void assertQuery(JpsGrid grid, OnlineJps jps, SearchContext ctx, int[] start, int[] goal) {
+        double expected = TestGrids.dijkstra(grid, start[0], start[1], goal[0], goal[1]);
+        GridPath path = jps.findPath(start[0], start[1], goal[0], goal[1], ctx);
+        if (expected < 0) {
+            assertNull(path);
+            return;
+        }
+        assertEquals(expected, path.cost(), 1e-9);
+        assertEquals(expected, TestGrids.walkCost(grid, path, start[0], start[1], goal[0], goal[1]), 1e-9);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import org.junit.Test;
+
+public class PathDatabaseTest {
+
+    // A wall down the middle leaves about half the goals unreachable
+    @Test
+    public void costsMatchDijkstra() throws IOException {
+        JpsGrid grid = TestGrids.random(40, 30, 35, 21);
+        for (int y = 0; y < grid.height; y++) {
+            grid.setWalkable(20, y, false);
+        }
+        File file = File.createTempFile("paths", ".pdb");
+        try (PathDatabase database = PathDatabase.build(grid, file)) {
+            Random random = new Random(22);
+            for (int i = 0; i < 200; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = i % 20 == 0 ? start : TestGrids.walkableCell(grid, random);
+                double expected = TestGrids.dijkstra(grid, start[0], start[1], goal[0], goal[1]);
+                GridPath path = database.findPath(start[0], start[1], goal[0], goal[1]);
+                if (expected < 0) {
+                    assertNull(path);
+                    continue;
+                }
+                assertEquals(expected, path.cost(), 1e-9);
+                assertEquals(expected, TestGrids.walkCost(grid, path, start[0], start[1], goal[0], goal[1]), 1e-9);
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void pathToItselfIsOneWaypoint() throws IOException {
+        JpsGrid grid = TestGrids.random(20, 20, 20, 23);
+        int[] cell = TestGrids.walkableCell(grid, new Random(24));
+        File file = File.createTempFile("paths", ".pdb");
+        try (PathDatabase database = PathDatabase.build(grid, file)) {
+            GridPath path = database.findPath(cell[0], cell[1], cell[0], cell[1]);
+            assertEquals(1, path.waypointCount());
+            assertEquals(1, path.cellCount());
+            assertEquals(0, path.cost(), 0);
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class PathServiceTest {
+
+    // The single worker is held up, so both queries are still queued when the
+    // second one supersedes the first
+    @Test
+    public void secondSubmitOnAChannelCancelsTheFirst() throws Exception {
+        JpsGrid grid = TestGrids.rooms(200, 200);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PathService service = new PathService(grid, null, executor);
+            CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            CompletableFuture<GridPath> first = service.submit("view", PathService.Engine.ASTAR, 1, 1, 190, 190);
+            CompletableFuture<GridPath> other = service.submit("other", PathService.Engine.ASTAR, 1, 1, 120, 30);
+            CompletableFuture<GridPath> second = service.submit("view", PathService.Engine.ASTAR, 1, 1, 60, 140);
+            assertTrue(first.isCancelled());
+            release.countDown();
+
+            GridPath path = second.get(10, TimeUnit.SECONDS);
+            assertEquals(TestGrids.dijkstra(grid, 1, 1, 60, 140), path.cost(), 1e-9);
+            assertEquals(path.cost(), TestGrids.walkCost(grid, path, 1, 1, 60, 140), 1e-9);
+            assertEquals(TestGrids.dijkstra(grid, 1, 1, 120, 30), other.get(10, TimeUnit.SECONDS).cost(), 1e-9);
+            try {
+                first.get();
+                fail("the superseded query delivered a result");
+            } catch (CancellationException expected) {
+                // only the second query's path is delivered
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class PathSmootherTest {
+
+    // Smoothing only drops waypoints, and the cells between the kept ones are
+    // still a legal walk from start to goal, on maps dense enough for A* to
+    // squeeze past corners that LineOfSight refuses
+    @Test
+    public void neverAddsWaypointsAndStaysWalkable() {
+        for (int seed = 1; seed <= 3; seed++) {
+            JpsGrid grid = TestGrids.random(120, 120, 15 * seed, seed);
+            SearchContext ctx = new SearchContext(grid.width * grid.height);
+            Random random = new Random(seed + 10);
+            for (int i = 0; i < 40; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = TestGrids.walkableCell(grid, random);
+                GridPath path = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+                if (path == null) {
+                    continue;
+                }
+                GridPath smoothed = PathSmoother.smooth(grid, path);
+                assertTrue(smoothed.waypointCount() <= path.waypointCount());
+                assertTrue(TestGrids.walkCost(grid, smoothed, start[0], start[1], goal[0], goal[1]) >= 0);
+            }
+        }
+    }
+
+    // The only route squeezes diagonally between two blocks, which
+    // LineOfSight does not let a shortcut do
+    @Test
+    public void keepsASegmentThroughADiagonalGap() {
+        JpsGrid grid = new JpsGrid(6, 6);
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 6; x++) {
+                grid.setWalkable(x, y, x < 3 == y < 3);
+            }
+        }
+        GridPath path = AstarAlgorithm.findPath(grid, 0, 2, 5, 3, new SearchContext(36));
+        GridPath smoothed = PathSmoother.smooth(grid, path);
+        assertEquals(4, path.waypointCount());
+        assertTrue(smoothed.waypointCount() <= path.waypointCount());
+        assertEquals(TestGrids.dijkstra(grid, 0, 2, 5, 3), TestGrids.walkCost(grid, smoothed, 0, 2, 5, 3), 1e-9);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class QuadtreeGridTest {
+
+    // Random rectangles opened and closed a cell at a time, so nodes keep
+    // splitting and merging back
+    @Test
+    public void editsKeepTheTreeMinimal() {
+        JpsGrid plain = TestGrids.random(100, 70, 10, 31);
+        QuadtreeGrid tree = QuadtreeGrid.copyOf(plain);
+        Random random = new Random(32);
+        for (int i = 0; i < 60; i++) {
+            int x0 = random.nextInt(plain.width), y0 = random.nextInt(plain.height);
+            int x1 = Math.min(plain.width, x0 + 1 + random.nextInt(30));
+            int y1 = Math.min(plain.height, y0 + 1 + random.nextInt(30));
+            boolean walkable = random.nextInt(3) > 0;
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    boolean cell = random.nextInt(50) == 0 ? !walkable : walkable;
+                    plain.setWalkable(x, y, cell);
+                    tree.setWalkable(x, y, cell);
+                }
+            }
+            int[] counts = new int[2];
+            check(tree, tree.rootRef(), counts);
+            assertEquals(tree.nodeCount(), counts[0]);
+            assertEquals(tree.leafCount(), counts[1]);
+            QuadtreeGrid fresh = QuadtreeGrid.copyOf(plain);
+            assertEquals(fresh.nodeCount(), tree.nodeCount());
+            assertEquals(fresh.leafCount(), tree.leafCount());
+        }
+        for (int y = -1; y <= plain.height; y++) {
+            for (int x = -1; x <= plain.width; x++) {
+                assertEquals(plain.isWalkable(x, y), tree.isWalkable(x, y));
+            }
+        }
+    }
+
+    // Leaves hold mixed cells only, and no split node has four children
+    // that are the same uniform node; counts[0..1] gathers nodes and leaves
+    private static void check(QuadtreeGrid tree, int ref, int[] counts) {
+        if (ref == QuadtreeGrid.FREE || ref == QuadtreeGrid.BLOCKED) {
+            return;
+        }
+        if (ref <= QuadtreeGrid.LEAF_BASE) {
+            long bits = tree.leafBits(ref);
+            assertNotEquals(0L, bits);
+            assertNotEquals(-1L, bits);
+            counts[1]++;
+            return;
+        }
+        counts[0]++;
+        int first = tree.child(ref, 0);
+        boolean mergeable = first == QuadtreeGrid.FREE || first == QuadtreeGrid.BLOCKED;
+        for (int q = 0; q < 4; q++) {
+            mergeable &= tree.child(ref, q) == first;
+            check(tree, tree.child(ref, q), counts);
+        }
+        assertFalse(mergeable);
+    }
+}
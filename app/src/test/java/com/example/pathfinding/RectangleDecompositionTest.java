@@ -0,0 +1,80 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+
+public class RectangleDecompositionTest {
+
+    // Opened cells merge as they go: two rows opened cell by cell end up as
+    // one rectangle, not forty
+    @Test
+    public void openingCellsMergesThem() {
+        JpsGrid grid = new JpsGrid(20, 5);
+        RectangleDecomposition rects = new RectangleDecomposition(grid);
+        for (int y = 2; y <= 3; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                rects.setWalkable(x, y, true);
+            }
+        }
+        assertEquals(1, rects.rectangleCount());
+        check(grid, rects);
+    }
+
+    @Test
+    public void editsKeepAnExactCoverAndRsrOptimal() {
+        JpsGrid grid = TestGrids.random(80, 60, 25, 101);
+        RectangleDecomposition rects = new RectangleDecomposition(grid);
+        RsrSearch rsr = new RsrSearch(grid, rects);
+        SearchContext ctx = new SearchContext(grid.width * grid.height);
+        Random random = new Random(102);
+        for (int i = 0; i < 400; i++) {
+            rects.setWalkable(random.nextInt(grid.width), random.nextInt(grid.height), random.nextInt(3) > 0);
+            if (i % 50 != 49) {
+                continue;
+            }
+            check(grid, rects);
+            for (int q = 0; q < 10; q++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = TestGrids.walkableCell(grid, random);
+                GridPath expected = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+                GridPath actual = rsr.findPath(start[0], start[1], goal[0], goal[1], ctx);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.cost(), actual.cost(), 1e-9);
+                }
+            }
+        }
+    }
+
+    // Every walkable cell lies in exactly the rectangle it is labelled with,
+    // every rectangle is walkable and labelled throughout, and the count matches
+    private static void check(JpsGrid grid, RectangleDecomposition rects) {
+        Set<Integer> ids = new HashSet<>();
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                int r = rects.rectangleAt(x, y);
+                if (!grid.isWalkable(x, y)) {
+                    assertEquals(RectangleDecomposition.NONE, r);
+                    continue;
+                }
+                assertTrue(r != RectangleDecomposition.NONE);
+                assertTrue(x >= rects.x0[r] && x <= rects.x1[r] && y >= rects.y0[r] && y <= rects.y1[r]);
+                if (ids.add(r)) {
+                    for (int cy = rects.y0[r]; cy <= rects.y1[r]; cy++) {
+                        for (int cx = rects.x0[r]; cx <= rects.x1[r]; cx++) {
+                            assertEquals(r, rects.rectangleAt(cx, cy));
+                        }
+                    }
+                }
+            }
+        }
+        assertEquals(ids.size(), rects.rectangleCount());
+    }
+}
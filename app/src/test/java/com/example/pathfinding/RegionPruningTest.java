@@ -0,0 +1,70 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class RegionPruningTest {
+
+    // Corridors every 8 rows with dead-end stubs hanging off them
+    private static JpsGrid stubs(int width, int height, long seed) {
+        Random random = new Random(seed);
+        JpsGrid grid = new JpsGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.setWalkable(x, y, y % 8 == 0 || x % 64 == 0
+                        || (x % 8 == 4 && y % 8 != 7 && random.nextInt(3) > 0));
+            }
+        }
+        return grid;
+    }
+
+    @Test
+    public void prunedViewsKeepShortestPathCosts() {
+        JpsGrid[] grids = {TestGrids.random(256, 256, 25, 7), TestGrids.rooms(256, 256), stubs(256, 256, 8)};
+        Random random = new Random(9);
+        for (JpsGrid grid : grids) {
+            RegionPruning pruning = new RegionPruning(grid);
+            SearchContext ctx = new SearchContext(grid.width * grid.height);
+            for (int i = 0; i < 100; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = TestGrids.walkableCell(grid, random);
+                GridPath expected = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+                JpsGrid view = pruning.view(start[0], start[1], goal[0], goal[1]);
+                GridPath actual = AstarAlgorithm.findPath(view, start[0], start[1], goal[0], goal[1], ctx);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertNotNull(actual);
+                    assertEquals(expected.cost(), actual.cost(), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void viewHidesExactlyThePrunedCells() {
+        JpsGrid grid = stubs(300, 200, 10);
+        RegionPruning pruning = new RegionPruning(grid);
+        assertTrue(pruning.prunedCellCount() > 0);
+        JpsGrid view = pruning.view(-1, -1, -1, -1); // keeps no group
+        int hidden = 0;
+        for (int y = 0; y < grid.height; y++) {
+            for (int w = 0; w < grid.wordsPerRow; w++) {
+                long word = view.word(y, w);
+                assertEquals(0, word & ~grid.word(y, w));
+                hidden += Long.bitCount(grid.word(y, w) & ~word);
+                for (int b = 0; b < 64 && (w << 6) + b < grid.width; b++) {
+                    assertEquals(((word >>> b) & 1) != 0, view.isWalkable((w << 6) + b, y));
+                }
+            }
+        }
+        assertEquals(pruning.prunedCellCount(), hidden);
+        assertFalse(view.isWalkable(-1, 0));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class RsrSearchTest {
+
+    @Test
+    public void costsMatchAstar() {
+        JpsGrid[] grids = {TestGrids.random(200, 150, 20, 1), TestGrids.rooms(200, 200), TestGrids.open(200, 200, 2)};
+        Random random = new Random(3);
+        for (JpsGrid grid : grids) {
+            RsrSearch rsr = new RsrSearch(grid, new RectangleDecomposition(grid));
+            SearchContext ctx = new SearchContext(grid.width * grid.height);
+            for (int i = 0; i < 100; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = TestGrids.walkableCell(grid, random);
+                GridPath expected = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+                GridPath actual = rsr.findPath(start[0], start[1], goal[0], goal[1], ctx);
+                if (expected == null) {
+                    assertNull(actual);
+                } else {
+                    assertEquals(expected.cost(), actual.cost(), 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void slicedSearchMatchesFindPath() {
+        JpsGrid grid = TestGrids.rooms(150, 150);
+        RsrSearch rsr = new RsrSearch(grid, new RectangleDecomposition(grid));
+        SearchContext ctx = new SearchContext(grid.width * grid.height);
+        Random random = new Random(4);
+        for (int i = 0; i < 30; i++) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] goal = TestGrids.walkableCell(grid, random);
+            GridPath expected = rsr.findPath(start[0], start[1], goal[0], goal[1], ctx);
+            SearchHandle search = rsr.begin(start[0], start[1], goal[0], goal[1], ctx);
+            while (!search.step(16)) {
+                // a slice per frame
+            }
+            assertEquals(expected.cost(), search.result().cost(), 0);
+            assertArrayEquals(expected.waypoints(), search.result().waypoints());
+        }
+    }
+}
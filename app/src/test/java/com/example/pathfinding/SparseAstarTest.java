@@ -0,0 +1,76 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Random;
+import org.junit.Test;
+
+public class SparseAstarTest {
+
+    @Test
+    public void costsMatchAstarOnATiledGrid() throws Exception {
+        JpsGrid grid = TestGrids.random(600, 400, 20, 3);
+        File file = File.createTempFile("sparse", ".grid");
+        try (TiledJpsGrid tiled = TiledJpsGrid.copyOf(grid, file, 64, 1 << 13)) {
+            SparseAstar sparse = new SparseAstar(tiled, 1 << 20);
+            SearchContext ctx = new SearchContext(grid.width * grid.height);
+            Random random = new Random(4);
+            for (int i = 0; i < 30; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = TestGrids.walkableCell(grid, random);
+                GridPath expected = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+                GridPath actual = sparse.findPath(start[0], start[1], goal[0], goal[1]);
+                if (expected == null) {
+                    assertNull(actual);
+                    continue;
+                }
+                assertEquals(expected.cost(), actual.cost(), 0);
+                int[] points = sparse.findWaypoints(start[0], start[1], goal[0], goal[1]);
+                int[] cells = actual.waypoints();
+                assertEquals(cells.length * 2, points.length);
+                for (int k = 0; k < cells.length; k++) {
+                    assertEquals(cells[k], points[2 * k + 1] * grid.width + points[2 * k]);
+                }
+            }
+            assertTrue(tiled.residentBytes() <= 1 << 13);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void givesUpAtTheNodeBudget() {
+        JpsGrid grid = TestGrids.open(300, 300, 5);
+        SparseAstar sparse = new SparseAstar(grid, 500);
+        assertNull(sparse.findPath(0, 0, 299, 299));
+        assertTrue(sparse.budgetExceeded());
+        assertEquals(500, sparse.nodeCount());
+    }
+
+    @Test
+    public void searchesAHundredThousandSquareMap() throws Exception {
+        File file = File.createTempFile("sparse", ".grid");
+        try (TiledJpsGrid huge = TiledJpsGrid.create(file, 100_000, 100_000, 256, 1 << 20)) {
+            // A 300 x 100 room with a wall down the middle, open at the bottom
+            for (int y = 60_000; y < 60_100; y++) {
+                for (int x = 70_000; x < 70_300; x++) {
+                    huge.setWalkable(x, y, x != 70_150 || y == 60_099);
+                }
+            }
+            SparseAstar sparse = new SparseAstar(huge, 100_000);
+            int[] points = sparse.findWaypoints(70_100, 60_000, 70_200, 60_000);
+            assertEquals(70_100, points[0]);
+            assertEquals(60_000, points[1]);
+            assertArrayEquals(new int[]{70_200, 60_000},
+                    new int[]{points[points.length - 2], points[points.length - 1]});
+            assertNull(sparse.findPath(70_100, 60_000, 70_200, 60_000)); // too many cells for a GridPath
+            assertTrue(huge.residentBytes() <= 1 << 20);
+        } finally {
+            file.delete();
+        }
+    }
+}
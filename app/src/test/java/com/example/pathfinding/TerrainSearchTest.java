@@ -0,0 +1,115 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import org.junit.Test;
+
+public class TerrainSearchTest {
+
+    // Costs 1..8 with a fifth of the cells blocked, and 3..8 so the
+    // heuristic is scaled by a minimum cost above 1
+    @Test
+    public void costsMatchWeightedDijkstra() {
+        for (int minCost = 1; minCost <= 3; minCost += 2) {
+            CostGrid grid = randomCosts(80, 60, minCost, 70 + minCost);
+            TerrainSearch astar = new TerrainSearch(grid);
+            TerrainSearch dijkstra = new TerrainSearch(grid, false);
+            Random random = new Random(71 + minCost);
+            for (int i = 0; i < 40; i++) {
+                int[] start = walkableCell(grid, random);
+                int[] goal = walkableCell(grid, random);
+                double expected = weightedDijkstra(grid, start[0], start[1], goal[0], goal[1]);
+                for (TerrainSearch search : new TerrainSearch[]{astar, dijkstra}) {
+                    GridPath path = search.findPath(start[0], start[1], goal[0], goal[1]);
+                    if (expected < 0) {
+                        assertNull(path);
+                        continue;
+                    }
+                    assertEquals(expected, path.cost(), 1e-9);
+                    assertEquals(expected, walkCost(grid, path), 1e-9);
+                }
+            }
+        }
+    }
+
+    private static CostGrid randomCosts(int width, int height, int minCost, long seed) {
+        Random random = new Random(seed);
+        CostGrid grid = new CostGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.setCost(x, y, random.nextInt(5) == 0 ? CostGrid.BLOCKED : minCost + random.nextInt(9 - minCost));
+            }
+        }
+        grid.updateMinCost();
+        return grid;
+    }
+
+    private static int[] walkableCell(CostGrid grid, Random random) {
+        while (true) {
+            int x = random.nextInt(grid.width);
+            int y = random.nextInt(grid.height);
+            if (grid.isWalkable(x, y)) {
+                return new int[]{x, y};
+            }
+        }
+    }
+
+    // Textbook Dijkstra where stepping into a cell costs 10 or 14 times its
+    // cost; in tiles, or -1
+    private static double weightedDijkstra(CostGrid grid, int startX, int startY, int goalX, int goalY) {
+        int[] dist = new int[grid.width * grid.height];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        int start = startY * grid.width + startX;
+        int goal = goalY * grid.width + goalX;
+        dist[start] = 0;
+        PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        open.add(new long[]{0, start});
+        while (!open.isEmpty()) {
+            long[] top = open.poll();
+            int cell = (int) top[1];
+            if (top[0] != dist[cell]) {
+                continue;
+            }
+            if (cell == goal) {
+                return dist[cell] / 10.0;
+            }
+            int x = cell % grid.width, y = cell / grid.width;
+            for (int d = 0; d < 8; d++) {
+                int nx = x + AstarAlgorithm.DX[d], ny = y + AstarAlgorithm.DY[d];
+                if (!grid.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int n = ny * grid.width + nx;
+                int nd = dist[cell] + AstarAlgorithm.STEP_COST[d] * grid.cost(n);
+                if (nd < dist[n]) {
+                    dist[n] = nd;
+                    open.add(new long[]{nd, n});
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Weighted cost of walking the path's cells, -1 on an illegal step
+    private static double walkCost(CostGrid grid, GridPath path) {
+        PrimitiveIterator.OfInt cells = path.cellIterator();
+        int previous = cells.nextInt();
+        int cost = 0;
+        while (cells.hasNext()) {
+            int cell = cells.nextInt();
+            int dx = Math.abs(cell % grid.width - previous % grid.width);
+            int dy = Math.abs(cell / grid.width - previous / grid.width);
+            if (dx > 1 || dy > 1 || grid.cost(cell) == CostGrid.BLOCKED) {
+                return -1;
+            }
+            cost += (dx + dy == 2 ? 14 : 10) * grid.cost(cell);
+            previous = cell;
+        }
+        return cost / 10.0;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.pathfinding;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+// Maps shared by the engine tests: random obstacles, rooms joined by doors,
+// and open ground with a few scattered obstacles. Also the plain references the
+// engines are checked against: a queue BFS and a textbook Dijkstra, both with
+// AstarAlgorithm's moves (a move needs only its destination walkable).
+final class TestGrids {
+    private TestGrids() {
+    }
+
+    static JpsGrid random(int width, int height, int blockedPercent, long seed) {
+        Random random = new Random(seed);
+        JpsGrid grid = new JpsGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.setWalkable(x, y, random.nextInt(100) >= blockedPercent);
+            }
+        }
+        return grid;
+    }
+
+    // Walls every 50 cells with a 10-cell door in each wall segment
+    static JpsGrid rooms(int width, int height) {
+        JpsGrid grid = new JpsGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                boolean wall = (x % 50 == 0 || y % 50 == 0) && (x % 50 + y % 50) % 50 < 40;
+                grid.setWalkable(x, y, !wall);
+            }
+        }
+        return grid;
+    }
+
+    static JpsGrid open(int width, int height, long seed) {
+        Random random = new Random(seed);
+        JpsGrid grid = new JpsGrid(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid.setWalkable(x, y, random.nextInt(1000) >= 5);
+            }
+        }
+        return grid;
+    }
+
+    // A random walkable cell, as {x, y}
+    static int[] walkableCell(JpsGrid grid, Random random) {
+        while (true) {
+            int x = random.nextInt(grid.width);
+            int y = random.nextInt(grid.height);
+            if (grid.isWalkable(x, y)) {
+                return new int[]{x, y};
+            }
+        }
+    }
+
+    // Hops from the nearest source (x, y pairs) to every cell, row-major, -1
+    // for unreachable cells
+    static int[] bfs(JpsGrid grid, int... sources) {
+        int[] hops = new int[grid.width * grid.height];
+        Arrays.fill(hops, -1);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int i = 0; i + 1 < sources.length; i += 2) {
+            int cell = sources[i + 1] * grid.width + sources[i];
+            if (grid.isWalkable(sources[i], sources[i + 1]) && hops[cell] < 0) {
+                hops[cell] = 0;
+                queue.add(cell);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int cell = queue.poll();
+            int x = cell % grid.width, y = cell / grid.width;
+            for (int d = 0; d < 8; d++) {
+                int nx = x + AstarAlgorithm.DX[d], ny = y + AstarAlgorithm.DY[d];
+                int n = ny * grid.width + nx;
+                if (grid.isWalkable(nx, ny) && hops[n] < 0) {
+                    hops[n] = hops[cell] + 1;
+                    queue.add(n);
+                }
+            }
+        }
+        return hops;
+    }
+
+    // Shortest path cost in tiles (10/14 costs divided by 10), or -1
+    static double dijkstra(JpsGrid grid, int startX, int startY, int goalX, int goalY) {
+        if (!grid.isWalkable(startX, startY) || !grid.isWalkable(goalX, goalY)) {
+            return -1;
+        }
+        int[] dist = new int[grid.width * grid.height];
+        Arrays.fill(dist, Integer.MAX_VALUE);
+        int start = startY * grid.width + startX;
+        int goal = goalY * grid.width + goalX;
+        dist[start] = 0;
+        PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        open.add(new long[]{0, start});
+        while (!open.isEmpty()) {
+            long[] top = open.poll();
+            int cell = (int) top[1];
+            if (top[0] != dist[cell]) {
+                continue;
+            }
+            if (cell == goal) {
+                return dist[cell] / 10.0;
+            }
+            int x = cell % grid.width, y = cell / grid.width;
+            for (int d = 0; d < 8; d++) {
+                int nx = x + AstarAlgorithm.DX[d], ny = y + AstarAlgorithm.DY[d];
+                if (!grid.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int n = ny * grid.width + nx;
+                int nd = dist[cell] + AstarAlgorithm.STEP_COST[d];
+                if (nd < dist[n]) {
+                    dist[n] = nd;
+                    open.add(new long[]{nd, n});
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Cost in tiles of walking the path's cells, or -1 when a step is not a
+    // legal move or the path does not run from start to goal
+    static double walkCost(JpsGrid grid, GridPath path, int startX, int startY, int goalX, int goalY) {
+        java.util.PrimitiveIterator.OfInt cells = path.cellIterator();
+        int previous = cells.nextInt();
+        if (previous != startY * grid.width + startX) {
+            return -1;
+        }
+        int cost = 0;
+        while (cells.hasNext()) {
+            int cell = cells.nextInt();
+            int dx = cell % grid.width - previous % grid.width;
+            int dy = cell / grid.width - previous / grid.width;
+            if (Math.abs(dx) > 1 || Math.abs(dy) > 1 || (dx == 0 && dy == 0)
+                    || !grid.isWalkable(cell % grid.width, cell / grid.width)) {
+                return -1;
+            }
+            cost += dx != 0 && dy != 0 ? 14 : 10;
+            previous = cell;
+        }
+        return previous == goalY * grid.width + goalX ? cost / 10.0 : -1;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class ThetaStarSearchTest {
+    // A* prices diagonals at 1.4, Theta* at sqrt(2)
+    private static final double SLACK = Math.sqrt(2) / 1.4;
+
+    // Both modes, on maps dense enough that many routes squeeze past corners
+    @Test
+    public void neverLongerThanAstar() {
+        for (int seed = 1; seed <= 4; seed++) {
+            JpsGrid grid = TestGrids.random(80, 80, 10 * seed, seed);
+            SearchContext ctx = new SearchContext(grid.width * grid.height);
+            ThetaStarSearch lazy = new ThetaStarSearch(grid, true);
+            ThetaStarSearch eager = new ThetaStarSearch(grid, false);
+            Random random = new Random(seed + 40);
+            for (int i = 0; i < 60; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                int[] goal = TestGrids.walkableCell(grid, random);
+                JpsNode s = new JpsNode(start[0], start[1]);
+                JpsNode g = new JpsNode(goal[0], goal[1]);
+                GridPath astar = AstarAlgorithm.findPath(grid, start[0], start[1], goal[0], goal[1], ctx);
+                for (ThetaStarSearch theta : new ThetaStarSearch[]{lazy, eager}) {
+                    GridPath path = theta.findPath(s, g, ctx);
+                    if (astar == null) {
+                        assertNull(path);
+                        continue;
+                    }
+                    assertNotNull(path);
+                    assertTrue(path.cost() <= astar.cost() * SLACK + 1e-9);
+                    assertTrue(path.cost() >= Math.hypot(goal[0] - start[0], goal[1] - start[1]) - 1e-9);
+                }
+            }
+        }
+    }
+
+    // The only route squeezes diagonally between two blocks, as A* may
+    @Test
+    public void cutsCornersLikeAstar() {
+        JpsGrid grid = new JpsGrid(6, 6);
+        for (int y = 0; y < 6; y++) {
+            for (int x = 0; x < 6; x++) {
+                grid.setWalkable(x, y, x < 3 == y < 3);
+            }
+        }
+        GridPath path = new ThetaStarSearch(grid).findPath(new JpsNode(0, 0), new JpsNode(5, 5));
+        assertEquals(2, path.waypointCount());
+        assertEquals(5 * Math.sqrt(2), path.cost(), 1e-9);
+        assertTrue(LineOfSight.betweenCuttingCorners(grid, 0, 0, 5, 5));
+        assertFalse(LineOfSight.between(grid, 0, 0, 5, 5));
+    }
+
+    // Points sampled along a visible segment, off the cell boundaries, all lie
+    // in walkable cells
+    @Test
+    public void cornerCuttingSightCrossesOnlyWalkableCells() {
+        JpsGrid grid = TestGrids.random(40, 40, 20, 7);
+        Random random = new Random(8);
+        int visible = 0;
+        for (int i = 0; i < 3000; i++) {
+            int[] a = TestGrids.walkableCell(grid, random);
+            int[] b = TestGrids.walkableCell(grid, random);
+            if (!LineOfSight.betweenCuttingCorners(grid, a[0], a[1], b[0], b[1])) {
+                continue;
+            }
+            visible++;
+            for (int k = 0; k < 1009; k++) {
+                double t = (k + 0.37) / 1009;
+                double x = a[0] + 0.5 + t * (b[0] - a[0]);
+                double y = a[1] + 0.5 + t * (b[1] - a[1]);
+                assertTrue(grid.isWalkable((int) x, (int) y));
+            }
+        }
+        assertTrue(visible > 100);
+    }
+}
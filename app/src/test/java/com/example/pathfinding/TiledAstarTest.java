@@ -0,0 +1,98 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class TiledAstarTest {
+
+    // 37 x 21 leaves partly filled tiles on the right and bottom
+    private final CellLayout layout = new CellLayout(37, 21);
+
+    @Test
+    public void cellsAreNumberedByTileThenMortonOrder() {
+        boolean[] used = new boolean[layout.size()];
+        for (int y = 0; y < layout.height; y++) {
+            for (int x = 0; x < layout.width; x++) {
+                int index = layout.index(x, y);
+                assertEquals(((y >> 3) + 1) * layout.tilesX + (x >> 3) + 1, index >>> 6);
+                assertEquals(PathDatabase.morton(x & 7, y & 7), index & 63);
+                assertFalse(used[index]);
+                used[index] = true;
+                assertEquals(x, layout.x(index));
+                assertEquals(y, layout.y(index));
+                assertEquals(y * layout.width + x, layout.rowMajor(index));
+            }
+        }
+    }
+
+    // Offsets are measured once in an inner tile; they must hold in every
+    // tile, including for neighbours that fall in the border ring
+    @Test
+    public void neighbourOffsetsReachTheNeighbours() {
+        for (int y = 0; y < layout.height; y++) {
+            for (int x = 0; x < layout.width; x++) {
+                int index = layout.index(x, y);
+                for (int d = 0; d < 8; d++) {
+                    int neighbor = index + layout.neighborOffset[(index & 63) * 8 + d];
+                    assertEquals(x + AstarAlgorithm.DX[d], layout.x(neighbor));
+                    assertEquals(y + AstarAlgorithm.DY[d], layout.y(neighbor));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void walkableBitsFollowTheLayout() {
+        JpsGrid grid = TestGrids.random(layout.width, layout.height, 30, 2);
+        long[] tiles = layout.walkable(grid);
+        assertEquals(layout.tilesX * layout.tilesY, tiles.length);
+        for (int index = 0; index < layout.size(); index++) {
+            boolean bit = (tiles[index >>> 6] & (1L << index)) != 0;
+            // Border tiles and the unused part of edge tiles read as blocked
+            assertEquals(grid.isWalkable(layout.x(index), layout.y(index)), bit);
+        }
+    }
+
+    @Test
+    public void costsMatchDijkstra() {
+        JpsGrid[] grids = {TestGrids.random(130, 90, 30, 1), TestGrids.rooms(200, 200), TestGrids.open(150, 150, 2)};
+        Random random = new Random(13);
+        for (JpsGrid grid : grids) {
+            TiledAstar tiled = new TiledAstar(grid);
+            for (int i = 0; i < 30; i++) {
+                assertQuery(grid, tiled, TestGrids.walkableCell(grid, random), TestGrids.walkableCell(grid, random));
+            }
+        }
+    }
+
+    // setWalkable must keep the tiled copy of the grid in step
+    @Test
+    public void costsMatchDijkstraAfterEdits() {
+        JpsGrid grid = TestGrids.random(100, 100, 15, 4);
+        TiledAstar tiled = new TiledAstar(grid);
+        Random random = new Random(14);
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                tiled.setWalkable(random.nextInt(grid.width), random.nextInt(grid.height), random.nextBoolean());
+            }
+            for (int i = 0; i < 5; i++) {
+                assertQuery(grid, tiled, TestGrids.walkableCell(grid, random), TestGrids.walkableCell(grid, random));
+            }
+        }
+    }
+
+    private static void assertQuery(JpsGrid grid, TiledAstar tiled, int[] start, int[] goal) {
+        double expected = TestGrids.dijkstra(grid, start[0], start[1], goal[0], goal[1]);
+        GridPath path = tiled.findPath(start[0], start[1], goal[0], goal[1]);
+        if (expected < 0) {
+            assertNull(path);
+            return;
+        }
+        assertEquals(expected, path.cost(), 1e-9);
+        assertEquals(expected, TestGrids.walkCost(grid, path, start[0], start[1], goal[0], goal[1]), 1e-9);
+    }
+}
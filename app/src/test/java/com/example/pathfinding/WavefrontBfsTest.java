@@ -0,0 +1,63 @@
+package com.example.pathfinding;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import org.junit.Test;
+
+public class WavefrontBfsTest {
+
+    // 130 wide so rows end part-way through a word
+    private static final JpsGrid[] GRIDS = {
+            TestGrids.random(130, 90, 30, 1), TestGrids.rooms(200, 160), TestGrids.open(300, 70, 2),
+    };
+
+    @Test
+    public void distancesMatchQueueBfs() {
+        Random random = new Random(3);
+        for (JpsGrid grid : GRIDS) {
+            for (int i = 0; i < 5; i++) {
+                int[] start = TestGrids.walkableCell(grid, random);
+                assertArrayEquals(TestGrids.bfs(grid, start), WavefrontBfs.distances(grid, start[0], start[1]));
+            }
+        }
+    }
+
+    @Test
+    public void severalSourcesMatchQueueBfs() {
+        Random random = new Random(4);
+        for (JpsGrid grid : GRIDS) {
+            int[] a = TestGrids.walkableCell(grid, random);
+            int[] b = TestGrids.walkableCell(grid, random);
+            int[] sources = {a[0], a[1], b[0], b[1], -1, 0}; // the last source is off the map
+            assertArrayEquals(TestGrids.bfs(grid, sources), WavefrontBfs.distances(grid, sources));
+        }
+    }
+
+    @Test
+    public void hopCountMatchesQueueBfs() {
+        Random random = new Random(5);
+        for (JpsGrid grid : GRIDS) {
+            int[] start = TestGrids.walkableCell(grid, random);
+            int[] hops = TestGrids.bfs(grid, start);
+            for (int i = 0; i < 20; i++) {
+                int x = random.nextInt(grid.width);
+                int y = random.nextInt(grid.height); // blocked goals included
+                assertEquals(hops[y * grid.width + x], WavefrontBfs.hopCount(grid, start[0], start[1], x, y));
+            }
+        }
+    }
+
+    @Test
+    public void walledOffCellsAreUnreachable() {
+        JpsGrid grid = TestGrids.open(100, 100, 6);
+        for (int i = 0; i < 100; i++) {
+            grid.setWalkable(50, i, false);
+        }
+        grid.setWalkable(10, 10, true);
+        int[] distances = WavefrontBfs.distances(grid, 10, 10);
+        assertEquals(WavefrontBfs.UNREACHABLE, distances[10 * 100 + 90]);
+        assertEquals(WavefrontBfs.UNREACHABLE, WavefrontBfs.hopCount(grid, 10, 10, 90, 10));
+    }
+}